@@ -38,16 +38,23 @@ public final class CaissaTools extends Batchjob {
   public static final String  ERR_EINDVOORSTART   = "error.eind.voor.start";
   public static final String  ERR_FOUTEDATUM      = "error.foutedatum";
   public static final String  ERR_FOUTEDATUMIN    = "error.foutedatumin";
+  public static final String  ERR_FORMAAT         = "error.formaat";
   public static final String  ERR_GEENINVOER      = "error.geen.invoer";
   public static final String  ERR_GEENPARTIJEN    = "error.geen.partijen";
   public static final String  ERR_INVOER_ONGELIJK = "error.aantal.invoer";
   public static final String  ERR_KALENDER        = "error.kalender";
   public static final String  ERR_MAXVERSCHIL     = "error.maxverschil";
   public static final String  ERR_METVOORRONDE    = "error.met.voorronde";
+  public static final String  ERR_PERIODE         = "error.periode";
+  public static final String  ERR_POOLNAAM        = "error.poolnaam";
+  public static final String  ERR_REMISE          = "error.remise";
+  public static final String  ERR_SIMULATIES      = "error.simulaties";
   public static final String  ERR_TALENGELIJK     = "error.talen.gelijk";
   public static final String  ERR_TEMPLATE        = "error.template";
+  public static final String  ERR_TOERNOOIBESTAND = "error.toernooibestand";
   public static final String  ERR_TOERNOOITYPE    = "error.toernooitype";
   public static final String  ERR_TSEMAIL         = "error.tsemail";
+  public static final String  ERR_VARIANT         = "error.variant";
 
   public static final String  HLP_BESTAND       = "help.bestand";
   public static final String  HLP_MATRIXOPSTAND = "help.matrixopstand";
@@ -68,20 +75,27 @@ public final class CaissaTools extends Batchjob {
   public static final String  MSG_STARTTOERNOOI = "message.starttoernooi";
 
   public static final String  PAR_AKTIEF              = "aktief";
+  public static final String  PAR_ALIASBESTAND        = "aliasBestand";
   public static final String  PAR_AUTEUR              = "auteur";
   public static final String  PAR_BERICHT             = "bericht";
   public static final String  PAR_BESTAND             = "bestand";
+  public static final String  PAR_CACHE               = "cache";
   public static final String  PAR_COMPACT             = "compact";
+  public static final String  PAR_CONTROLEPUNT        = "controlepunt";
   public static final String  PAR_DATUM               = "datum";
   public static final String  PAR_DEFAULTECO          = "defaulteco";
   public static final String  PAR_DOORLOPEND          = "doorlopend";
   public static final String  PAR_EINDDATUM           = "eindDatum";
   public static final String  PAR_ENKELZETTEN         = "enkelzetten";
   public static final String  PAR_EVENT               = "event";
+  public static final String  PAR_EXPORT              = "export";
   public static final String  PAR_EXTRA               = "extra";
   public static final String  PAR_EXTRAINFO           = "extraInfo";
+  public static final String  PAR_FORMAAT             = "formaat";
   public static final String  PAR_GESCHIEDENISBESTAND = "geschiedenisBestand";
+  public static final String  PAR_HISTORIE            = "historie";
   public static final String  PAR_INCLUDELEGE         = "includelege";
+  public static final String  PAR_INDEX               = "index";
   public static final String  PAR_JSON                = "json";
   public static final String  PAR_KEYWORDS            = "keywords";
   public static final String  PAR_KLEUR               = "kleur";
@@ -97,18 +111,28 @@ public final class CaissaTools extends Batchjob {
   public static final String  PAR_METTRAJECTEN        = "metTrajecten";
   public static final String  PAR_METVOLGORDE         = "metVolgorde";
   public static final String  PAR_MINPARTIJEN         = "minPartijen";
+  public static final String  PAR_MOMENTOPNAMEN       = "momentopnamen";
+  public static final String  PAR_NAAMDREMPEL         = "naamDrempel";
+  public static final String  PAR_NAAMVOORSTEL        = "naamVoorstel";
   public static final String  PAR_NAARTAAL            = "naartaal";
   public static final String  PAR_NIEUWESPELERS       = "nieuweSpelers";
+  public static final String  PAR_PERBESTAND          = "perBestand";
+  public static final String  PAR_PERIODE             = "periode";
   public static final String  PAR_PERPARTIJ           = "perPartij";
   public static final String  PAR_PGN                 = "pgn";
+  public static final String  PAR_POOLBESTAND         = "poolBestand";
+  public static final String  PAR_POOLTAG             = "poolTag";
   public static final String  PAR_QRCODE              = "metQrCode";
+  public static final String  PAR_REMISE              = "remise";
   public static final String  PAR_SCHAAKNOTATIE       = "schaaknotatie.csv";
   public static final String  PAR_SCHEMA              = "schema";
+  public static final String  PAR_SIMULATIES          = "simulaties";
   public static final String  PAR_SITE                = "site";
   public static final String  PAR_SMTPPOORT           = "smtppoort";
   public static final String  PAR_SMTPSERVER          = "smtpserver";
   public static final String  PAR_SPELER              = "speler";
   public static final String  PAR_SPELERBESTAND       = "spelerBestand";
+  public static final String  PAR_SPELEROPSLAG        = "spelerOpslag";
   public static final String  PAR_SPELERS             = "spelers";
   public static final String  PAR_STARTDATUM          = "startDatum";
   public static final String  PAR_STARTELO            = "startELO";
@@ -117,6 +141,7 @@ public final class CaissaTools extends Batchjob {
   public static final String  PAR_TAG                 = "tag";
   public static final String  PAR_TEKSTKLEUR          = "tekstkleur";
   public static final String  PAR_TEMPLATE            = "template";
+  public static final String  PAR_THREADS             = "threads";
   public static final String  PAR_TITEL               = "titel";
   public static final String  PAR_TOERNOOIBESTAND     = "toernooiBestand";
   public static final String  PAR_TOERNOOITYPE        = "toernooitype";
@@ -124,9 +149,11 @@ public final class CaissaTools extends Batchjob {
   public static final String  PAR_TSEMAIL             = "tsemail";
   public static final String  PAR_UITVOER             = "uitvoer";
   public static final String  PAR_VANTAAL             = "vantaal";
+  public static final String  PAR_VARIANTEN           = "varianten";
   public static final String  PAR_VASTEKFACTOR        = "vasteKfactor";
   public static final String  PAR_VOORNICO            = "voorNico";
   public static final String  PAR_VOORRONDE           = "voorronde";
+  public static final String  PAR_ZAADJE              = "zaadje";
   public static final String  PAR_ZIP                 = "zip";
 
   protected static final  String  TOOL_ANALYSETEX         = "AnalyseToLatex";
@@ -142,6 +169,8 @@ public final class CaissaTools extends Batchjob {
       "StartCorrespondentie";
   protected static final  String  TOOL_STARTPGN           = "StartPgn";
   protected static final  String  TOOL_TOERNOOIOVERZICHT  = "Toernooioverzicht";
+  protected static final  String  TOOL_TOERNOOIVOORSPELLING =
+      "Toernooivoorspelling";
   protected static final  String  TOOL_TRF                =
       "TournamentReportFile";
   protected static final  String  TOOL_VERTAALPGN         = "VertaalPgn";
@@ -151,7 +180,7 @@ public final class CaissaTools extends Batchjob {
                     TOOL_ELOBEREKENAAR, TOOL_PGNCLEANER, TOOL_PGNTOHTML,
                     TOOL_PGNTOJSON, TOOL_PGNTOLATEX, TOOL_SPELERSTATISTIEK,
                     TOOL_STARTCORRESP, TOOL_STARTPGN, TOOL_TOERNOOIOVERZICHT,
-                    TOOL_TRF, TOOL_VERTAALPGN);
+                    TOOL_TOERNOOIVOORSPELLING, TOOL_TRF, TOOL_VERTAALPGN);
 
   public static final String  TXT_BANNER  = "Caissa Tools";
 
@@ -208,6 +237,9 @@ public final class CaissaTools extends Batchjob {
       case "toernooioverzicht":
         Toernooioverzicht.execute(commandoArgs);
         break;
+      case "toernooivoorspelling":
+        Toernooivoorspelling.execute(commandoArgs);
+        break;
       case "tournamentreportfile":
         TournamentReportFile.execute(commandoArgs);
         break;
@@ -246,6 +278,17 @@ public final class CaissaTools extends Batchjob {
       return texInvoer;
   }
 
+  // Het aantal threads voor een aantal taken. Zonder <threads> nooit meer
+  // dan het aantal processoren en altijd minstens 1.
+  protected static int getThreads(ParameterBundle params, int taken) {
+    if (params.containsArgument(PAR_THREADS)) {
+      return Math.max(1, params.getInteger(PAR_THREADS));
+    }
+
+    return Math.max(1, Math.min(taken,
+                                Runtime.getRuntime().availableProcessors()));
+  }
+
   public static void help() {
     tools.forEach(tool -> {
       var parameterBundle = new ParameterBundle.Builder()
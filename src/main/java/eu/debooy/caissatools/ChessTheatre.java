@@ -31,10 +31,15 @@ import eu.debooy.doosutils.access.BestandConstants;
 import eu.debooy.doosutils.access.TekstBestand;
 import eu.debooy.doosutils.exception.BestandException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.stream.IntStream;
 
 
 /**
@@ -64,12 +69,10 @@ public final class ChessTheatre extends Batchjob {
       return;
     }
 
-    TekstBestand  gamedata      = null;
     TekstBestand  headers       = null;
     var           maxBestanden  = 50;
     var           minPartijen   = 1;
     TekstBestand  updates       = null;
-    var           versie        = manifestInfo.getBuildVersion();
 
     if (paramBundle.containsArgument(CaissaTools.PAR_MAXBESTANDEN)) {
       var hulp  = paramBundle.getLong(CaissaTools.PAR_MAXBESTANDEN).intValue();
@@ -84,14 +87,32 @@ public final class ChessTheatre extends Batchjob {
       }
     }
 
-    Collection<PGN> partijen    = new TreeSet<>(new PGN.ByEventComparator());
+    var             bestand   =
+        paramBundle.getBestand(CaissaTools.PAR_BESTAND,
+                               BestandConstants.EXT_PGN);
+    List<Integer>   nummers   = new ArrayList<>();
+    List<PGN>       partijen;
+    PgnIndex        pgnIndex  = null;
     try {
-      partijen.addAll(
-          CaissaUtils.laadPgnBestand(
-              paramBundle.getBestand(CaissaTools.PAR_BESTAND,
-                                     BestandConstants.EXT_PGN),
-              paramBundle.getString(PAR_CHARSETIN)));
-    } catch (PgnException e) {
+      if (Boolean.TRUE.equals(paramBundle.getBoolean(CaissaTools.PAR_INDEX))) {
+        pgnIndex  =
+            PgnIndex.laad(bestand, paramBundle.getString(PAR_CHARSETIN));
+        Map<PGN, Integer> volgorde  =
+            new TreeMap<>(new PGN.ByEventComparator());
+        for (var i = 0; i < pgnIndex.size(); i++) {
+          volgorde.putIfAbsent(pgnIndex.get(i).toPgn(), i);
+        }
+        partijen  = new ArrayList<>(volgorde.keySet());
+        nummers.addAll(volgorde.values());
+      } else {
+        Collection<PGN> gesorteerd  =
+            new TreeSet<>(new PGN.ByEventComparator());
+        gesorteerd.addAll(
+            CaissaUtils.laadPgnBestand(bestand,
+                                       paramBundle.getString(PAR_CHARSETIN)));
+        partijen  = new ArrayList<>(gesorteerd);
+      }
+    } catch (BestandException | PgnException e) {
       DoosUtils.foutNaarScherm(e.getLocalizedMessage());
       return;
     }
@@ -100,7 +121,8 @@ public final class ChessTheatre extends Batchjob {
     if (aantalPartijen < minPartijen) {
       aantalPartijen  = minPartijen;
     }
-    var   gameFile        = 0;
+    var gameFiles       =
+        (partijen.size() + aantalPartijen - 1) / aantalPartijen;
 
     try {
       // Maak de headers.xml file
@@ -116,6 +138,9 @@ public final class ChessTheatre extends Batchjob {
                     + paramBundle.getBestand(CaissaTools.PAR_ZIP,
                                              BestandConstants.EXT_ZIP)
                     + "\">");
+      schrijfHeaders(headers, partijen);
+      headers.write("</chessgames>");
+
       // Maak de updates.xml file
       updates   =
           new TekstBestand.Builder()
@@ -124,115 +149,11 @@ public final class ChessTheatre extends Batchjob {
                           .setCharset(paramBundle.getString(PAR_CHARSETUIT))
                           .setLezen(false).build();
       updates.write(CaissaTools.XML_HEADING);
-
-      var partijNummer  = 0;
-      var iter          = partijen.iterator();
-      var partij        = iter.next();
-      var vorigEvent    = partij.getTag(PGN.PGNTAG_EVENT);
-      var vorigRound    = partij.getTag(PGN.PGNTAG_ROUND);
-
-      headers.write("  <tourney event=\"" + vorigEvent + "\">");
-      headers.write("    " + HTML_ROUND_START + vorigRound + "\">");
-
-      do {
-        if (partijNummer%aantalPartijen == 0) {
-          if (null != gamedata) {
-            gamedata.write("</gamedata>");
-            gamedata.write("<!-- Generated by CaissaTools [v" + versie +
-                          "] for DGT ChessTheatre -->");
-            gamedata.close();
-          }
-          // Maak de gamedataX.xml file
-          gamedata  =
-              new TekstBestand.Builder()
-                              .setBestand(paramBundle.getString(PAR_UITVOERDIR)
-                                          + "gamedata" + gameFile + ".xml")
-                              .setCharset(paramBundle.getString(PAR_CHARSETUIT))
-                              .setLezen(false).build();
-          gamedata.write(CaissaTools.XML_HEADING);
-          gamedata.write("<gamedata>");
-          gameFile++;
-        }
-        partijNummer++;
-        if (!partij.getTag(PGN.PGNTAG_EVENT).equals(vorigEvent)) {
-          headers.write("    " + HTML_ROUND_EINDE);
-          headers.write("  </tourney>");
-
-          headers.write("  <tourney event=\""
-                        + partij.getTag(PGN.PGNTAG_EVENT) + "\">");
-          headers.write("    " + HTML_ROUND_START
-                        + partij.getTag(PGN.PGNTAG_ROUND)+ "\">");
-        } else {
-          if (!partij.getTag(PGN.PGNTAG_ROUND).equals(vorigRound)) {
-            headers.write("    " + HTML_ROUND_EINDE);
-
-            vorigRound  = partij.getTag(PGN.PGNTAG_ROUND);
-            headers.write("    " + HTML_ROUND_START
-                          + partij.getTag(PGN.PGNTAG_ROUND)
-                          + "\">");
-          }
-        }
-
-        var fen = new FEN();
-        if (partij.hasTag(PGN.PGNTAG_FEN)) {
-          fen.setFen(partij.getTag(PGN.PGNTAG_FEN));
-        }
-        headers.write("      <game id=\"" + partijNummer + "\" "
-                      + "whiteplayer=\""
-                        + partij.getTag(PGN.PGNTAG_WHITE) + "\" "
-                      + "blackplayer=\""
-                        + partij.getTag(PGN.PGNTAG_BLACK) + "\" "
-                      + "result=\""
-                        + partij.getTag(PGN.PGNTAG_RESULT) + "\" "
-                      + "site=\""
-                        + partij.getTag(PGN.PGNTAG_SITE) + "\" "
-                      + "tourneydate=\""
-                        + partij.getTag(PGN.PGNTAG_DATE) + "\" />");
-
-        gamedata.write("  <game id=\"" + partijNummer + "\">");
-        gamedata.write(
-            "    <plies type=\"ffenu\">" + fen.getKortePositie() + "</plies>");
-        gamedata.write(
-            "    <comment>" + partij.getTagsAsString());
-        gamedata.write("    </comment>");
-        var lijn  = new StringBuilder("    <plies type=\"ffenu\">");
-        if (!partij.getZuivereZetten().isEmpty()) {
-          try {
-            lijn.append(parseZetten(fen,partij.getZuivereZetten()));
-          } catch (PgnException e) {
-            DoosUtils.foutNaarScherm("Error in " + partij.getTagsAsString());
-            DoosUtils.foutNaarScherm(e.getLocalizedMessage());
-          }
-        }
-        lijn.append("</plies>");
-        gamedata.write(lijn.toString());
-        gamedata.write("  </game>");
-
-        if (iter.hasNext()) {
-          vorigEvent  = partij.getTag(PGN.PGNTAG_EVENT);
-          vorigRound  = partij.getTag(PGN.PGNTAG_ROUND);
-          partij      = iter.next();
-        } else {
-          partij  = null;
-        }
-      } while (null != partij);
-
-      gamedata.write("</gamedata>");
-      gamedata.write("<!-- Generated by CaissaTools [v" + versie
-                     + "] for DGT ChessTheatre -->");
-
-      headers.write("    " + HTML_ROUND_EINDE);
-      headers.write("  </tourney>");
-      headers.write("</chessgames>");
-
       updates.write("<updates count=\"0\" />");
-    } catch (FenException | BestandException e) {
+    } catch (BestandException e) {
       DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     } finally {
       try {
-        if (gamedata != null) {
-          gamedata.close();
-        }
         if (headers != null) {
           headers.close();
         }
@@ -243,12 +164,22 @@ public final class ChessTheatre extends Batchjob {
         DoosUtils.foutNaarScherm(e.getLocalizedMessage());
       }
     }
+
+    // Maak de gamedataX.xml files. Elk bestand is onafhankelijk van de
+    // andere en wordt dus parallel gemaakt.
+    var gamesPerFile  = aantalPartijen;
+    var index         = pgnIndex;
+    IntStream.range(0, gameFiles)
+             .parallel()
+             .forEach(gameFile -> schrijfGamedata(gameFile, gamesPerFile,
+                                                  partijen, index, nummers));
+
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
                              partijen.size()));
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString("label.bestanden"),
-                             gameFile));
+                             gameFiles));
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString("label.uitvoer"),
                              paramBundle.getString(PAR_UITVOERDIR)));
@@ -261,4 +192,114 @@ public final class ChessTheatre extends Batchjob {
       throws PgnException {
     return CaissaUtils.pgnZettenToChessTheatre(fen, pgnZetten);
   }
+
+  private static void schrijfGamedata(int gameFile, int aantalPartijen,
+                                      List<PGN> partijen, PgnIndex pgnIndex,
+                                      List<Integer> nummers) {
+    var van = gameFile * aantalPartijen;
+    var tot = Math.min(van + aantalPartijen, partijen.size());
+
+    try (var gamedata =
+            new TekstBestand.Builder()
+                            .setBestand(paramBundle.getString(PAR_UITVOERDIR)
+                                        + "gamedata" + gameFile + ".xml")
+                            .setCharset(paramBundle.getString(PAR_CHARSETUIT))
+                            .setLezen(false).build()) {
+      gamedata.write(CaissaTools.XML_HEADING);
+      gamedata.write("<gamedata>");
+      for (var i = van; i < tot; i++) {
+        PGN partij;
+        if (null == pgnIndex) {
+          partij  = partijen.get(i);
+        } else {
+          partij  = pgnIndex.lees(nummers.get(i));
+        }
+        schrijfPartij(gamedata, i + 1, partij);
+      }
+      gamedata.write("</gamedata>");
+      gamedata.write("<!-- Generated by CaissaTools [v"
+                     + manifestInfo.getBuildVersion()
+                     + "] for DGT ChessTheatre -->");
+    } catch (BestandException | FenException | PgnException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+    }
+  }
+
+  private static void schrijfHeaders(TekstBestand headers, List<PGN> partijen)
+      throws BestandException {
+    String  vorigEvent  = null;
+    String  vorigRound  = null;
+
+    for (var i = 0; i < partijen.size(); i++) {
+      var partij  = partijen.get(i);
+      var event   = partij.getTag(PGN.PGNTAG_EVENT);
+      var round   = partij.getTag(PGN.PGNTAG_ROUND);
+
+      if (i == 0) {
+        headers.write("  <tourney event=\"" + event + "\">");
+        headers.write("    " + HTML_ROUND_START + round + "\">");
+      } else {
+        if (!event.equals(vorigEvent)) {
+          headers.write("    " + HTML_ROUND_EINDE);
+          headers.write("  </tourney>");
+
+          headers.write("  <tourney event=\"" + event + "\">");
+          headers.write("    " + HTML_ROUND_START + round + "\">");
+        } else {
+          if (!round.equals(vorigRound)) {
+            headers.write("    " + HTML_ROUND_EINDE);
+            headers.write("    " + HTML_ROUND_START + round + "\">");
+          }
+        }
+      }
+
+      headers.write("      <game id=\"" + (i + 1) + "\" "
+                    + "whiteplayer=\""
+                      + partij.getTag(PGN.PGNTAG_WHITE) + "\" "
+                    + "blackplayer=\""
+                      + partij.getTag(PGN.PGNTAG_BLACK) + "\" "
+                    + "result=\""
+                      + partij.getTag(PGN.PGNTAG_RESULT) + "\" "
+                    + "site=\""
+                      + partij.getTag(PGN.PGNTAG_SITE) + "\" "
+                    + "tourneydate=\""
+                      + partij.getTag(PGN.PGNTAG_DATE) + "\" />");
+
+      vorigEvent  = event;
+      vorigRound  = round;
+    }
+
+    if (!partijen.isEmpty()) {
+      headers.write("    " + HTML_ROUND_EINDE);
+      headers.write("  </tourney>");
+    }
+  }
+
+  private static void schrijfPartij(TekstBestand gamedata, int partijNummer,
+                                    PGN partij)
+      throws BestandException, FenException {
+    var fen = new FEN();
+    if (partij.hasTag(PGN.PGNTAG_FEN)) {
+      fen.setFen(partij.getTag(PGN.PGNTAG_FEN));
+    }
+
+    gamedata.write("  <game id=\"" + partijNummer + "\">");
+    gamedata.write(
+        "    <plies type=\"ffenu\">" + fen.getKortePositie() + "</plies>");
+    gamedata.write(
+        "    <comment>" + partij.getTagsAsString());
+    gamedata.write("    </comment>");
+    var lijn  = new StringBuilder("    <plies type=\"ffenu\">");
+    if (!partij.getZuivereZetten().isEmpty()) {
+      try {
+        lijn.append(parseZetten(fen,partij.getZuivereZetten()));
+      } catch (PgnException e) {
+        DoosUtils.foutNaarScherm("Error in " + partij.getTagsAsString());
+        DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      }
+    }
+    lijn.append("</plies>");
+    gamedata.write(lijn.toString());
+    gamedata.write("  </game>");
+  }
 }
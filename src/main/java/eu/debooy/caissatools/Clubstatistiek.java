@@ -36,6 +36,7 @@ import eu.debooy.doosutils.exception.BestandException;
 import java.text.MessageFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
@@ -51,6 +52,7 @@ public class Clubstatistiek extends Batchjob {
                                Locale.getDefault());
 
   private static  JSONObject        club;
+  private static  NaamIndex         naamIndex;
   private static  Integer           toernooitype;
   private static  List<Spelerinfo>  voorronde;
 
@@ -73,14 +75,46 @@ public class Clubstatistiek extends Batchjob {
     voorronde     = new ArrayList<>();
 
     leesStatistiek();
+    try {
+      naamIndex   = NaamIndex.maak(paramBundle);
+      if (club.containsKey(CaissaTools.PAR_SPELERS)) {
+        ((JSONObject) club.get(CaissaTools.PAR_SPELERS))
+            .keySet().forEach(naam -> naamIndex.voegToe(naam.toString()));
+      }
+      naamIndex.zoekVooraf(getGroepen());
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      return;
+    }
 
     verwerkVoorronde();
     verwerkFinaleronde();
     schrijfStatistiek();
 
+    try {
+      naamIndex.bewaar();
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+    }
+
     klaar();
   }
 
+  // De PGN bestanden van de voorronde en van de finaleronde.
+  private static String[] getGroepen() {
+    List<String>  groepen = new ArrayList<>();
+    if (paramBundle.containsArgument(CaissaTools.PAR_VOORRONDE)) {
+      groepen.addAll(
+          Arrays.asList(paramBundle.getString(CaissaTools.PAR_VOORRONDE)
+                                   .split(";")));
+    }
+    groepen.addAll(
+        Arrays.asList(paramBundle.getString(CaissaTools.PAR_BESTAND)
+                                 .split(";")));
+
+    return groepen.toArray(new String[0]);
+  }
+
   private static String getSite() {
     var bestand = paramBundle.getString(CaissaTools.PAR_BESTAND).split(";")[0];
 
@@ -137,6 +171,7 @@ public class Clubstatistiek extends Batchjob {
                                 .split(";")) {
       try {
         var partijen    = CaissaUtils.laadPgnBestand(groep);
+        zetNamen(partijen);
         var competitie  = new Competitie(partijen, toernooitype);
 
         CaissaUtils.vulToernooiMatrix(partijen, competitie, false);
@@ -222,6 +257,7 @@ public class Clubstatistiek extends Batchjob {
                                 .split(";")) {
       try {
         var partijen    = CaissaUtils.laadPgnBestand(groep);
+        zetNamen(partijen);
         var competitie  = new Competitie(partijen, toernooitype);
         CaissaUtils.vulToernooiMatrix(partijen, competitie, false);
         competitie.getDeelnemers().forEach(speler -> {
@@ -239,4 +275,15 @@ public class Clubstatistiek extends Batchjob {
       }
     }
   }
+
+  // Zet de spelers van elke partij om naar hun vaste naam.
+  private static void zetNamen(Iterable<PGN> partijen)
+      throws PgnException {
+    for (var partij : partijen) {
+      partij.setTag(PGN.PGNTAG_WHITE,
+                    naamIndex.getNaam(partij.getTag(PGN.PGNTAG_WHITE)));
+      partij.setTag(PGN.PGNTAG_BLACK,
+                    naamIndex.getNaam(partij.getTag(PGN.PGNTAG_BLACK)));
+    }
+  }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.access.CsvBestand;
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Houdt per toernooibestand bij hoeveel partijen (vanaf het begin van het
+ * bestand) ELOBerekenaar niet meer opnieuw hoeft te lezen. Een partij telt
+ * mee als beide spelers in het spelerbestand staan en minstens één van hen
+ * daarna (of op dezelfde dag) nog een partij speelde. Zo'n partij wordt bij
+ * elke volgende run toch afgewezen.
+ *
+ * Het controlepunt bevat de datum van de laatste partij en een vingerafdruk
+ * van het bestand tot aan het controlepunt. Het is enkel geldig zolang het
+ * spelerbestand niet buiten ELOBerekenaar om gewijzigd wordt en de opties
+ * van ELOBerekenaar niet wijzigen.
+ *
+ * @author Marco de Booij
+ */
+public final class Controlepunt {
+  public static final String  EXT_CONTROLEPUNT  = "ckp";
+
+  private static final  String[]  KOLOMMEN  =
+      new String[]{"toernooiBestand", "partijen", "datum", "vingerafdruk",
+                   "spelers"};
+
+  private final String              bestand;
+  private final String              opties;
+  private final Map<String, Punt>   punten  = new TreeMap<>();
+
+  private static final class Punt {
+    private final String  datum;
+    private final int     partijen;
+    private final String  vingerafdruk;
+
+    private Punt(int partijen, String datum, String vingerafdruk) {
+      this.datum        = datum;
+      this.partijen     = partijen;
+      this.vingerafdruk = vingerafdruk;
+    }
+  }
+
+  private Controlepunt(String bestand, String opties) {
+    this.bestand  = bestand;
+    this.opties   = opties;
+  }
+
+  // Pas aanroepen nadat de spelerstand geschreven is. Zijn vingerafdruk
+  // wordt mee bewaard.
+  public void bewaar(String spelerstand) throws BestandException {
+    if (!Files.exists(Paths.get(spelerstand))) {
+      return;
+    }
+
+    var spelers = getVingerafdruk(spelerstand, opties);
+    try (var uitvoer  = new CsvBestand.Builder()
+                                      .setBestand(bestand)
+                                      .setLezen(false)
+                                      .setKolomNamen(KOLOMMEN)
+                                      .build()) {
+      for (var punt : punten.entrySet()) {
+        uitvoer.write(punt.getKey(), punt.getValue().partijen,
+                      punt.getValue().datum, punt.getValue().vingerafdruk,
+                      spelers);
+      }
+    }
+  }
+
+  protected static String getControlepuntnaam(String spelerBestand) {
+    if (spelerBestand.toLowerCase().endsWith(".csv")) {
+      return spelerBestand.substring(0, spelerBestand.length() - 3)
+              + EXT_CONTROLEPUNT;
+    }
+
+    return spelerBestand + "." + EXT_CONTROLEPUNT;
+  }
+
+  public String getDatum(String toernooi) {
+    var punt  = punten.get(getSleutel(toernooi));
+    if (null == punt) {
+      return "";
+    }
+
+    return punt.datum;
+  }
+
+  // Geeft het aantal partijen dat overgeslagen mag worden. Als het begin van
+  // het bestand gewijzigd is dan moet alles opnieuw gelezen worden.
+  public int getPartijen(String toernooi, PgnIndex pgnIndex) {
+    var punt  = punten.get(getSleutel(toernooi));
+    if (null == punt
+        || punt.partijen > pgnIndex.size()
+        || !punt.vingerafdruk
+                .equals(toHex(pgnIndex.getVingerafdruk(punt.partijen)))) {
+      return 0;
+    }
+
+    return punt.partijen;
+  }
+
+  private static String getSleutel(String toernooi) {
+    return Paths.get(toernooi).toAbsolutePath().normalize().toString();
+  }
+
+  private static String getVingerafdruk(String bestand, String opties)
+      throws BestandException {
+    MessageDigest digest;
+    try {
+      digest  = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    try {
+      digest.update(opties.getBytes(StandardCharsets.UTF_8));
+      return toHex(digest.digest(Files.readAllBytes(Paths.get(bestand))));
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  public static Controlepunt laad(String spelerBestand)
+      throws BestandException {
+    return laad(spelerBestand, spelerBestand, "");
+  }
+
+  // De spelerstand is het bestand waaruit de spelers gelezen zijn. Dat is
+  // het spelerBestand of de opslag van ELOBerekenaar. Met andere opties is
+  // het controlepunt niet geldig.
+  public static Controlepunt laad(String spelerBestand, String spelerstand,
+                                  String opties)
+      throws BestandException {
+    var controlepunt  = new Controlepunt(getControlepuntnaam(spelerBestand),
+                                         opties);
+    if (!Files.exists(Paths.get(controlepunt.bestand))
+        || !Files.exists(Paths.get(spelerstand))) {
+      return controlepunt;
+    }
+
+    var spelers = getVingerafdruk(spelerstand, opties);
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(controlepunt.bestand)
+                                    .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        if (veld.length == KOLOMMEN.length
+            && spelers.equals(veld[4])) {
+          controlepunt.punten.put(veld[0],
+                                  new Punt(Integer.parseInt(veld[1]), veld[2],
+                                           veld[3]));
+        }
+      }
+    }
+
+    return controlepunt;
+  }
+
+  private static String toHex(byte[] bytes) {
+    var hex = new StringBuilder();
+    for (var b : bytes) {
+      hex.append(String.format("%02x", b));
+    }
+
+    return hex.toString();
+  }
+
+  public void zet(String toernooi, PgnIndex pgnIndex, int partijen,
+                  String datum) {
+    punten.put(getSleutel(toernooi),
+               new Punt(partijen, datum,
+                        toHex(pgnIndex.getVingerafdruk(partijen))));
+  }
+}
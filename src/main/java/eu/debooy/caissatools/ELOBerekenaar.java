@@ -17,10 +17,8 @@
 package eu.debooy.caissatools;
 
 import eu.debooy.caissa.CaissaConstants;
-import eu.debooy.caissa.CaissaUtils;
 import eu.debooy.caissa.ELO;
 import eu.debooy.caissa.PGN;
-import eu.debooy.caissa.Spelerinfo;
 import eu.debooy.caissa.exceptions.PgnException;
 import eu.debooy.doosutils.Batchjob;
 import eu.debooy.doosutils.Datum;
@@ -31,24 +29,38 @@ import eu.debooy.doosutils.ParameterBundle;
 import eu.debooy.doosutils.access.BestandConstants;
 import eu.debooy.doosutils.access.CsvBestand;
 import eu.debooy.doosutils.exception.BestandException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.MessageFormat;
 import java.text.ParseException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Date;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 
 /**
  * @author Marco de Booij
  */
 public final class ELOBerekenaar extends Batchjob {
+  protected static final  String  PERIODE_MAAND = "maand";
+  protected static final  String  PERIODE_WEEK  = "week";
+
   private static final  ResourceBundle  resourceBundle  =
       ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
                                Locale.getDefault());
@@ -63,15 +75,63 @@ public final class ELOBerekenaar extends Batchjob {
                         CaissaConstants.PARTIJ_BEZIG);
 
   private static  String      eindDatum;
+  private static  boolean     export;
   private static  boolean     extraInfo;
   private static  Integer     kFactor;
   private static  Integer     maxVerschil;
+  private static  boolean     metControlepunt;
+  private static  boolean     momentopnamen;
+  private static  boolean     opslagGeladen;
+  private static  String      periode;
+  private static  String      poolTag;
+  private static  boolean     spelerOpslag;
   private static  String      startDatum;
   private static  int         startElo;
+  private static  String      vanaf;
   private static  int         verwerkt;
 
-  private static  List<Spelerinfo>      spelerinfos;
-  private static  Map<String, Integer>  spelers;
+  private static  Controlepunt          controlepunt;
+  private static  ELOMotor              motor;
+  private static  NaamIndex             naamIndex;
+  private static  Map<String, String>   poolIndeling;
+
+  private static final class Partij {
+    private final int     dag;
+    private final String  datum;
+    private final String  event;
+    private final String  pool;
+    private final int     uitslag;
+    private final String  wit;
+    private final String  zwart;
+
+    private Partij(PGN partij, int dag) {
+      this.dag  = dag;
+      datum     = partij.getTag(PGN.PGNTAG_DATE);
+      event     = partij.getTag(PGN.PGNTAG_EVENT);
+      pool      = getPool(partij);
+      uitslag   = UITSLAGEN.indexOf(partij.getTag(PGN.PGNTAG_RESULT));
+      wit       = naamIndex.getNaam(partij.getTag(PGN.PGNTAG_WHITE));
+      zwart     = naamIndex.getNaam(partij.getTag(PGN.PGNTAG_BLACK));
+    }
+  }
+
+  private static final class Variant {
+    private final Integer kFactor;
+    private final int     maxVerschil;
+    private final int     startElo;
+
+    private Variant(Integer kFactor, int maxVerschil, int startElo) {
+      this.kFactor      = kFactor;
+      this.maxVerschil  = maxVerschil;
+      this.startElo     = startElo;
+    }
+
+    @Override
+    public String toString() {
+      return (null == kFactor ? "" : kFactor) + "/" + maxVerschil + "/"
+              + startElo;
+    }
+  }
 
   protected ELOBerekenaar() {}
 
@@ -88,14 +148,12 @@ public final class ELOBerekenaar extends Batchjob {
       return;
     }
 
-    spelerinfos   = new ArrayList<>();
-    spelers       = new TreeMap<>();
-
     if (paramBundle.containsArgument(CaissaTools.PAR_EINDDATUM)) {
       eindDatum   = paramBundle.getString(CaissaTools.PAR_EINDDATUM);
     } else {
       eindDatum   = CaissaConstants.DEF_EINDDATUM;
     }
+    export        = paramBundle.getBoolean(CaissaTools.PAR_EXPORT);
     extraInfo     = paramBundle.getBoolean(CaissaTools.PAR_EXTRAINFO);
     if (paramBundle.containsArgument(CaissaTools.PAR_VASTEKFACTOR)) {
       kFactor     = paramBundle.getInteger(CaissaTools.PAR_VASTEKFACTOR);
@@ -109,10 +167,63 @@ public final class ELOBerekenaar extends Batchjob {
     } else {
       startDatum  = CaissaConstants.DEF_STARTDATUM;
     }
+    metControlepunt = paramBundle.getBoolean(CaissaTools.PAR_CONTROLEPUNT);
+    momentopnamen = paramBundle.getBoolean(CaissaTools.PAR_MOMENTOPNAMEN);
+    motor         = new ELOMotor(startElo, kFactor, maxVerschil);
+    opslagGeladen = false;
+    if (paramBundle.containsArgument(CaissaTools.PAR_PERIODE)) {
+      periode     = paramBundle.getString(CaissaTools.PAR_PERIODE)
+                               .toLowerCase();
+    } else {
+      periode     = null;
+    }
+    spelerOpslag  = paramBundle.getBoolean(CaissaTools.PAR_SPELEROPSLAG)
+                      && !momentopnamen;
+    vanaf         = "";
     verwerkt      = 0;
+    try {
+      naamIndex   = NaamIndex.maak(paramBundle);
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      return;
+    }
+
+    if (paramBundle.containsArgument(CaissaTools.PAR_HISTORIE)) {
+      toonHistorie();
+      return;
+    }
+
+    if (paramBundle.containsArgument(CaissaTools.PAR_VARIANTEN)) {
+      poolTag = null;
+      berekenVarianten();
+      return;
+    }
 
-    leesSpelers(paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND));
-    var aantalPartijen  = verwerkToernooi();
+    if (paramBundle.containsArgument(CaissaTools.PAR_POOLTAG)
+        || paramBundle.containsArgument(CaissaTools.PAR_POOLBESTAND)) {
+      berekenPools();
+      return;
+    }
+    poolTag       = null;
+
+    int aantalPartijen;
+    if (momentopnamen) {
+      controlepunt    = null;
+      aantalPartijen  = herberekenToernooi();
+    } else {
+      if (!leesOpslag()) {
+        leesSpelers(motor,
+                    paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND));
+      }
+      leesControlepunt();
+      // Zonder alle partijen geen nieuwe ratings.
+      try {
+        aantalPartijen  = verwerkToernooi();
+      } catch (BestandException | PgnException e) {
+        DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+        return;
+      }
+    }
 
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_BESTAND),
@@ -131,51 +242,700 @@ public final class ELOBerekenaar extends Batchjob {
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
                              aantalPartijen));
+    // Met momentopnamen kunnen er ook partijen verdwenen zijn.
+    if (spelerOpslag) {
+      schrijfOpslag();
+    } else if (verwerkt > 0
+               || momentopnamen) {
+      schrijfSpelers(motor,
+                     paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND,
+                                            BestandConstants.EXT_CSV));
+    }
     if (verwerkt > 0) {
-      schrijfSpelers(spelers, spelerinfos);
       DoosUtils.naarScherm(
           MessageFormat.format(resourceBundle.getString("label.verwerkt"),
                                verwerkt));
     }
+    if (!vanaf.isEmpty()) {
+      DoosUtils.naarScherm(
+          MessageFormat.format(resourceBundle.getString("label.vanaf"),
+                               vanaf));
+    }
+    schrijfControlepunt();
     if (null != kFactor) {
       DoosUtils.naarScherm(
           MessageFormat.format(resourceBundle.getString("label.kFactor"),
                                kFactor));
     }
+    bewaarAliassen();
     DoosUtils.naarScherm();
     DoosUtils.naarScherm(getMelding(MSG_KLAAR));
     DoosUtils.naarScherm();
   }
 
-  private static void leesSpelers(String spelerBestand) {
+  // De partijen worden één keer gelezen en per pool verdeeld. Spelers uit
+  // verschillende pools spelen nooit tegen elkaar. Elke pool heeft zijn
+  // eigen spelerBestand en geschiedenisBestand en wordt op een eigen thread
+  // berekend.
+  private static void berekenPools() {
+    var spelerBestand = paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND);
+    var geschiedenis  =
+        paramBundle.getBestand(CaissaTools.PAR_GESCHIEDENISBESTAND);
+    poolTag           = paramBundle.getString(CaissaTools.PAR_POOLTAG);
+    poolIndeling      = new HashMap<>();
+    if (paramBundle.containsArgument(CaissaTools.PAR_POOLBESTAND)) {
+      try {
+        leesPoolIndeling(
+            paramBundle.getBestand(CaissaTools.PAR_POOLBESTAND));
+      } catch (BestandException e) {
+        DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+        return;
+      }
+    }
+
+    List<Partij>  alle    = new ArrayList<>();
+    var           aantal  = leesPartijen(alle);
+    Map<String, List<Partij>>
+                  pools   = new TreeMap<>();
+    for (var partij : alle) {
+      if (!partij.pool.isEmpty()) {
+        pools.computeIfAbsent(partij.pool, k -> new ArrayList<>())
+             .add(partij);
+      }
+    }
+
+    List<String>  namen     = new ArrayList<>(pools.keySet());
+    var           motoren   = new ELOMotor[namen.size()];
+    var           fouten    = new Exception[namen.size()];
+    var           perPool   = new int[namen.size()];
+    if (!isUniekeBestandnamen(spelerBestand, namen)) {
+      return;
+    }
+
+    for (var i = 0; i < namen.size(); i++) {
+      motoren[i]  = new ELOMotor(startElo, kFactor, maxVerschil);
+      leesSpelers(motoren[i], getBestandnaam(spelerBestand, namen.get(i)));
+    }
+
+    var forkJoin  =
+        new ForkJoinPool(CaissaTools.getThreads(paramBundle, namen.size()));
+    try {
+      forkJoin.submit(() ->
+          IntStream.range(0, namen.size())
+                   .parallel()
+                   .forEach(i -> {
+                     try {
+                       var naam = namen.get(i);
+                       perPool[i] =
+                           verwerkPool(motoren[i], pools.get(naam),
+                                       getBestandnaam(geschiedenis, naam));
+                     } catch (BestandException e) {
+                       fouten[i]  = e;
+                     }
+                   }))
+          .get();
+    } catch (ExecutionException e) {
+      DoosUtils.foutNaarScherm(e.getCause().getLocalizedMessage());
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } finally {
+      forkJoin.shutdown();
+    }
+
+    var totaal  = 0;
+    for (var i = 0; i < namen.size(); i++) {
+      if (null != fouten[i]) {
+        DoosUtils.foutNaarScherm(fouten[i].getLocalizedMessage());
+      }
+      if (perPool[i] > 0) {
+        schrijfSpelers(motoren[i],
+                       getBestandnaam(spelerBestand, namen.get(i)));
+      }
+      totaal  += perPool[i];
+    }
+
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_BESTAND),
+                             spelerBestand));
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
+                             aantal));
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString("label.pools"),
+                             String.join(", ", namen)));
+    if (totaal > 0) {
+      DoosUtils.naarScherm(
+          MessageFormat.format(resourceBundle.getString("label.verwerkt"),
+                               totaal));
+    }
+    bewaarAliassen();
+    DoosUtils.naarScherm();
+    DoosUtils.naarScherm(getMelding(MSG_KLAAR));
+    DoosUtils.naarScherm();
+  }
+
+  // De partijen worden één keer gelezen. Daarna wordt elke variant, vanaf
+  // nul, op een eigen thread berekend.
+  private static void berekenVarianten() {
+    var             spelerBestand =
+        paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND);
+    var             varianten     = getVarianten();
+    List<Partij>    partijen      = new ArrayList<>();
+    var             aantal        = leesPartijen(partijen);
+    var             motoren       = new ELOMotor[varianten.size()];
+
+    var pool  =
+        new ForkJoinPool(CaissaTools.getThreads(paramBundle,
+                                                varianten.size()));
+    try {
+      pool.submit(() ->
+          IntStream.range(0, varianten.size())
+                   .parallel()
+                   .forEach(i -> motoren[i] = speelNa(varianten.get(i),
+                                                      partijen)))
+          .get();
+    } catch (ExecutionException e) {
+      DoosUtils.foutNaarScherm(e.getCause().getLocalizedMessage());
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } finally {
+      pool.shutdown();
+    }
+
+    for (var i = 0; i < motoren.length; i++) {
+      schrijfSpelers(motoren[i],
+                     getBestandnaam(spelerBestand, String.valueOf(i + 1)));
+    }
+    schrijfVarianten(motoren, varianten,
+                     getBestandnaam(spelerBestand, "varianten"));
+
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_BESTAND),
+                             spelerBestand));
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
+                             aantal));
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString("label.varianten"),
+                             varianten.size()));
+    bewaarAliassen();
+    DoosUtils.naarScherm();
+    DoosUtils.naarScherm(getMelding(MSG_KLAAR));
+    DoosUtils.naarScherm();
+  }
+
+  private static void bewaarAliassen() {
+    try {
+      naamIndex.bewaar();
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+    }
+  }
+
+  // Alle opties die de ratings bepalen, ook die van de vaste namen.
+  protected static String getOpties() {
+    return startDatum + "|" + eindDatum + "|" + startElo + "|" + kFactor
+            + "|" + maxVerschil + "|" + extraInfo + "|"
+            + naamIndex.getOpties();
+  }
+
+  // De pool van een partij. Leeg als er geen pools zijn of als de partij
+  // geen waarde heeft voor de <poolTag>.
+  private static String getPool(PGN partij) {
+    if (null == poolTag) {
+      return "";
+    }
+
+    var waarde  = DoosUtils.nullToEmpty(partij.getTag(poolTag)).trim();
+    if (waarde.isEmpty()) {
+      return "";
+    }
+
+    return poolIndeling.getOrDefault(waarde, waarde);
+  }
+
+  // Het volgnummer van de ratingperiode van een dag (yyyymmdd). Weken
+  // beginnen op maandag. 1970.01.01 was een donderdag.
+  private static long getPeriode(int dag) {
+    if (PERIODE_MAAND.equals(periode)) {
+      return dag / 100;
+    }
+
+    return Math.floorDiv(LocalDate.of(dag / 10000, (dag / 100) % 100,
+                                      dag % 100).toEpochDay() + 3, 7);
+  }
+
+  // Zet -<naam> achter de naam van het CSV bestand. Tekens die niet in een
+  // bestandsnaam horen worden een _.
+  protected static String getBestandnaam(String bestand, String naam) {
+    var achtervoegsel = "-" + naam.replaceAll("[^A-Za-z0-9._-]", "_");
+    if (bestand.toLowerCase().endsWith(".csv")) {
+      return bestand.substring(0, bestand.length() - 4) + achtervoegsel
+              + ".csv";
+    }
+
+    return bestand + achtervoegsel + ".csv";
+  }
+
+  // Het bestand met de stand van de spelers voor het controlepunt. Met
+  // <spelerOpslag> is dat de opslag want het spelerBestand is dan enkel een
+  // export.
+  private static String getSpelerstand(boolean uitOpslag) {
+    var spelerBestand =
+        paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND,
+                               BestandConstants.EXT_CSV);
+    if (uitOpslag) {
+      return SpelerOpslag.getOpslagnaam(spelerBestand);
+    }
+
+    return spelerBestand;
+  }
+
+  // Zet de datum om naar yyyymmdd. Enkel wat ELOMotor niet herkent gaat
+  // nog langs Datum.
+  private static int getDag(String datum) throws ParseException {
+    var dag = ELOMotor.naarDag(datum);
+    if (dag < 0) {
+      dag = ELOMotor.naarDag(
+                Datum.fromDate(Datum.toDate(datum, PGN.PGN_DATUM_FORMAAT),
+                               PGN.PGN_DATUM_FORMAAT));
+    }
+
+    return dag;
+  }
+
+  private static int getLaatstePartij(String datum) throws ParseException {
+    if (datum.isEmpty()) {
+      return ELOMotor.GEEN;
+    }
+
+    return getDag(datum);
+  }
+
+  private static List<Object[]> getToestand() {
+    List<Object[]>  toestand  = new ArrayList<>(motor.size());
+    for (var spelerId = 0; spelerId < motor.size(); spelerId++) {
+      toestand.add(getVelden(motor, spelerId));
+    }
+
+    return toestand;
+  }
+
+  // Het toernooiBestand mag een lijst van bestanden zijn, gescheiden door
+  // een ;. In de naam van een bestand mogen * en ? staan.
+  private static List<String> getToernooibestanden() throws BestandException {
+    var waarde  = paramBundle.getString(CaissaTools.PAR_TOERNOOIBESTAND);
+    if (!waarde.contains(";")
+        && !waarde.contains("*")
+        && !waarde.contains("?")) {
+      return List.of(paramBundle.getBestand(CaissaTools.PAR_TOERNOOIBESTAND));
+    }
+
+    List<String>  toernooien  = new ArrayList<>();
+    for (var deel : waarde.split(";")) {
+      var naam  = deel.trim();
+      if (naam.isEmpty()) {
+        continue;
+      }
+      if (!naam.toLowerCase().endsWith("." + BestandConstants.EXT_PGN)) {
+        naam  += "." + BestandConstants.EXT_PGN;
+      }
+      if (!naam.contains("*")
+          && !naam.contains("?")) {
+        toernooien.add(naam);
+        continue;
+      }
+
+      var           pad     = Paths.get(naam);
+      var           map     =
+          null == pad.getParent() ? Paths.get(".") : pad.getParent();
+      List<String>  gevonden  = new ArrayList<>();
+      try (var stroom =
+              Files.newDirectoryStream(map, pad.getFileName().toString())) {
+        for (var bestand : stroom) {
+          gevonden.add(null == pad.getParent()
+                          ? bestand.getFileName().toString()
+                          : bestand.toString());
+        }
+      } catch (IOException e) {
+        throw new BestandException(e);
+      }
+      Collections.sort(gevonden);
+      toernooien.addAll(gevonden);
+    }
+
+    return toernooien;
+  }
+
+  private static Object[] getVelden(ELOMotor eloMotor, int spelerId) {
+    var velden  = new Object[KOLOMMEN.length];
+
+    velden[0] = eloMotor.getNaam(spelerId);
+    velden[1] = eloMotor.getElo(spelerId);
+    velden[2] = eloMotor.getGroei(spelerId);
+    velden[3] = eloMotor.getPartijen(spelerId);
+    velden[4] = ELOMotor.naarDatum(eloMotor.getEerstePartij(spelerId));
+    // Enkel in een momentopname staan spelers zonder verwerkte partij.
+    velden[5] = ELOMotor.naarDatum(eloMotor.getLaatstePartij(spelerId));
+    if (eloMotor.getPartijen(spelerId) < ELO.MIN_PARTIJEN) {
+      velden[6]   = "";
+      velden[7]   = "";
+      velden[8]   = "";
+      velden[9]   = "";
+      velden[10]  = "";
+    } else {
+      velden[6]   = ELOMotor.naarDatum(eloMotor.getOfficieel(spelerId));
+      velden[7]   = eloMotor.getMinElo(spelerId);
+      velden[8]   = ELOMotor.naarDatum(eloMotor.getMinDatum(spelerId));
+      velden[9]   = eloMotor.getMaxElo(spelerId);
+      velden[10]  = ELOMotor.naarDatum(eloMotor.getMaxDatum(spelerId));
+    }
+
+    return velden;
+  }
+
+  private static List<Variant> getVarianten() {
+    List<Variant> varianten = new ArrayList<>();
+    for (var variant : paramBundle.getString(CaissaTools.PAR_VARIANTEN)
+                                  .split(";")) {
+      var deel  = (variant.trim() + "//").split("/", -1);
+      varianten.add(
+          new Variant(deel[0].isEmpty() ? kFactor : Integer.valueOf(deel[0]),
+                      deel[1].isEmpty() ? maxVerschil
+                                        : Integer.parseInt(deel[1]),
+                      deel[2].isEmpty() ? startElo
+                                        : Integer.parseInt(deel[2])));
+    }
+
+    return varianten;
+  }
+
+  // Met momentopnamen bevatten de toernooibestanden alle partijen. Enkel de
+  // partijen vanaf de laatste geldige momentopname worden gelezen en
+  // opnieuw berekend.
+  private static int herberekenToernooi() {
+    var aantalPartijen  = 0;
+
+    try (var samenvoeger  = new PgnSamenvoeger()) {
+      List<PgnIndex>  pgnIndexen  = new ArrayList<>();
+      var             toernooien  = getToernooibestanden();
+      for (var toernooi : toernooien) {
+        pgnIndexen.add(laadIndex(toernooi));
+      }
+      naamIndex.zoekVooraf(pgnIndexen);
+      try (var opnamen  =
+              Momentopnamen.laad(
+                  paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND),
+                  toernooien, pgnIndexen, getOpties())) {
+        vanaf = opnamen.getVanaf();
+        for (var veld : opnamen.getSpelers()) {
+          voegSpelerToe(motor, veld);
+        }
+        kortGeschiedenisIn(
+            paramBundle.getBestand(CaissaTools.PAR_GESCHIEDENISBESTAND),
+            vanaf);
+        opnamen.open(KOLOMMEN);
+
+        for (var pgnIndex : pgnIndexen) {
+          samenvoeger.voegToe(pgnIndex, 0, vanaf);
+          aantalPartijen  += pgnIndex.size();
+        }
+
+        try (var geschiedenis  =
+                new CsvBestand.Builder().setBestand(
+                    paramBundle.getBestand(CaissaTools.PAR_GESCHIEDENISBESTAND))
+                                        .setLezen(false)
+                                        .setHeader(false)
+                                        .setAppend(true)
+                                        .build()) {
+          var grens = vanaf;
+          while (samenvoeger.hasNext()) {
+            var partij  = samenvoeger.next();
+            var maand   =
+                Momentopnamen.getGrens(partij.getTag(PGN.PGNTAG_DATE));
+            if (maand.compareTo(grens) > 0) {
+              opnamen.schrijf(maand, getToestand());
+              grens = maand;
+            }
+            if (!partij.isBye()
+                && partij.isRated()) {
+              verwerkt  += verwerkPartij(partij, geschiedenis);
+            }
+          }
+        }
+      }
+    } catch (BestandException | ParseException | PgnException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      aantalPartijen  = 0;
+    }
+
+    return aantalPartijen;
+  }
+
+  // Schrijft enkel de regels van voor de datum terug in dezelfde volgorde.
+  private static void herschrijfGeschiedenis(String bestand, String datum)
+      throws BestandException {
+    var tijdelijk = bestand + ".tmp";
+    try (var invoer   = new CsvBestand.Builder()
+                                      .setBestand(bestand)
+                                      .setHeader(false)
+                                      .build();
+         var uitvoer  = new CsvBestand.Builder()
+                                      .setBestand(tijdelijk)
+                                      .setLezen(false)
+                                      .setHeader(false)
+                                      .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        if (veld[1].compareTo(datum) < 0) {
+          uitvoer.write((Object[]) veld);
+        }
+      }
+    }
+
+    try {
+      Files.move(Paths.get(tijdelijk), Paths.get(bestand),
+                 StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  // Een partij is afgehandeld als ze bij elke volgende run afgewezen wordt
+  // zonder dat er een speler bijkomt.
+  private static boolean isAfgehandeld(PGN partij) {
+    if (partij.isBye()
+        || !partij.isRated()) {
+      return true;
+    }
+
+    var witId   =
+        motor.getId(naamIndex.getNaam(partij.getTag(PGN.PGNTAG_WHITE)));
+    var zwartId =
+        motor.getId(naamIndex.getNaam(partij.getTag(PGN.PGNTAG_BLACK)));
+    if (witId < 0
+        || zwartId < 0) {
+      return false;
+    }
+
+    var laatsteWit    = motor.getLaatstePartij(witId);
+    var laatsteZwart  = motor.getLaatstePartij(zwartId);
+    if (laatsteWit == ELOMotor.GEEN
+        || laatsteZwart == ELOMotor.GEEN) {
+      return false;
+    }
+
+    try {
+      return getDag(partij.getTag(PGN.PGNTAG_DATE))
+              <= Math.max(laatsteWit, laatsteZwart);
+    } catch (ParseException e) {
+      return false;
+    }
+  }
+
+  // Twee pools in hetzelfde bestand zouden elkaars geschiedenis overschrijven.
+  // Hoofdletters tellen niet mee want niet elk bestandssysteem maakt dat
+  // onderscheid.
+  private static boolean isUniekeBestandnamen(String bestand,
+                                              List<String> namen) {
+    Map<String, String> bestandnamen  = new HashMap<>();
+    for (var naam : namen) {
+      var vorige  =
+          bestandnamen.put(getBestandnaam(bestand, naam).toLowerCase(), naam);
+      if (null != vorige) {
+        DoosUtils.foutNaarScherm(
+            MessageFormat.format(
+                resourceBundle.getString(CaissaTools.ERR_POOLNAAM),
+                vorige, naam));
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  // Een export die ontbreekt of ouder is dan de opslag.
+  private static boolean isVerouderd(Path csv, Path opslag) {
+    try {
+      return !Files.exists(csv)
+              || Files.getLastModifiedTime(csv)
+                      .compareTo(Files.getLastModifiedTime(opslag)) < 0;
+    } catch (IOException e) {
+      return true;
+    }
+  }
+
+  // Verwijdert de regels vanaf de datum uit het geschiedenisbestand. Als ze
+  // op datum staan dan wordt het bestand ingekort. Anders (bijvoorbeeld na
+  // een run zonder <momentopnamen>) wordt het herschreven.
+  private static void kortGeschiedenisIn(String bestand, String datum)
+      throws BestandException {
+    var pad = Paths.get(bestand);
+    if (!Files.exists(pad)) {
+      return;
+    }
+
+    var gesorteerd  = true;
+    var regels      = 0;
+    var totaal      = 0;
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(bestand)
+                                    .setHeader(false)
+                                    .build()) {
+      while (gesorteerd
+             && invoer.hasNext()) {
+        if (invoer.next()[1].compareTo(datum) < 0) {
+          gesorteerd  = regels == totaal;
+          regels++;
+        }
+        totaal++;
+      }
+    }
+
+    if (!gesorteerd) {
+      herschrijfGeschiedenis(bestand, datum);
+      return;
+    }
+
+    try (var kanaal = FileChannel.open(pad, StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE)) {
+      var buffer  = ByteBuffer.allocate(8192);
+      var lengte  = 0L;
+      while (regels > 0
+             && kanaal.read(buffer) > 0) {
+        buffer.flip();
+        while (regels > 0
+               && buffer.hasRemaining()) {
+          lengte++;
+          if (buffer.get() == '\n') {
+            regels--;
+          }
+        }
+        buffer.clear();
+      }
+      kanaal.truncate(lengte);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  // Een index naast het toernooiBestand wordt enkel met <controlepunt>
+  // bewaard.
+  private static PgnIndex laadIndex(String toernooi) throws BestandException {
+    return PgnIndex.laad(toernooi, null, metControlepunt);
+  }
+
+  // Zonder <controlepunt> of als het niet gelezen kan worden dan worden alle
+  // partijen gelezen.
+  private static void leesControlepunt() {
+    if (!metControlepunt) {
+      controlepunt  = null;
+      return;
+    }
+
+    try {
+      controlepunt  =
+          Controlepunt.laad(
+              paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND),
+              getSpelerstand(opslagGeladen), getOpties());
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      controlepunt  = null;
+    }
+  }
+
+  // De opslag wordt enkel gebruikt als ze niet ouder is dan het
+  // spelerBestand. Anders is het spelerBestand met de hand aangepast.
+  private static boolean leesOpslag() {
+    if (!spelerOpslag) {
+      return false;
+    }
+
+    var spelerBestand =
+        paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND,
+                               BestandConstants.EXT_CSV);
+    var opslag        = Paths.get(SpelerOpslag.getOpslagnaam(spelerBestand));
+    var csv           = Paths.get(spelerBestand);
+    try {
+      if (!Files.exists(opslag)
+          || (Files.exists(csv)
+              && Files.getLastModifiedTime(csv)
+                      .compareTo(Files.getLastModifiedTime(opslag)) > 0)) {
+        return false;
+      }
+      opslagGeladen = SpelerOpslag.laad(opslag.toString(), motor);
+      for (var id = 0; id < motor.size(); id++) {
+        naamIndex.voegToe(motor.getNaam(id));
+      }
+    } catch (BestandException | IOException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      motor         = new ELOMotor(startElo, kFactor, maxVerschil);
+      opslagGeladen = false;
+    }
+
+    return opslagGeladen;
+  }
+
+  // Leest de partijen die meetellen uit alle toernooibestanden.
+  private static int leesPartijen(List<Partij> partijen) {
+    var aantal  = 0;
+
+    try (var samenvoeger  = new PgnSamenvoeger()) {
+      List<PgnIndex>  pgnIndexen  = new ArrayList<>();
+      for (var toernooi : getToernooibestanden()) {
+        pgnIndexen.add(laadIndex(toernooi));
+      }
+      naamIndex.zoekVooraf(pgnIndexen);
+      for (var pgnIndex : pgnIndexen) {
+        samenvoeger.voegToe(pgnIndex, 0, "");
+      }
+      while (samenvoeger.hasNext()) {
+        var partij  = samenvoeger.next();
+        aantal++;
+        if (partij.isBye()
+            || !partij.isRated()) {
+          continue;
+        }
+        var datum = partij.getTag(PGN.PGNTAG_DATE);
+        try {
+          partijen.add(new Partij(partij, getDag(datum)));
+        } catch (ParseException e) {
+          DoosUtils.foutNaarScherm(
+              MessageFormat.format(
+                  resourceBundle.getString(CaissaTools.ERR_FOUTEDATUM),
+                  datum) + " [" + e.getLocalizedMessage() + "].");
+        }
+      }
+    } catch (BestandException | PgnException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+    }
+
+    return aantal;
+  }
+
+  // Een CSV bestand met per waarde van de <poolTag> de naam van de pool.
+  private static void leesPoolIndeling(String bestand)
+      throws BestandException {
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(bestand)
+                                    .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        poolIndeling.put(veld[0].trim(), veld[1].trim());
+      }
+    }
+  }
+
+  private static void leesSpelers(ELOMotor eloMotor, String spelerBestand) {
     try (var invoer  = new CsvBestand.Builder()
                               .setBestand(spelerBestand)
                               .build()) {
       while (invoer.hasNext()) {
-        var veld        = invoer.next();
-        var spelerId    = spelers.size();
-        var spelerinfo  = new Spelerinfo();
-        spelerinfo.setNaam(veld[0]);
-        spelerinfo.setElo(Integer.valueOf(veld[1]));
-        spelerinfo.setElogroei(Integer.valueOf(veld[2]));
-        spelerinfo.setPartijen(Integer.valueOf(veld[3]));
-        spelerinfo.setEerstePartij(Datum.toDate(veld[4],
-                                   PGN.PGN_DATUM_FORMAAT));
-        spelerinfo.setLaatstePartij(Datum.toDate(veld[5],
-                                    PGN.PGN_DATUM_FORMAAT));
-        if (spelerinfo.getPartijen() >= ELO.MIN_PARTIJEN) {
-          spelerinfo.setOfficieel(Datum.toDate(veld[6],
-                                  PGN.PGN_DATUM_FORMAAT));
-          spelerinfo.setMinElo(Integer.valueOf(veld[7]));
-          spelerinfo.setMinDatum(Datum.toDate(veld[8],
-                                 PGN.PGN_DATUM_FORMAAT));
-          spelerinfo.setMaxElo(Integer.valueOf(veld[9]));
-          spelerinfo.setMaxDatum(Datum.toDate(veld[10],
-                                 PGN.PGN_DATUM_FORMAAT));
-        }
-        spelerinfo.setSpelerId(spelerId);
-        spelerinfos.add(spelerId, spelerinfo);
-        spelers.put(veld[0], spelerId);
+        voegSpelerToe(eloMotor, invoer.next());
       }
     } catch (BestandException e) {
       DoosUtils.naarScherm(
@@ -189,130 +949,200 @@ public final class ELOBerekenaar extends Batchjob {
     }
   }
 
-  private static boolean partijAfwijzen(String datum, Date eloDatum,
-                                        int uitslag, Date laatsteWit,
-                                        Date laatsteZwart) {
+  private static boolean partijAfwijzen(String datum, int dag, int uitslag,
+                                        int laatsteWit, int laatsteZwart) {
     if (startDatum.compareTo(datum) > 0
         || eindDatum.compareTo(datum) < 0) {
       return true;
     }
 
-    if (uitslag > 2) {
+    // Een onbekende uitslag of een partij die nog bezig is.
+    if (uitslag < 0
+        || uitslag > 2) {
       return true;
     }
 
-    if (null == laatsteWit
-        && null == laatsteZwart) {
-      return false;
-    }
+    return dag <= Math.max(laatsteWit, laatsteZwart);
+  }
 
-    if (null == laatsteWit) {
-      return !eloDatum.after(laatsteZwart);
+  private static void schrijfControlepunt() {
+    if (null == controlepunt) {
+      return;
     }
 
-    if (null == laatsteZwart) {
-      return !eloDatum.after(laatsteWit);
+    try {
+      controlepunt.bewaar(getSpelerstand(spelerOpslag));
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
-
-    return !eloDatum.after(Datum.max(laatsteWit, laatsteZwart));
   }
 
-  private static void pasSpelerAan(int id, List<Spelerinfo> spelerinfos,
-                                   Date eloDatum, Integer andereElo,
-                                   int uitslag) {
-    var     vorigeElo = spelerinfos.get(id).getElo();
-    var     aantal    = spelerinfos.get(id).getPartijen();
-    Integer elo;
-    if (null == kFactor) {
-      elo     = ELO.berekenELO(spelerinfos.get(id).getElo(), uitslag, andereElo,
-                               aantal);
-    } else {
-      elo     = ELO.berekenELO(spelerinfos.get(id).getElo(), uitslag, andereElo,
-                               kFactor, maxVerschil);
+  // Met <spelerOpslag> is het spelerBestand een export. Het wordt enkel met
+  // <export> geschreven en enkel als het niet meer klopt. Daarna krijgt het
+  // hetzelfde tijdstip als de opslag zodat de opslag geldig blijft.
+  private static void schrijfOpslag() {
+    var spelerBestand =
+        paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND,
+                               BestandConstants.EXT_CSV);
+    var csv           = Paths.get(spelerBestand);
+    var opslag        = Paths.get(SpelerOpslag.getOpslagnaam(spelerBestand));
+    var exporteren    = export
+                          && (verwerkt > 0 || isVerouderd(csv, opslag));
+    if (exporteren) {
+      schrijfSpelers(motor, spelerBestand);
     }
-    spelerinfos.get(id).setElo(elo);
-    spelerinfos.get(id).setElogroei(elo-vorigeElo);
-    spelerinfos.get(id).setLaatstePartij(eloDatum);
-    spelerinfos.get(id).addPartij();
-    aantal++;
-    if (aantal == ELO.MIN_PARTIJEN) {
-      spelerinfos.get(id).setMinElo(elo);
-      spelerinfos.get(id).setMaxElo(elo);
-      spelerinfos.get(id).setMinDatum(eloDatum);
-      spelerinfos.get(id).setMaxDatum(eloDatum);
-      spelerinfos.get(id).setOfficieel(eloDatum);
+    if (verwerkt == 0
+        && opslagGeladen
+        && !exporteren) {
+      return;
     }
-    if (aantal > ELO.MIN_PARTIJEN) {
-      if (spelerinfos.get(id).getMinElo() >= elo) {
-        spelerinfos.get(id).setMinElo(elo);
-        spelerinfos.get(id).setMinDatum(eloDatum);
-      }
-      if (spelerinfos.get(id).getMaxElo() <= elo) {
-        spelerinfos.get(id).setMaxElo(elo);
-        spelerinfos.get(id).setMaxDatum(eloDatum);
+
+    try {
+      SpelerOpslag.bewaar(opslag.toString(), motor, opslagGeladen);
+      if (exporteren) {
+        Files.setLastModifiedTime(csv, Files.getLastModifiedTime(opslag));
       }
+    } catch (BestandException | IOException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
   }
 
-  private static void schrijfSpeler(CsvBestand csvBestand, Integer spelerId)
-      throws BestandException {
-    var velden  = new Object[KOLOMMEN.length];
-
-    velden[0] = spelerinfos.get(spelerId).getNaam();
-    velden[1] = spelerinfos.get(spelerId).getElo();
-    velden[2] = spelerinfos.get(spelerId).getElogroei();
-    velden[3] = spelerinfos.get(spelerId).getPartijen();
-    velden[4] = Datum.fromDate(spelerinfos.get(spelerId).getEerstePartij(),
-                               PGN.PGN_DATUM_FORMAAT);
-    velden[5] = Datum.fromDate(spelerinfos.get(spelerId).getLaatstePartij(),
-                               PGN.PGN_DATUM_FORMAAT);
-    if (spelerinfos.get(spelerId).getPartijen() < ELO.MIN_PARTIJEN) {
-      velden[6]   = "";
-      velden[7]   = "";
-      velden[8]   = "";
-      velden[9]   = "";
-      velden[10]  = "";
-    } else {
-      velden[6]   = Datum.fromDate(spelerinfos.get(spelerId).getOfficieel(),
-                                   PGN.PGN_DATUM_FORMAAT);
-      velden[7]   = spelerinfos.get(spelerId).getMinElo();
-      velden[8]   = Datum.fromDate(spelerinfos.get(spelerId).getMinDatum(),
-                                   PGN.PGN_DATUM_FORMAAT);
-      velden[9]   = spelerinfos.get(spelerId).getMaxElo();
-      velden[10]  = Datum.fromDate(spelerinfos.get(spelerId).getMaxDatum(),
-                                   PGN.PGN_DATUM_FORMAAT);
+  private static void schrijfSpelers(ELOMotor eloMotor, String bestand) {
+    try (var csvBestand  =
+            new CsvBestand.Builder()
+                          .setBestand(bestand)
+                          .setLezen(false)
+                          .setKolomNamen(KOLOMMEN)
+                          .build()) {
+      for (var spelerId : eloMotor.getVolgorde()) {
+        if (eloMotor.getLaatstePartij(spelerId) != ELOMotor.GEEN) {
+          csvBestand.write(getVelden(eloMotor, spelerId));
+        }
+      }
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
-    csvBestand.write(velden);
   }
 
-  private static void schrijfSpelers(Map<String, Integer> spelers,
-                                     List<Spelerinfo> spelerinfos) {
+  // Per speler de rating in elke variant en het verschil tussen de hoogste
+  // en laagste.
+  private static void schrijfVarianten(ELOMotor[] motoren,
+                                       List<Variant> varianten,
+                                       String bestand) {
+    var kolommen  = new String[varianten.size() + 2];
+    kolommen[0]   = KOLOMMEN[0];
+    for (var i = 0; i < varianten.size(); i++) {
+      kolommen[i + 1] = varianten.get(i).toString();
+    }
+    kolommen[kolommen.length - 1] = "verschil";
+
     try (var csvBestand  =
             new CsvBestand.Builder()
-                          .setBestand(
-                              paramBundle
-                                  .getBestand(CaissaTools.PAR_SPELERBESTAND,
-                                              BestandConstants.EXT_CSV))
+                          .setBestand(bestand)
                           .setLezen(false)
-                          .setKolomNamen(KOLOMMEN)
+                          .setKolomNamen(kolommen)
                           .build()) {
-      for (Integer spelerId  : spelers.values()) {
-        if (null != spelerinfos.get(spelerId).getLaatstePartij()) {
-          schrijfSpeler(csvBestand, spelerId);
+      for (var spelerId : motoren[0].getVolgorde()) {
+        if (motoren[0].getLaatstePartij(spelerId) == ELOMotor.GEEN) {
+          continue;
+        }
+        var naam    = motoren[0].getNaam(spelerId);
+        var velden  = new Object[kolommen.length];
+        var laagste = Integer.MAX_VALUE;
+        var hoogste = Integer.MIN_VALUE;
+        velden[0]   = naam;
+        for (var i = 0; i < motoren.length; i++) {
+          var elo       = motoren[i].getElo(motoren[i].getId(naam));
+          velden[i + 1] = elo;
+          laagste       = Math.min(laagste, elo);
+          hoogste       = Math.max(hoogste, elo);
         }
+        velden[kolommen.length - 1] = hoogste - laagste;
+        csvBestand.write(velden);
       }
     } catch (BestandException e) {
       DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
   }
 
+  private static ELOMotor speelNa(Variant variant, List<Partij> partijen) {
+    var eloMotor  = new ELOMotor(variant.startElo, variant.kFactor,
+                                 variant.maxVerschil);
+    for (var partij : partijen) {
+      var witId   = voegSpelerToe(eloMotor, partij.wit, partij.dag);
+      var zwartId = voegSpelerToe(eloMotor, partij.zwart, partij.dag);
+      if (!partijAfwijzen(partij.datum, partij.dag, partij.uitslag,
+                          eloMotor.getLaatstePartij(witId),
+                          eloMotor.getLaatstePartij(zwartId))) {
+        eloMotor.verwerk(witId, zwartId, partij.uitslag, partij.dag);
+      }
+    }
+
+    return eloMotor;
+  }
+
+  // Toont de rating van een speler op een datum of al zijn ratings. Er
+  // wordt enkel in de index van het geschiedenisBestand gezocht.
+  private static void toonHistorie() {
+    var bestand =
+        paramBundle.getBestand(CaissaTools.PAR_GESCHIEDENISBESTAND);
+    var speler  = paramBundle.getString(CaissaTools.PAR_HISTORIE);
+
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString("label.historie"),
+                             speler));
+    try {
+      if (paramBundle.containsArgument(CaissaTools.PAR_DATUM)) {
+        var datum = paramBundle.getString(CaissaTools.PAR_DATUM);
+        var punt  = Historie.getOpDatum(bestand, speler,
+                                        ELOMotor.naarDag(datum));
+        DoosUtils.naarScherm(
+            MessageFormat.format(resourceBundle.getString("label.opdatum"),
+                                 datum));
+        if (null == punt) {
+          DoosUtils.naarScherm(
+              MessageFormat.format(
+                  resourceBundle.getString("message.geen.historie"),
+                  speler));
+        } else {
+          DoosUtils.naarScherm(
+              MessageFormat.format(resourceBundle.getString("label.elo"),
+                                   String.valueOf(punt.getElo())));
+          DoosUtils.naarScherm(
+              MessageFormat.format(
+                  resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
+                  punt.getPartijen()));
+        }
+      } else {
+        var curve = Historie.getCurve(bestand, speler);
+        if (curve.isEmpty()) {
+          DoosUtils.naarScherm(
+              MessageFormat.format(
+                  resourceBundle.getString("message.geen.historie"),
+                  speler));
+        }
+        for (var punt : curve) {
+          DoosUtils.naarScherm(
+              String.format("%s %5d %5d",
+                            ELOMotor.naarDatum(punt.getDatum()),
+                            punt.getElo(), punt.getPartijen()));
+        }
+      }
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+    }
+
+    DoosUtils.naarScherm();
+    DoosUtils.naarScherm(getMelding(MSG_KLAAR));
+    DoosUtils.naarScherm();
+  }
+
   private static int verwerkPartij(PGN partij, CsvBestand geschiedenis)
       throws BestandException {
-    var   datum     = partij.getTag(PGN.PGNTAG_DATE);
-    Date  eloDatum;
+    var datum = partij.getTag(PGN.PGNTAG_DATE);
     try {
-      eloDatum  =
-          Datum.toDate(datum, PGN.PGN_DATUM_FORMAAT);
+      return verwerkPartij(motor, new Partij(partij, getDag(datum)),
+                           geschiedenis);
     } catch (ParseException e) {
       DoosUtils.foutNaarScherm(
           MessageFormat.format(
@@ -320,57 +1150,154 @@ public final class ELOBerekenaar extends Batchjob {
               datum) + " [" + e.getLocalizedMessage() + "].");
       return 0;
     }
+  }
 
-    var wit         = partij.getTag(PGN.PGNTAG_WHITE);
-    var zwart       = partij.getTag(PGN.PGNTAG_BLACK);
-
-    voegSpelerToe(wit, eloDatum);
-    voegSpelerToe(zwart, eloDatum);
-
-    var resultaat   = partij.getTag(PGN.PGNTAG_RESULT);
-    var uitslag     = UITSLAGEN.indexOf(resultaat);
-    var witId       = spelers.get(wit);
-    var zwartId     = spelers.get(zwart);
+  private static int verwerkPartij(ELOMotor eloMotor, Partij partij,
+                                   CsvBestand geschiedenis)
+      throws BestandException {
+    var witId   = voegSpelerToe(eloMotor, partij.wit, partij.dag);
+    var zwartId = voegSpelerToe(eloMotor, partij.zwart, partij.dag);
 
-    if (partijAfwijzen(datum, eloDatum, uitslag,
-                       spelerinfos.get(witId).getLaatstePartij(),
-                       spelerinfos.get(zwartId).getLaatstePartij())) {
+    if (partijAfwijzen(partij.datum, partij.dag, partij.uitslag,
+                       eloMotor.getLaatstePartij(witId),
+                       eloMotor.getLaatstePartij(zwartId))) {
       return 0;
     }
 
-    var witElo    = spelerinfos.get(witId).getElo();
-    var zwartElo  = spelerinfos.get(zwartId).getElo();
-    pasSpelerAan(witId,   spelerinfos, eloDatum, zwartElo, uitslag);
-    pasSpelerAan(zwartId, spelerinfos, eloDatum, witElo, 2 - uitslag);
+    var witElo    = eloMotor.getElo(witId);
+    var zwartElo  = eloMotor.getElo(zwartId);
+    eloMotor.verwerk(witId, zwartId, partij.uitslag, partij.dag);
     if (null != geschiedenis) {
       if (extraInfo) {
-        geschiedenis.write(wit, datum,
-                           spelerinfos.get(witId).getElo(),
-                           spelerinfos.get(witId).getPartijen(),
-                           spelerinfos.get(witId).getElo() - witElo, zwart,
-                           partij.getTag(PGN.PGNTAG_EVENT));
-        geschiedenis.write(zwart, datum,
-                           spelerinfos.get(zwartId).getElo(),
-                           spelerinfos.get(zwartId).getPartijen(),
-                           spelerinfos.get(zwartId).getElo() - zwartElo, wit,
-                           partij.getTag(PGN.PGNTAG_EVENT));
+        geschiedenis.write(partij.wit, partij.datum, eloMotor.getElo(witId),
+                           eloMotor.getPartijen(witId),
+                           eloMotor.getElo(witId) - witElo, partij.zwart,
+                           partij.event);
+        geschiedenis.write(partij.zwart, partij.datum,
+                           eloMotor.getElo(zwartId),
+                           eloMotor.getPartijen(zwartId),
+                           eloMotor.getElo(zwartId) - zwartElo, partij.wit,
+                           partij.event);
       } else {
-        geschiedenis.write(wit, datum,
-                           spelerinfos.get(witId).getElo(),
-                           spelerinfos.get(witId).getPartijen(),
-                           spelerinfos.get(witId).getElo() - witElo);
-        geschiedenis.write(zwart, datum,
-                           spelerinfos.get(zwartId).getElo(),
-                           spelerinfos.get(zwartId).getPartijen(),
-                           spelerinfos.get(zwartId).getElo() - zwartElo);
+        geschiedenis.write(partij.wit, partij.datum, eloMotor.getElo(witId),
+                           eloMotor.getPartijen(witId),
+                           eloMotor.getElo(witId) - witElo);
+        geschiedenis.write(partij.zwart, partij.datum,
+                           eloMotor.getElo(zwartId),
+                           eloMotor.getPartijen(zwartId),
+                           eloMotor.getElo(zwartId) - zwartElo);
       }
     }
 
     return 1;
   }
 
-  private static int verwerkToernooi() {
+  // Alle spelers rekenen met hun rating bij het begin van de periode. Per
+  // speler komt er één regel in het geschiedenisBestand met de datum van
+  // zijn laatste partij in de periode en de groei in de periode. Met
+  // <extraInfo> staan de tegenstander en het toernooi van die laatste partij
+  // erbij zodat de kolommen dezelfde zijn als partij per partij.
+  private static int verwerkPeriode(List<Partij> lopend,
+                                    CsvBestand geschiedenis,
+                                    ForkJoinPool forkJoin)
+      throws BestandException {
+    var wit       = new int[lopend.size()];
+    var zwart     = new int[lopend.size()];
+    var uitslag   = new int[lopend.size()];
+    var dag       = new int[lopend.size()];
+    var gespeeld  = new Partij[lopend.size()];
+    var aantal    = 0;
+    for (var partij : lopend) {
+      var witId   = voegSpelerToe(motor, partij.wit, partij.dag);
+      var zwartId = voegSpelerToe(motor, partij.zwart, partij.dag);
+      if (partijAfwijzen(partij.datum, partij.dag, partij.uitslag,
+                         motor.getLaatstePartij(witId),
+                         motor.getLaatstePartij(zwartId))) {
+        continue;
+      }
+      wit[aantal]       = witId;
+      zwart[aantal]     = zwartId;
+      uitslag[aantal]   = partij.uitslag;
+      dag[aantal]       = partij.dag;
+      gespeeld[aantal]  = partij;
+      aantal++;
+    }
+    if (aantal == 0) {
+      return 0;
+    }
+
+    var begin   = new int[motor.size()];
+    var laatste = new Partij[motor.size()];
+    for (var i = 0; i < aantal; i++) {
+      begin[wit[i]]     = motor.getElo(wit[i]);
+      begin[zwart[i]]   = motor.getElo(zwart[i]);
+      laatste[wit[i]]   = gespeeld[i];
+      laatste[zwart[i]] = gespeeld[i];
+    }
+
+    int[]     spelers;
+    final var partijen  = aantal;
+    try {
+      spelers =
+          forkJoin.submit(() -> motor.verwerkPeriode(wit, zwart, uitslag, dag,
+                                                     partijen))
+                  .get();
+    } catch (ExecutionException e) {
+      throw new BestandException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BestandException(e);
+    }
+
+    for (var id : spelers) {
+      var naam    = motor.getNaam(id);
+      var partij  = laatste[id];
+      if (extraInfo) {
+        geschiedenis.write(naam, partij.datum, motor.getElo(id),
+                           motor.getPartijen(id),
+                           motor.getElo(id) - begin[id],
+                           naam.equals(partij.wit) ? partij.zwart
+                                                   : partij.wit,
+                           partij.event);
+      } else {
+        geschiedenis.write(naam, partij.datum, motor.getElo(id),
+                           motor.getPartijen(id),
+                           motor.getElo(id) - begin[id]);
+      }
+    }
+
+    return aantal;
+  }
+
+  private static int verwerkPool(ELOMotor eloMotor, List<Partij> partijen,
+                                 String geschiedenisBestand)
+      throws BestandException {
+    var aantal  = 0;
+    try (var geschiedenis  =
+            new CsvBestand.Builder().setBestand(geschiedenisBestand)
+                                    .setLezen(false)
+                                    .setHeader(false)
+                                    .setAppend(true)
+                                    .build()) {
+      for (var partij : partijen) {
+        aantal  += verwerkPartij(eloMotor, partij, geschiedenis);
+      }
+    }
+
+    return aantal;
+  }
+
+  // De partijen voor het controlepunt worden niet meer gelezen. Ze zouden
+  // toch allemaal afgewezen worden. De toernooibestanden worden als stroom
+  // in volgorde van datum samengevoegd.
+  private static int verwerkToernooi()
+      throws BestandException, PgnException {
     var aantalPartijen  = 0;
+    var forkJoin        =
+        null == periode
+            ? null
+            : new ForkJoinPool(CaissaTools.getThreads(
+                  paramBundle, Runtime.getRuntime().availableProcessors()));
 
     try (var geschiedenis  =
             new CsvBestand.Builder().setBestand(
@@ -378,40 +1305,137 @@ public final class ELOBerekenaar extends Batchjob {
                                     .setLezen(false)
                                     .setHeader(false)
                                     .setAppend(true)
-                                    .build()) {
-      Collection<PGN>
-          partijen  = new TreeSet<>();
-      partijen.addAll(
-          CaissaUtils
-              .laadPgnBestand(
-                  paramBundle.getBestand(CaissaTools.PAR_TOERNOOIBESTAND)));
-      for (var partij : partijen) {
+                                    .build();
+         var samenvoeger   = new PgnSamenvoeger()) {
+      List<Partij>    lopend      = new ArrayList<>();
+      var             toernooien  = getToernooibestanden();
+      List<PgnIndex>  pgnIndexen  = new ArrayList<>();
+      var             starts      = new int[toernooien.size()];
+      for (var i = 0; i < toernooien.size(); i++) {
+        var pgnIndex  = laadIndex(toernooien.get(i));
+        if (null != controlepunt) {
+          starts[i]   = controlepunt.getPartijen(toernooien.get(i), pgnIndex);
+        }
+        pgnIndexen.add(pgnIndex);
+        samenvoeger.voegToe(pgnIndex, starts[i], "");
+        aantalPartijen  += starts[i];
+      }
+      // Ook de overgeslagen partijen bepalen de vaste namen.
+      naamIndex.zoekVooraf(pgnIndexen);
+
+      while (samenvoeger.hasNext()) {
+        var partij  = samenvoeger.next();
         if (!partij.isBye()
             && partij.isRated()) {
-          verwerkt  += verwerkPartij(partij, geschiedenis);
+          if (null == periode) {
+            verwerkt  += verwerkPartij(partij, geschiedenis);
+          } else {
+            verzamelPartij(partij, lopend, geschiedenis, forkJoin);
+          }
         }
+        aantalPartijen++;
+      }
+      if (!lopend.isEmpty()) {
+        verwerkt  += verwerkPeriode(lopend, geschiedenis, forkJoin);
+      }
+
+      if (null != controlepunt) {
+        for (var i = 0; i < toernooien.size(); i++) {
+          zetControlepunt(toernooien.get(i), pgnIndexen.get(i), starts[i]);
+        }
+      }
+    } finally {
+      if (null != forkJoin) {
+        forkJoin.shutdown();
       }
-      aantalPartijen  = partijen.size();
-    } catch (BestandException | PgnException e) {
-      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
 
     return aantalPartijen;
   }
 
-  private static void voegSpelerToe(String speler, Date eloDatum) {
-    if (spelers.containsKey(speler)) {
+  // Verzamelt de partijen van een ratingperiode. Een partij uit een
+  // volgende periode sluit de lopende periode af.
+  private static void verzamelPartij(PGN partij, List<Partij> lopend,
+                                     CsvBestand geschiedenis,
+                                     ForkJoinPool forkJoin)
+      throws BestandException {
+    var datum = partij.getTag(PGN.PGNTAG_DATE);
+    Partij  nieuw;
+    try {
+      nieuw = new Partij(partij, getDag(datum));
+    } catch (ParseException e) {
+      DoosUtils.foutNaarScherm(
+          MessageFormat.format(
+              resourceBundle.getString(CaissaTools.ERR_FOUTEDATUM),
+              datum) + " [" + e.getLocalizedMessage() + "].");
+      return;
+    }
+
+    if (!lopend.isEmpty()
+        && getPeriode(lopend.get(0).dag) != getPeriode(nieuw.dag)) {
+      verwerkt  += verwerkPeriode(lopend, geschiedenis, forkJoin);
+      lopend.clear();
+    }
+    lopend.add(nieuw);
+  }
+
+  private static int voegSpelerToe(ELOMotor eloMotor, String speler,
+                                   int dag) {
+    var spelerId  = eloMotor.getId(speler);
+    if (spelerId >= 0) {
+      return spelerId;
+    }
+
+    return eloMotor.voegToe(speler, dag);
+  }
+
+  // Een regel uit het spelerbestand of uit een momentopname.
+  private static void voegSpelerToe(ELOMotor eloMotor, String[] veld)
+      throws ParseException {
+    naamIndex.voegToe(veld[0]);
+    if (Integer.parseInt(veld[3]) < ELO.MIN_PARTIJEN) {
+      eloMotor.voegToe(veld[0], Integer.parseInt(veld[1]),
+                       Integer.parseInt(veld[2]), Integer.parseInt(veld[3]),
+                       getDag(veld[4]), getLaatstePartij(veld[5]),
+                       ELOMotor.GEEN, 0, ELOMotor.GEEN, 0, ELOMotor.GEEN);
+      return;
+    }
+
+    eloMotor.voegToe(veld[0], Integer.parseInt(veld[1]),
+                     Integer.parseInt(veld[2]), Integer.parseInt(veld[3]),
+                     getDag(veld[4]), getLaatstePartij(veld[5]),
+                     getDag(veld[6]), Integer.parseInt(veld[7]),
+                     getDag(veld[8]), Integer.parseInt(veld[9]),
+                     getDag(veld[10]));
+  }
+
+  private static void zetControlepunt(String toernooi, PgnIndex pgnIndex,
+                                      int start)
+      throws BestandException, PgnException {
+    var datum       = controlepunt.getDatum(toernooi);
+    var afgehandeld = start;
+    // Alle partijen zijn al afgehandeld of het bestand is leeg.
+    if (start >= pgnIndex.size()) {
+      controlepunt.zet(toernooi, pgnIndex, afgehandeld, datum);
       return;
     }
 
-    var spelerId    = spelers.size();
-    var spelerinfo  = new Spelerinfo();
-    spelerinfo.setEerstePartij(eloDatum);
-    spelerinfo.setElo(startElo);
-    spelerinfo.setNaam(speler);
-    spelerinfo.setPartijen(0);
-    spelerinfo.setSpelerId(spelerId);
-    spelerinfos.add(spelerId, spelerinfo);
-    spelers.put(speler, spelerId);
+    try (var pgnLezer = pgnIndex.getLezer(start, pgnIndex.size())) {
+      while (pgnLezer.hasNext()) {
+        var partij  = pgnLezer.next();
+        if (!isAfgehandeld(partij)) {
+          break;
+        }
+        var partijDatum = partij.getTag(PGN.PGNTAG_DATE);
+        if (null != partijDatum
+            && partijDatum.compareTo(datum) > 0) {
+          datum = partijDatum;
+        }
+        afgehandeld++;
+      }
+    }
+
+    controlepunt.zet(toernooi, pgnIndex, afgehandeld, datum);
   }
+
 }
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.regex.Pattern;
 
 
 /**
@@ -37,6 +38,9 @@ public class ELOBerekenaarParameters implements IParameterBundleValidator {
       ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
                                Locale.getDefault());
 
+  private static final  Pattern VARIANT =
+      Pattern.compile("\\d*(/\\d*(/\\d*)?)?");
+
   @Override
   public List<String> valideer(Map<String, Parameter> params,
                                List<String> argumenten) {
@@ -68,6 +72,64 @@ public class ELOBerekenaarParameters implements IParameterBundleValidator {
                                        startDatum, eindDatum));
     }
 
+    valideerHistorie(params, argumenten, fouten);
+    valideerPeriode(params, fouten);
+    valideerVarianten(params, fouten);
+
     return fouten;
   }
+
+  private void valideerHistorie(Map<String, Parameter> params,
+                                List<String> argumenten,
+                                List<String> fouten) {
+    if (!argumenten.contains(CaissaTools.PAR_HISTORIE)) {
+      if (argumenten.contains(CaissaTools.PAR_SPELERBESTAND)
+          && !argumenten.contains(CaissaTools.PAR_TOERNOOIBESTAND)) {
+        fouten.add(resourceBundle.getString(CaissaTools.ERR_TOERNOOIBESTAND));
+      }
+      return;
+    }
+
+    var datum = params.get(CaissaTools.PAR_DATUM).getWaarde();
+    if (null != datum
+        && ELOMotor.naarDag(datum.toString()) < 0) {
+      fouten.add(
+          MessageFormat.format(
+              resourceBundle.getString(CaissaTools.ERR_FOUTEDATUM), datum));
+    }
+  }
+
+  private void valideerPeriode(Map<String, Parameter> params,
+                               List<String> fouten) {
+    var periode = params.get(CaissaTools.PAR_PERIODE).getWaarde();
+    if (null == periode) {
+      return;
+    }
+
+    var waarde  = periode.toString().toLowerCase();
+    if (!ELOBerekenaar.PERIODE_MAAND.equals(waarde)
+        && !ELOBerekenaar.PERIODE_WEEK.equals(waarde)) {
+      fouten.add(
+          MessageFormat.format(
+              resourceBundle.getString(CaissaTools.ERR_PERIODE), periode));
+    }
+  }
+
+  private void valideerVarianten(Map<String, Parameter> params,
+                                 List<String> fouten) {
+    var varianten = params.get(CaissaTools.PAR_VARIANTEN).getWaarde();
+    if (null == varianten) {
+      return;
+    }
+
+    // Een lege variant (bijvoorbeeld ;; of een ; op het einde) telt niet.
+    for (var variant : varianten.toString().split(";", -1)) {
+      if (variant.trim().isEmpty()
+          || !VARIANT.matcher(variant.trim()).matches()) {
+        fouten.add(
+            MessageFormat.format(
+                resourceBundle.getString(CaissaTools.ERR_VARIANT), variant));
+      }
+    }
+  }
 }
@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.ELO;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+
+/**
+ * Rekent de ELO ratings uit voor ELOBerekenaar. De spelers krijgen een
+ * volgnummer en alle gegevens staan in parallelle int arrays. Datums zijn
+ * ints (yyyymmdd) en de winst of het verlies per verschil in rating en
+ * uitslag staat in een tabel die eenmalig wordt opgebouwd.
+ *
+ * Zonder vaste K-Factor is de K-Factor 30 zolang een speler minder dan
+ * ELO.MIN_PARTIJEN partijen heeft en daarna 15. Zo rekent ook ELO.
+ *
+ * De partijen worden één voor één verwerkt of per ratingperiode. In een
+ * periode rekent elke speler met de ratings bij het begin van de periode.
+ *
+ * @author Marco de Booij
+ */
+public final class ELOMotor {
+  public static final int GEEN  = 0;
+
+  protected static final  int K_NIEUW     = 30;
+  protected static final  int K_OFFICIEEL = 15;
+
+  private static final  int   CAPACITEIT  = 64;
+  private static final  int[] DAGEN       =
+      new int[] {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+  private final BitSet                gewijzigd = new BitSet();
+  private final Map<String, Integer>  ids       = new HashMap<>();
+  private final int                   startElo;
+  private final int[][]               tabelNieuw;
+  private final int[][]               tabelOfficieel;
+  private final int[][]               tabelVast;
+
+  private int       aantal      = 0;
+  private String[]  namen       = new String[CAPACITEIT];
+  private int[]     elo         = new int[CAPACITEIT];
+  private int[]     groei       = new int[CAPACITEIT];
+  private int[]     partijen    = new int[CAPACITEIT];
+  private int[]     eerste      = new int[CAPACITEIT];
+  private int[]     laatste     = new int[CAPACITEIT];
+  private int[]     officieel   = new int[CAPACITEIT];
+  private int[]     minElo      = new int[CAPACITEIT];
+  private int[]     minDatum    = new int[CAPACITEIT];
+  private int[]     maxElo      = new int[CAPACITEIT];
+  private int[]     maxDatum    = new int[CAPACITEIT];
+
+  public ELOMotor(int startElo, Integer kFactor, int maxVerschil) {
+    this.startElo = startElo;
+    if (null == kFactor) {
+      tabelNieuw      = maakTabel(K_NIEUW, getBereik(K_NIEUW));
+      tabelOfficieel  = maakTabel(K_OFFICIEEL, getBereik(K_OFFICIEEL));
+      tabelVast       = null;
+    } else {
+      tabelNieuw      = null;
+      tabelOfficieel  = null;
+      tabelVast       = maakTabel(kFactor, maxVerschil);
+    }
+  }
+
+  // De nieuwe rating na een partij. Uitslag: 0 verlies, 1 remise, 2 winst.
+  public int berekenElo(int eigenElo, int uitslag, int andereElo,
+                        int gespeeld) {
+    int[][] tabel;
+    if (null != tabelVast) {
+      tabel = tabelVast;
+    } else if (gespeeld < ELO.MIN_PARTIJEN) {
+      tabel = tabelNieuw;
+    } else {
+      tabel = tabelOfficieel;
+    }
+
+    var bereik    = tabel[uitslag].length / 2;
+    var verschil  = Math.max(-bereik,
+                             Math.min(bereik, eigenElo - andereElo));
+
+    return eigenElo + tabel[uitslag][verschil + bereik];
+  }
+
+  // Vanaf dit verschil verandert de afgeronde winst of verlies niet meer.
+  private static int getBereik(int kFactor) {
+    return (int) Math.ceil(400 * Math.log10(2.0 * kFactor)) + 1;
+  }
+
+  public int getEerstePartij(int id) {
+    return eerste[id];
+  }
+
+  public int getElo(int id) {
+    return elo[id];
+  }
+
+  // De spelers die gewijzigd of toegevoegd zijn sinds wisGewijzigd.
+  public BitSet getGewijzigd() {
+    return gewijzigd;
+  }
+
+  public int getGroei(int id) {
+    return groei[id];
+  }
+
+  public int getId(String naam) {
+    var id  = ids.get(naam);
+    if (null == id) {
+      return -1;
+    }
+
+    return id;
+  }
+
+  public int getLaatstePartij(int id) {
+    return laatste[id];
+  }
+
+  public int getMaxDatum(int id) {
+    return maxDatum[id];
+  }
+
+  public int getMaxElo(int id) {
+    return maxElo[id];
+  }
+
+  public int getMinDatum(int id) {
+    return minDatum[id];
+  }
+
+  public int getMinElo(int id) {
+    return minElo[id];
+  }
+
+  public String getNaam(int id) {
+    return namen[id];
+  }
+
+  public int getOfficieel(int id) {
+    return officieel[id];
+  }
+
+  public int getPartijen(int id) {
+    return partijen[id];
+  }
+
+  // De volgnummers van de spelers gesorteerd op naam.
+  public Integer[] getVolgorde() {
+    var volgorde  = new Integer[aantal];
+    for (var i = 0; i < aantal; i++) {
+      volgorde[i] = i;
+    }
+    Arrays.sort(volgorde, (een, twee) -> namen[een].compareTo(namen[twee]));
+
+    return volgorde;
+  }
+
+  private static int[][] maakTabel(int kFactor, int bereik) {
+    var tabel = new int[3][2 * bereik + 1];
+    for (var verschil = -bereik; verschil <= bereik; verschil++) {
+      var verwacht  = 1.0 / (1.0 + Math.pow(10.0, -verschil / 400.0));
+      for (var uitslag = 0; uitslag < 3; uitslag++) {
+        tabel[uitslag][verschil + bereik] =
+            (int) Math.round(kFactor * (uitslag / 2.0 - verwacht));
+      }
+    }
+
+    return tabel;
+  }
+
+  // Zet yyyy.mm.dd om naar yyyymmdd. Geeft -1 als het geen datum is.
+  public static int naarDag(String datum) {
+    if (null == datum
+        || datum.length() != 10
+        || datum.charAt(4) != '.'
+        || datum.charAt(7) != '.') {
+      return -1;
+    }
+
+    var dag = 0;
+    for (var i = 0; i < 10; i++) {
+      if (i == 4 || i == 7) {
+        continue;
+      }
+      var cijfer  = datum.charAt(i) - '0';
+      if (cijfer < 0 || cijfer > 9) {
+        return -1;
+      }
+      dag = dag * 10 + cijfer;
+    }
+
+    var jaar  = dag / 10000;
+    var maand = (dag / 100) % 100;
+    if (maand < 1 || maand > 12
+        || dag % 100 < 1 || dag % 100 > DAGEN[maand - 1]
+        || (maand == 2 && dag % 100 == 29
+            && (jaar % 4 != 0 || (jaar % 100 == 0 && jaar % 400 != 0)))) {
+      return -1;
+    }
+
+    return dag;
+  }
+
+  public static String naarDatum(int dag) {
+    if (dag == GEEN) {
+      return "";
+    }
+
+    return String.format("%04d.%02d.%02d", dag / 10000, (dag / 100) % 100,
+                         dag % 100);
+  }
+
+  private void pasAan(int id, int andereElo, int uitslag, int dag) {
+    var nieuw = berekenElo(elo[id], uitslag, andereElo, partijen[id]);
+    zetElo(id, nieuw, 1, dag);
+    gewijzigd.set(id);
+  }
+
+  // Telt de winst en verlies van alle partijen van de speler in de periode
+  // op. Enkel de gegevens van de speler zelf worden gewijzigd.
+  private void pasAanPeriode(int id, int[] begin, int[] lijst, int van,
+                             int tot, int[] wit, int[] zwart, int[] uitslag,
+                             int[] dag) {
+    var gespeeld    = partijen[id];
+    var laatsteDag  = laatste[id];
+    var verschil    = 0;
+    for (var i = van; i < tot; i++) {
+      var partij  = lijst[i];
+      if (wit[partij] == id) {
+        verschil  += berekenElo(begin[id], uitslag[partij],
+                                begin[zwart[partij]], gespeeld) - begin[id];
+      } else {
+        verschil  += berekenElo(begin[id], 2 - uitslag[partij],
+                                begin[wit[partij]], gespeeld) - begin[id];
+      }
+      gespeeld++;
+      laatsteDag  = Math.max(laatsteDag, dag[partij]);
+    }
+
+    zetElo(id, begin[id] + verschil, tot - van, laatsteDag);
+  }
+
+  public int size() {
+    return aantal;
+  }
+
+  private void vergroot() {
+    var capaciteit  = namen.length * 2;
+    namen     = Arrays.copyOf(namen, capaciteit);
+    elo       = Arrays.copyOf(elo, capaciteit);
+    groei     = Arrays.copyOf(groei, capaciteit);
+    partijen  = Arrays.copyOf(partijen, capaciteit);
+    eerste    = Arrays.copyOf(eerste, capaciteit);
+    laatste   = Arrays.copyOf(laatste, capaciteit);
+    officieel = Arrays.copyOf(officieel, capaciteit);
+    minElo    = Arrays.copyOf(minElo, capaciteit);
+    minDatum  = Arrays.copyOf(minDatum, capaciteit);
+    maxElo    = Arrays.copyOf(maxElo, capaciteit);
+    maxDatum  = Arrays.copyOf(maxDatum, capaciteit);
+  }
+
+  // Uitslag vanuit wit gezien: 0 verlies, 1 remise, 2 winst.
+  public void verwerk(int wit, int zwart, int uitslag, int dag) {
+    var witElo    = elo[wit];
+    var zwartElo  = elo[zwart];
+    pasAan(wit,   zwartElo, uitslag, dag);
+    pasAan(zwart, witElo,   2 - uitslag, dag);
+  }
+
+  // Verwerkt de eerste <partijen> partijen als één ratingperiode. De spelers
+  // worden met een parallelle stream berekend. Start dit binnen een
+  // ForkJoinPool om het aantal threads te bepalen. Geeft de spelers uit de
+  // periode terug.
+  public int[] verwerkPeriode(int[] wit, int[] zwart, int[] uitslag,
+                              int[] dag, int partijen) {
+    var begin   = Arrays.copyOf(elo, aantal);
+    var start   = new int[aantal + 1];
+    for (var i = 0; i < partijen; i++) {
+      start[wit[i] + 1]++;
+      start[zwart[i] + 1]++;
+    }
+    var spelers = 0;
+    for (var id = 0; id < aantal; id++) {
+      if (start[id + 1] > 0) {
+        spelers++;
+      }
+      start[id + 1] += start[id];
+    }
+
+    var lijst   = new int[2 * partijen];
+    var vrij    = Arrays.copyOf(start, aantal);
+    for (var i = 0; i < partijen; i++) {
+      lijst[vrij[wit[i]]++]   = i;
+      lijst[vrij[zwart[i]]++] = i;
+    }
+    var ids     = new int[spelers];
+    spelers     = 0;
+    for (var id = 0; id < aantal; id++) {
+      if (start[id + 1] > start[id]) {
+        ids[spelers++]  = id;
+      }
+    }
+
+    IntStream.range(0, ids.length)
+             .parallel()
+             .forEach(i -> pasAanPeriode(ids[i], begin, lijst, start[ids[i]],
+                                         start[ids[i] + 1], wit, zwart,
+                                         uitslag, dag));
+    for (var id : ids) {
+      gewijzigd.set(id);
+    }
+
+    return ids;
+  }
+
+  public int voegToe(String naam, int eerstePartij) {
+    return voegToe(naam, startElo, 0, 0, eerstePartij, GEEN, GEEN, 0, GEEN,
+                   0, GEEN);
+  }
+
+  public int voegToe(String naam, int elo, int groei, int partijen,
+                     int eerstePartij, int laatstePartij, int officieel,
+                     int minElo, int minDatum, int maxElo, int maxDatum) {
+    if (aantal == namen.length) {
+      vergroot();
+    }
+
+    var id              = aantal++;
+    namen[id]           = naam;
+    this.elo[id]        = elo;
+    this.groei[id]      = groei;
+    this.partijen[id]   = partijen;
+    eerste[id]          = eerstePartij;
+    laatste[id]         = laatstePartij;
+    this.officieel[id]  = officieel;
+    this.minElo[id]     = minElo;
+    this.minDatum[id]   = minDatum;
+    this.maxElo[id]     = maxElo;
+    this.maxDatum[id]   = maxDatum;
+    ids.put(naam, id);
+    gewijzigd.set(id);
+
+    return id;
+  }
+
+  public void wisGewijzigd() {
+    gewijzigd.clear();
+  }
+
+  // De nieuwe rating na <gespeeld> partijen. Bij ELO.MIN_PARTIJEN partijen
+  // wordt de speler officieel en begint het bijhouden van minimum en
+  // maximum.
+  private void zetElo(int id, int nieuw, int gespeeld, int dag) {
+    var voor      = partijen[id];
+    groei[id]     = nieuw - elo[id];
+    elo[id]       = nieuw;
+    laatste[id]   = dag;
+    partijen[id]  += gespeeld;
+    if (voor < ELO.MIN_PARTIJEN
+        && partijen[id] >= ELO.MIN_PARTIJEN) {
+      minElo[id]    = nieuw;
+      maxElo[id]    = nieuw;
+      minDatum[id]  = dag;
+      maxDatum[id]  = dag;
+      officieel[id] = dag;
+    }
+    if (voor >= ELO.MIN_PARTIJEN) {
+      if (minElo[id] >= nieuw) {
+        minElo[id]    = nieuw;
+        minDatum[id]  = dag;
+      }
+      if (maxElo[id] <= nieuw) {
+        maxElo[id]    = nieuw;
+        maxDatum[id]  = dag;
+      }
+    }
+  }
+}
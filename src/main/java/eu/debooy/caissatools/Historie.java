@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+
+/**
+ * Index op het geschiedenisBestand van ELOBerekenaar. Per speler staat er
+ * een blok met (datum, rating, partijen) in volgorde van datum. Het bestand
+ * bestaat uit:
+ *
+ *   - een kop met het aantal gelezen bytes van het geschiedenisBestand, een
+ *     controlegetal over het einde daarvan, het aantal spelers en de lengte
+ *     van de namentabel;
+ *   - per speler (gesorteerd op naam) de plaats van de naam en van het blok;
+ *   - de namentabel in UTF-8;
+ *   - de blokken.
+ *
+ * Een vraag zoekt de speler binair in het gemapte bestand en leest enkel
+ * zijn blok. Als het geschiedenisBestand gegroeid is dan worden enkel de
+ * nieuwe regels gelezen. Als het ingekort of gewijzigd is dan wordt de index
+ * opnieuw opgebouwd.
+ *
+ * Bij het opbouwen wordt de index gecompacteerd. Een regel met niet meer
+ * partijen dan een vorige regel van dezelfde speler komt van een nieuwe
+ * berekening en vervangt de regels vanaf dat aantal partijen.
+ *
+ * @author Marco de Booij
+ */
+public final class Historie {
+  public static final String  EXT_HISTORIE  = "hix";
+
+  private static final  int CONTROLE  = 4096;
+  private static final  int KOP       = 32;
+  private static final  int MAGIC     = 0x48495354;
+  private static final  int RECORD    = 12;
+  private static final  int SPELER    = 16;
+  private static final  int VERSIE    = 1;
+
+  private final Map<String, Reeks>  reeksen = new TreeMap<>();
+
+  private long  controle  = 0L;
+  private long  lengte    = 0L;
+
+  public static final class Punt {
+    private final int datum;
+    private final int elo;
+    private final int partijen;
+
+    private Punt(int datum, int elo, int partijen) {
+      this.datum    = datum;
+      this.elo      = elo;
+      this.partijen = partijen;
+    }
+
+    // Als int (yyyymmdd). Zie ELOMotor.naarDatum.
+    public int getDatum() {
+      return datum;
+    }
+
+    public int getElo() {
+      return elo;
+    }
+
+    public int getPartijen() {
+      return partijen;
+    }
+  }
+
+  private static final class Reeks {
+    private int   aantal    = 0;
+    private int[] datums    = new int[8];
+    private int[] elos      = new int[8];
+    private int[] partijen  = new int[8];
+
+    private void voegToe(int datum, int elo, int gespeeld) {
+      while (aantal > 0
+             && partijen[aantal - 1] >= gespeeld) {
+        aantal--;
+      }
+      if (aantal == datums.length) {
+        datums    = Arrays.copyOf(datums, aantal * 2);
+        elos      = Arrays.copyOf(elos, aantal * 2);
+        partijen  = Arrays.copyOf(partijen, aantal * 2);
+      }
+      datums[aantal]    = datum;
+      elos[aantal]      = elo;
+      partijen[aantal]  = gespeeld;
+      aantal++;
+    }
+  }
+
+  private Historie() {}
+
+  private static long getBlok(MappedByteBuffer buffer, int spelerId) {
+    var aantal  = buffer.getInt(24);
+    var namen   = buffer.getInt(28);
+
+    return KOP + (long) aantal * SPELER + namen
+            + (long) buffer.getInt(KOP + spelerId * SPELER + 8) * RECORD;
+  }
+
+  private static long getControle(FileChannel kanaal, long tot)
+      throws IOException {
+    var van     = Math.max(0L, tot - CONTROLE);
+    var buffer  = ByteBuffer.allocate((int) (tot - van));
+    while (buffer.hasRemaining()
+           && kanaal.read(buffer, van + buffer.position()) > 0) {
+      // Lees verder.
+    }
+    buffer.flip();
+    var crc     = new CRC32();
+    crc.update(buffer);
+
+    return crc.getValue();
+  }
+
+  // Alle regels van de speler in volgorde van datum.
+  public static List<Punt> getCurve(String geschiedenisBestand,
+                                    String speler)
+      throws BestandException {
+    List<Punt>  curve = new ArrayList<>();
+    werkBij(geschiedenisBestand);
+
+    try (var kanaal =
+            FileChannel.open(Paths.get(getHistorienaam(geschiedenisBestand)),
+                             StandardOpenOption.READ)) {
+      var buffer  = kanaal.map(FileChannel.MapMode.READ_ONLY, 0,
+                               kanaal.size());
+      var spelerId  = zoek(buffer, speler);
+      if (spelerId < 0) {
+        return curve;
+      }
+
+      var blok    = getBlok(buffer, spelerId);
+      var aantal  = buffer.getInt(KOP + spelerId * SPELER + 12);
+      for (var i = 0; i < aantal; i++) {
+        curve.add(getPunt(buffer, blok, i));
+      }
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+
+    return curve;
+  }
+
+  protected static String getHistorienaam(String geschiedenisBestand) {
+    if (geschiedenisBestand.toLowerCase().endsWith(".csv")) {
+      return geschiedenisBestand
+                .substring(0, geschiedenisBestand.length() - 3)
+              + EXT_HISTORIE;
+    }
+
+    return geschiedenisBestand + "." + EXT_HISTORIE;
+  }
+
+  // De laatste regel van de speler op of voor de dag. Null als de speler
+  // toen nog niet gespeeld had.
+  public static Punt getOpDatum(String geschiedenisBestand, String speler,
+                                int dag)
+      throws BestandException {
+    werkBij(geschiedenisBestand);
+
+    try (var kanaal =
+            FileChannel.open(Paths.get(getHistorienaam(geschiedenisBestand)),
+                             StandardOpenOption.READ)) {
+      var buffer  = kanaal.map(FileChannel.MapMode.READ_ONLY, 0,
+                               kanaal.size());
+      var spelerId  = zoek(buffer, speler);
+      if (spelerId < 0) {
+        return null;
+      }
+
+      var blok    = getBlok(buffer, spelerId);
+      var laag    = 0;
+      var hoog    = buffer.getInt(KOP + spelerId * SPELER + 12) - 1;
+      var gevonden  = -1;
+      while (laag <= hoog) {
+        var midden  = (laag + hoog) >>> 1;
+        if (buffer.getInt((int) (blok + (long) midden * RECORD)) <= dag) {
+          gevonden  = midden;
+          laag      = midden + 1;
+        } else {
+          hoog      = midden - 1;
+        }
+      }
+      if (gevonden < 0) {
+        return null;
+      }
+
+      return getPunt(buffer, blok, gevonden);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  private static Punt getPunt(MappedByteBuffer buffer, long blok, int i) {
+    var plaats  = (int) (blok + (long) i * RECORD);
+
+    return new Punt(buffer.getInt(plaats), buffer.getInt(plaats + 4),
+                    buffer.getInt(plaats + 8));
+  }
+
+  private void laad(Path index) throws IOException {
+    try (var kanaal = FileChannel.open(index, StandardOpenOption.READ)) {
+      var buffer  = kanaal.map(FileChannel.MapMode.READ_ONLY, 0,
+                               kanaal.size());
+      var aantal  = buffer.getInt(24);
+      var tabel   = KOP + aantal * SPELER;
+      for (var id = 0; id < aantal; id++) {
+        var speler  = KOP + id * SPELER;
+        var naam    = new byte[buffer.getInt(speler + 4)];
+        buffer.position(tabel + buffer.getInt(speler));
+        buffer.get(naam);
+
+        var reeks     = new Reeks();
+        var telling   = buffer.getInt(speler + 12);
+        reeks.datums    = new int[Math.max(8, telling)];
+        reeks.elos      = new int[reeks.datums.length];
+        reeks.partijen  = new int[reeks.datums.length];
+        var blok      = getBlok(buffer, id);
+        for (var i = 0; i < telling; i++) {
+          var plaats  = (int) (blok + (long) i * RECORD);
+          reeks.datums[i]   = buffer.getInt(plaats);
+          reeks.elos[i]     = buffer.getInt(plaats + 4);
+          reeks.partijen[i] = buffer.getInt(plaats + 8);
+        }
+        reeks.aantal  = telling;
+        reeksen.put(new String(naam, StandardCharsets.UTF_8), reeks);
+      }
+    }
+  }
+
+  // Leest de volledige regels vanaf <van>. Een onvolledige laatste regel
+  // wordt de volgende keer gelezen.
+  private void lees(Path csv, long van) throws IOException {
+    lengte  = van;
+    try (var kanaal = FileChannel.open(csv, StandardOpenOption.READ);
+         var invoer =
+            new BufferedInputStream(Channels.newInputStream(
+                kanaal.position(van)))) {
+      var regel = new ByteArrayOutputStream();
+      var teken = invoer.read();
+      var bytes = 0L;
+      while (teken >= 0) {
+        bytes++;
+        if (teken == '\n') {
+          verwerkRegel(regel.toString(StandardCharsets.UTF_8).trim());
+          regel.reset();
+          lengte  = van + bytes;
+        } else {
+          regel.write(teken);
+        }
+        teken = invoer.read();
+      }
+      controle  = getControle(kanaal, lengte);
+    }
+  }
+
+  private void schrijf(Path index) throws IOException {
+    var       aantal  = reeksen.size();
+    byte[][]  namen   = new byte[aantal][];
+    var       tabel   = 0;
+    var       regels  = 0L;
+    var       id      = 0;
+    for (var entry : reeksen.entrySet()) {
+      namen[id] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+      tabel     += namen[id].length;
+      regels    += entry.getValue().aantal;
+      id++;
+    }
+
+    var tijdelijk = Paths.get(index + ".tmp");
+    try (var kanaal = FileChannel.open(tijdelijk, StandardOpenOption.CREATE,
+                                       StandardOpenOption.TRUNCATE_EXISTING,
+                                       StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE)) {
+      var blokken = KOP + aantal * SPELER + tabel;
+      var buffer  = kanaal.map(FileChannel.MapMode.READ_WRITE, 0,
+                               blokken + regels * RECORD);
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSIE);
+      buffer.putLong(8, lengte);
+      buffer.putLong(16, controle);
+      buffer.putInt(24, aantal);
+      buffer.putInt(28, tabel);
+
+      var naam    = 0;
+      var eerste  = 0;
+      id          = 0;
+      for (var reeks : reeksen.values()) {
+        var speler  = KOP + id * SPELER;
+        buffer.putInt(speler,      naam);
+        buffer.putInt(speler +  4, namen[id].length);
+        buffer.putInt(speler +  8, eerste);
+        buffer.putInt(speler + 12, reeks.aantal);
+        buffer.position(KOP + aantal * SPELER + naam);
+        buffer.put(namen[id]);
+        for (var i = 0; i < reeks.aantal; i++) {
+          var plaats  = (int) (blokken + (long) (eerste + i) * RECORD);
+          buffer.putInt(plaats,     reeks.datums[i]);
+          buffer.putInt(plaats + 4, reeks.elos[i]);
+          buffer.putInt(plaats + 8, reeks.partijen[i]);
+        }
+        naam    += namen[id].length;
+        eerste  += reeks.aantal;
+        id++;
+      }
+      buffer.force();
+    }
+
+    Files.move(tijdelijk, index, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  // Splitst een CSV regel. Tussen " mag een , staan.
+  private static List<String> splits(String regel) {
+    List<String>  velden  = new ArrayList<>();
+    var           veld    = new StringBuilder();
+    var           quote   = false;
+    for (var i = 0; i < regel.length(); i++) {
+      var teken = regel.charAt(i);
+      if (teken == '"') {
+        if (quote
+            && i + 1 < regel.length()
+            && regel.charAt(i + 1) == '"') {
+          veld.append(teken);
+          i++;
+        } else {
+          quote = !quote;
+        }
+      } else if (teken == ','
+                 && !quote) {
+        velden.add(veld.toString());
+        veld.setLength(0);
+      } else {
+        veld.append(teken);
+      }
+    }
+    velden.add(veld.toString());
+
+    return velden;
+  }
+
+  private void verwerkRegel(String regel) {
+    var velden  = splits(regel);
+    if (velden.size() < 4) {
+      return;
+    }
+
+    var datum = ELOMotor.naarDag(velden.get(1).trim());
+    if (datum < 0) {
+      return;
+    }
+    try {
+      reeksen.computeIfAbsent(velden.get(0), k -> new Reeks())
+             .voegToe(datum, Integer.parseInt(velden.get(2).trim()),
+                      Integer.parseInt(velden.get(3).trim()));
+    } catch (NumberFormatException e) {
+      // Geen regel uit ELOBerekenaar.
+    }
+  }
+
+  // Brengt de index in orde met het geschiedenisBestand.
+  public static void werkBij(String geschiedenisBestand)
+      throws BestandException {
+    var csv   = Paths.get(geschiedenisBestand);
+    var index = Paths.get(getHistorienaam(geschiedenisBestand));
+
+    try {
+      if (!Files.exists(csv)) {
+        new Historie().schrijf(index);
+        return;
+      }
+
+      var historie  = new Historie();
+      var van       = 0L;
+      if (Files.exists(index)
+          && Files.size(index) >= KOP) {
+        long  gelezen;
+        long  controle;
+        try (var kanaal = FileChannel.open(index, StandardOpenOption.READ)) {
+          var kop = kanaal.map(FileChannel.MapMode.READ_ONLY, 0, KOP);
+          if (kop.getInt(0) != MAGIC
+              || kop.getInt(4) != VERSIE) {
+            gelezen   = -1L;
+            controle  = 0L;
+          } else {
+            gelezen   = kop.getLong(8);
+            controle  = kop.getLong(16);
+          }
+        }
+
+        if (gelezen >= 0
+            && gelezen <= Files.size(csv)) {
+          try (var kanaal = FileChannel.open(csv, StandardOpenOption.READ)) {
+            if (getControle(kanaal, gelezen) == controle) {
+              if (gelezen == kanaal.size()) {
+                return;
+              }
+              historie.laad(index);
+              van = gelezen;
+            }
+          }
+        }
+      }
+
+      historie.lees(csv, van);
+      historie.schrijf(index);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  private static int zoek(MappedByteBuffer buffer, String speler) {
+    var aantal  = buffer.getInt(24);
+    var tabel   = KOP + aantal * SPELER;
+    var laag    = 0;
+    var hoog    = aantal - 1;
+    while (laag <= hoog) {
+      var midden  = (laag + hoog) >>> 1;
+      var plaats  = KOP + midden * SPELER;
+      var naam    = new byte[buffer.getInt(plaats + 4)];
+      buffer.position(tabel + buffer.getInt(plaats));
+      buffer.get(naam);
+      var verschil  =
+          new String(naam, StandardCharsets.UTF_8).compareTo(speler);
+      if (verschil < 0) {
+        laag  = midden + 1;
+      } else if (verschil > 0) {
+        hoog  = midden - 1;
+      } else {
+        return midden;
+      }
+    }
+
+    return -1;
+  }
+}
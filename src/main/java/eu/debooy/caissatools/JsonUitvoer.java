@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.PGN;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.smile.SmileFactory;
+import org.codehaus.jackson.smile.SmileGenerator;
+
+
+/**
+ * Schrijft de partijen van PgnToJson weg als JSON array, als Smile of als
+ * NDJSON (een JSON object per lijn). Zonder <perBestand> komen alle
+ * partijen in een bestand. Met <perBestand> worden de partijen over
+ * meerdere bestanden (naam-1, naam-2, ...) verdeeld en bevat het bestand
+ * zelf een manifest met per partij de sleutel, spelers, uitslag, het
+ * bestand en de positie (in bytes) in dat bestand.
+ *
+ * Smile verwijst standaard terug naar eerder geschreven namen en waarden.
+ * Een verdeeld Smile bestand bevat daarom geen array maar een Smile
+ * document (met header en zonder terugverwijzingen) per partij. Elke partij
+ * kan zo met enkel haar eigen bytes gelezen worden.
+ *
+ * @author Marco de Booij
+ */
+public final class JsonUitvoer implements AutoCloseable {
+  private static final  String[]  TAGS  =
+      new String[]{PGN.PGNTAG_WHITE, PGN.PGNTAG_BLACK, PGN.PGNTAG_RESULT};
+
+  private final String                    bestand;
+  private final List<String>              bestanden = new ArrayList<>();
+  private final List<Map<String, Object>> manifest  = new ArrayList<>();
+  private final boolean                   los;
+  private final ObjectMapper              mapper;
+  private final boolean                   ndjson;
+  private final int                       perBestand;
+  private final boolean                   tekst;
+
+  private int           aantal    = 0;
+  private JsonGenerator generator;
+  private Teller        teller;
+
+  public JsonUitvoer(String bestand, String formaat, int perBestand)
+      throws IOException {
+    this.bestand    = bestand;
+    this.perBestand = perBestand;
+    ndjson          = PgnToJson.FORMAAT_NDJSON.equalsIgnoreCase(formaat);
+    tekst           = !PgnToJson.FORMAAT_SMILE.equalsIgnoreCase(formaat);
+    los             = !tekst && isVerdeeld();
+    if (tekst) {
+      mapper  = new ObjectMapper();
+    } else {
+      var factory = new SmileFactory();
+      if (los) {
+        factory.configure(SmileGenerator.Feature.CHECK_SHARED_NAMES, false);
+        factory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES,
+                          false);
+      }
+      mapper  = new ObjectMapper(factory);
+    }
+
+    if (!isVerdeeld()) {
+      open(bestand);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    sluitBestand();
+
+    if (isVerdeeld()) {
+      Map<String, Object> inhoud  = new LinkedHashMap<>();
+      inhoud.put("perBestand", perBestand);
+      inhoud.put("bestanden", bestanden);
+      inhoud.put("partijen", manifest);
+      mapper.writeValue(new File(bestand), inhoud);
+    }
+  }
+
+  protected static String getDeelnaam(String bestand, int deel) {
+    var punt  = bestand.lastIndexOf('.');
+    if (punt <= bestand.lastIndexOf(File.separatorChar)) {
+      return bestand + "-" + deel;
+    }
+
+    return bestand.substring(0, punt) + "-" + deel + bestand.substring(punt);
+  }
+
+  private boolean isVerdeeld() {
+    return perBestand > 0;
+  }
+
+  private void open(String naam) throws IOException {
+    teller    =
+        new Teller(new BufferedOutputStream(Files.newOutputStream(
+                                                Paths.get(naam))));
+    aantal    = 0;
+    if (ndjson || los) {
+      return;
+    }
+
+    generator =
+        mapper.getJsonFactory().createJsonGenerator(teller, JsonEncoding.UTF8);
+    generator.writeStartArray();
+  }
+
+  public void schrijf(Map<String, Object> partij) throws IOException {
+    if (!isVerdeeld()) {
+      schrijfPartij(partij);
+      return;
+    }
+
+    if (null == teller
+        || aantal == perBestand) {
+      sluitBestand();
+      var naam  = getDeelnaam(bestand, bestanden.size() + 1);
+      bestanden.add(Paths.get(naam).getFileName().toString());
+      open(naam);
+    }
+
+    // In een JSON array staat er een ',' tussen 2 partijen.
+    if (null != generator) {
+      generator.flush();
+    }
+    var offset  =
+        teller.getAantal() + (tekst && !ndjson && aantal > 0 ? 1 : 0);
+    schrijfPartij(partij);
+    if (null != generator) {
+      generator.flush();
+    }
+    aantal++;
+
+    Map<String, Object> item  = new LinkedHashMap<>();
+    item.put("_gamekey", partij.get("_gamekey"));
+    for (var tag : TAGS) {
+      if (partij.containsKey(tag)) {
+        item.put(tag, partij.get(tag));
+      }
+    }
+    item.put("bestand", bestanden.size());
+    item.put("offset", offset);
+    item.put("lengte", teller.getAantal() - offset);
+    manifest.add(item);
+  }
+
+  // Bij NDJSON wordt elke partij direct naar het bestand geschreven zodat
+  // een lezer al kan beginnen terwijl de omzetting nog bezig is.
+  private void schrijfPartij(Map<String, Object> partij) throws IOException {
+    if (los) {
+      teller.write(mapper.writeValueAsBytes(partij));
+      return;
+    }
+    if (!ndjson) {
+      generator.writeObject(partij);
+      return;
+    }
+
+    teller.write(mapper.writeValueAsBytes(partij));
+    teller.write('\n');
+    teller.doorsturen();
+  }
+
+  private void sluitBestand() throws IOException {
+    if (null == teller) {
+      return;
+    }
+
+    if (null == generator) {
+      teller.close();
+    } else {
+      generator.writeEndArray();
+      if (tekst) {
+        generator.writeRaw(System.lineSeparator());
+      }
+      generator.close();
+      generator = null;
+    }
+    teller  = null;
+  }
+
+  // Telt de geschreven bytes. Een flush gaat niet door naar het bestand
+  // zodat het tellen per partij geen schrijfactie kost.
+  private static final class Teller extends FilterOutputStream {
+    private long  aantal  = 0;
+
+    Teller(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+
+    void doorsturen() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void flush() {
+      // Enkel bij close.
+    }
+
+    long getAantal() {
+      return aantal;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      aantal++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      aantal  += len;
+    }
+  }
+}
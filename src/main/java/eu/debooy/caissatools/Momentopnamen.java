@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.PGN;
+import eu.debooy.doosutils.DoosUtils;
+import eu.debooy.doosutils.access.CsvBestand;
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Maandelijkse momentopnamen van de ratings voor ELOBerekenaar. Een
+ * momentopname van een maand bevat de toestand van alle spelers voor de
+ * eerste partij van die maand. Bij elke momentopname hoort een vingerafdruk
+ * van de opties en van alle partijen van voor die maand.
+ *
+ * Als er een partij bijkomt of wijzigt dan is de laatste momentopname met
+ * een nog geldige vingerafdruk het punt vanaf waar opnieuw gerekend moet
+ * worden. Dat geeft hetzelfde resultaat als alles opnieuw berekenen.
+ *
+ * Zolang de toernooibestanden niet gewijzigd zijn (naam, grootte en tijdstip)
+ * zijn alle momentopnamen geldig en worden de partijen niet gehasht. Enkel de
+ * laatste MAX_MOMENTOPNAMEN momentopnamen worden bewaard.
+ *
+ * @author Marco de Booij
+ */
+public final class Momentopnamen implements AutoCloseable {
+  public static final String  EXT_MOMENTOPNAMEN = "snp";
+  public static final int     MAX_MOMENTOPNAMEN = 24;
+
+  private static final  String  BESTANDEN = "bestanden";
+
+  private final String          bestand;
+  private final String          bestanden;
+  private final String          opties;
+  private final List<PgnIndex>  pgnIndexen;
+
+  private final List<String>    opnamen = new ArrayList<>();
+  private final List<String[]>  spelers = new ArrayList<>();
+
+  private String[]    datums;
+  private String[]    keten;
+  private String[]    namen;
+  private CsvBestand  uitvoer;
+  private String      vanaf   = "";
+
+  private Momentopnamen(String bestand, List<String> toernooien,
+                        List<PgnIndex> pgnIndexen, String opties)
+      throws BestandException {
+    this.bestand    = bestand;
+    this.opties     = opties;
+    this.pgnIndexen = pgnIndexen;
+
+    var digest  = getDigest();
+    digest.update(opties.getBytes(StandardCharsets.UTF_8));
+    try {
+      for (var i = 0; i < toernooien.size(); i++) {
+        var pad = Paths.get(toernooien.get(i)).toAbsolutePath().normalize();
+        digest.update(
+            ("|" + pad + "|" + Files.size(pad) + "|"
+              + Files.getLastModifiedTime(pad).toMillis() + "|"
+              + pgnIndexen.get(i).size()).getBytes(StandardCharsets.UTF_8));
+      }
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+    bestanden = toHex(digest.digest());
+  }
+
+  @Override
+  public void close() throws BestandException {
+    if (null == uitvoer) {
+      return;
+    }
+
+    uitvoer.close();
+    uitvoer = null;
+    var tijdelijk = Paths.get(bestand + ".tmp");
+    if (opnamen.size() > MAX_MOMENTOPNAMEN) {
+      snoei(tijdelijk.toString(),
+            opnamen.get(opnamen.size() - MAX_MOMENTOPNAMEN));
+    }
+    try {
+      Files.move(tijdelijk, Paths.get(bestand),
+                 StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  private static MessageDigest getDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // De eerste dag van de maand.
+  public static String getGrens(String datum) {
+    if (null == datum
+        || datum.length() < 8) {
+      return DoosUtils.nullToEmpty(datum);
+    }
+
+    return datum.substring(0, 8) + "01";
+  }
+
+  protected static String getMomentopnamennaam(String spelerBestand) {
+    if (spelerBestand.toLowerCase().endsWith(".csv")) {
+      return spelerBestand.substring(0, spelerBestand.length() - 3)
+              + EXT_MOMENTOPNAMEN;
+    }
+
+    return spelerBestand + "." + EXT_MOMENTOPNAMEN;
+  }
+
+  // De spelers uit de momentopname vanaf waar herberekend wordt.
+  public List<String[]> getSpelers() {
+    return spelers;
+  }
+
+  // De datum vanaf wanneer de partijen herberekend moeten worden. Leeg als
+  // alles herberekend moet worden.
+  public String getVanaf() {
+    return vanaf;
+  }
+
+  // Vingerafdruk van alle partijen van voor de datum.
+  private String getVingerafdruk(String datum) {
+    if (null == keten) {
+      maakKeten();
+    }
+
+    var laag  = 0;
+    var hoog  = datums.length;
+    while (laag < hoog) {
+      var midden  = (laag + hoog) >>> 1;
+      if (datums[midden].compareTo(datum) < 0) {
+        laag  = midden + 1;
+      } else {
+        hoog  = midden;
+      }
+    }
+
+    return keten[laag];
+  }
+
+  public static Momentopnamen laad(String spelerBestand,
+                                   List<String> toernooien,
+                                   List<PgnIndex> pgnIndexen, String opties)
+      throws BestandException {
+    var momentopnamen =
+        new Momentopnamen(getMomentopnamennaam(spelerBestand), toernooien,
+                          pgnIndexen, opties);
+    if (!Files.exists(Paths.get(momentopnamen.bestand))) {
+      return momentopnamen;
+    }
+
+    // Eerst de laatste geldige momentopname zoeken. Met ongewijzigde
+    // bestanden is dat de laatste.
+    Map<String, Boolean>  geldig      = new HashMap<>();
+    var                   ongewijzigd = false;
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(momentopnamen.bestand)
+                                    .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        if (BESTANDEN.equals(veld[0])) {
+          ongewijzigd = momentopnamen.bestanden.equals(veld[1]);
+        } else if (!geldig.containsKey(veld[0])) {
+          geldig.put(veld[0],
+                     ongewijzigd
+                     || veld[1].equals(momentopnamen.getVingerafdruk(veld[0])));
+          if (geldig.get(veld[0])
+              && veld[0].compareTo(momentopnamen.vanaf) > 0) {
+            momentopnamen.vanaf = veld[0];
+          }
+        }
+      }
+    }
+
+    if (momentopnamen.vanaf.isEmpty()) {
+      return momentopnamen;
+    }
+
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(momentopnamen.bestand)
+                                    .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        if (momentopnamen.vanaf.equals(veld[0])) {
+          momentopnamen.spelers.add(Arrays.copyOfRange(veld, 2,
+                                                       veld.length));
+        }
+      }
+    }
+
+    return momentopnamen;
+  }
+
+  // Hasht alle partijen. Enkel nodig als de bestanden gewijzigd zijn of als
+  // er een nieuwe momentopname geschreven wordt.
+  private void maakKeten() {
+    // De partijen worden op datum gesorteerd. Bij dezelfde datum beslist de
+    // vingerafdruk zodat de volgorde in en over de bestanden niet meetelt.
+    List<String[]>  lijst = new ArrayList<>();
+    for (var pgnIndex : pgnIndexen) {
+      for (var i = 0; i < pgnIndex.size(); i++) {
+        lijst.add(
+            new String[] {
+                DoosUtils.nullToEmpty(pgnIndex.get(i)
+                                              .getTag(PGN.PGNTAG_DATE)),
+                toHex(pgnIndex.getPartijVingerafdruk(i))});
+      }
+    }
+    var partijen  = lijst.toArray(new String[lijst.size()][]);
+    Arrays.sort(partijen, (een, twee) -> {
+      var verschil  = een[0].compareTo(twee[0]);
+      return verschil != 0 ? verschil : een[1].compareTo(twee[1]);
+    });
+
+    var digest  = getDigest();
+    datums      = new String[partijen.length];
+    keten       = new String[partijen.length + 1];
+    keten[0]    =
+        toHex(digest.digest(opties.getBytes(StandardCharsets.UTF_8)));
+    for (var i = 0; i < partijen.length; i++) {
+      datums[i]   = partijen[i][0];
+      keten[i+1]  =
+          toHex(digest.digest((keten[i] + partijen[i][1])
+                                  .getBytes(StandardCharsets.UTF_8)));
+    }
+  }
+
+  // Begint een nieuw bestand met de momentopnamen tot en met die van waar
+  // herberekend wordt. Die blijven geldig.
+  public void open(String[] kolommen) throws BestandException {
+    namen     = new String[kolommen.length + 2];
+    namen[0]  = "momentopname";
+    namen[1]  = "vingerafdruk";
+    System.arraycopy(kolommen, 0, namen, 2, kolommen.length);
+
+    uitvoer = new CsvBestand.Builder()
+                            .setBestand(bestand + ".tmp")
+                            .setLezen(false)
+                            .setKolomNamen(namen)
+                            .build();
+    var velden  = new Object[namen.length];
+    Arrays.fill(velden, "");
+    velden[0]   = BESTANDEN;
+    velden[1]   = bestanden;
+    uitvoer.write(velden);
+    if (vanaf.isEmpty()) {
+      return;
+    }
+
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(bestand)
+                                    .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        if (!BESTANDEN.equals(veld[0])
+            && veld[0].compareTo(vanaf) <= 0) {
+          voegOpnameToe(veld[0]);
+          uitvoer.write((Object[]) veld);
+        }
+      }
+    }
+  }
+
+  public void schrijf(String datum, List<Object[]> toestand)
+      throws BestandException {
+    var vingerafdruk  = getVingerafdruk(datum);
+    voegOpnameToe(datum);
+    for (var speler : toestand) {
+      var velden  = new Object[speler.length + 2];
+      velden[0]   = datum;
+      velden[1]   = vingerafdruk;
+      System.arraycopy(speler, 0, velden, 2, speler.length);
+      uitvoer.write(velden);
+    }
+  }
+
+  // Verwijdert de momentopnamen van voor de grens.
+  private void snoei(String tijdelijk, String grens) throws BestandException {
+    var gesnoeid  = tijdelijk + ".snoei";
+    try (var invoer   = new CsvBestand.Builder()
+                                      .setBestand(tijdelijk)
+                                      .build();
+         var snoeisel = new CsvBestand.Builder()
+                                      .setBestand(gesnoeid)
+                                      .setLezen(false)
+                                      .setKolomNamen(namen)
+                                      .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        if (BESTANDEN.equals(veld[0])
+            || veld[0].compareTo(grens) >= 0) {
+          snoeisel.write((Object[]) veld);
+        }
+      }
+    }
+
+    try {
+      Files.move(Paths.get(gesnoeid), Paths.get(tijdelijk),
+                 StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    var hex = new StringBuilder();
+    for (var b : bytes) {
+      hex.append(String.format("%02x", b));
+    }
+
+    return hex.toString();
+  }
+
+  // De momentopnamen staan op datum. Een momentopname heeft een regel per
+  // speler.
+  private void voegOpnameToe(String datum) {
+    if (opnamen.isEmpty()
+        || !opnamen.get(opnamen.size() - 1).equals(datum)) {
+      opnamen.add(datum);
+    }
+  }
+}
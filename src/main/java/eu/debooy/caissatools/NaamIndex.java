@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.PGN;
+import eu.debooy.doosutils.DoosConstants;
+import eu.debooy.doosutils.DoosUtils;
+import eu.debooy.doosutils.ParameterBundle;
+import eu.debooy.doosutils.access.CsvBestand;
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+
+/**
+ * Zet de namen van spelers om naar hun vaste (canonieke) naam. Eerst wordt
+ * er gekeken in het aliasBestand (CSV met de kolommen alias en naam). Met
+ * een naamDrempel wordt een onbekende naam vergeleken met de gekende namen
+ * via een index op trigrammen (3 opeenvolgende letters). Enkel de namen die
+ * een trigram gemeen hebben worden bekeken.
+ *
+ * De score is de Dice coëfficiënt van de trigrammen van de genormaliseerde
+ * namen (kleine letters, zonder accenten en leestekens). Een naam met
+ * dezelfde achternaam en voornamen die enkel de initialen zijn van één
+ * gekende naam ("De Booij, M." en "de Booij, Marco") krijgt minstens
+ * INITIALEN. Passen de initialen bij meerdere gekende namen of hebben twee
+ * beste kandidaten dezelfde score dan wordt er niets gekozen.
+ *
+ * Met zoekVooraf worden de namen van alle partijen in alfabetische volgorde
+ * opgezocht. Een naam uit het aliasBestand of een gekende naam blijft de
+ * vaste naam. Anders wordt het de alfabetisch kleinste naam van de groep en
+ * niet de eerste die in de partijen voorkomt.
+ *
+ * Een gevonden naam wordt als alias bewaard in het aliasBestand. Met
+ * naamVoorstel wordt de alias enkel getoond.
+ *
+ * @author Marco de Booij
+ */
+public final class NaamIndex {
+  private static final  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
+                               Locale.getDefault());
+
+  protected static final  double  INITIALEN = 0.9;
+
+  private static final  String[]  KOLOMMEN  = new String[] {"alias", "naam"};
+
+  private final Map<String, String>   aliassen        = new TreeMap<>();
+  private final String                aliasBestand;
+  private final double                drempel;
+  private final Map<Long, int[]>      index           = new HashMap<>();
+  private final Map<String, Integer>  ids             = new HashMap<>();
+  private final Map<String, Integer>  genormaliseerd  = new HashMap<>();
+  private final List<String>          namen           = new ArrayList<>();
+  private final Map<String, String>   nieuw           = new LinkedHashMap<>();
+  private final boolean               voorstel;
+
+  private int[]   grammen       = new int[64];
+  private int[]   telling       = new int[64];
+  private String  vingerafdruk  = "";
+
+  // Drempel tussen 0 en 1. Met 0 wordt er niet gezocht.
+  public NaamIndex(String aliasBestand, double drempel, boolean voorstel) {
+    this.aliasBestand = aliasBestand;
+    this.drempel      = drempel;
+    this.voorstel     = voorstel;
+  }
+
+  // Toont de nieuwe aliassen en bewaart ze in het aliasBestand.
+  public void bewaar() throws BestandException {
+    for (var alias : nieuw.entrySet()) {
+      DoosUtils.naarScherm(
+          MessageFormat.format(
+              resourceBundle.getString(voorstel ? "label.naamvoorstel"
+                                                : "label.alias"),
+              alias.getKey(), alias.getValue()));
+    }
+
+    if (null == aliasBestand
+        || voorstel
+        || nieuw.isEmpty()) {
+      return;
+    }
+
+    try (var uitvoer  = new CsvBestand.Builder()
+                                      .setBestand(aliasBestand)
+                                      .setLezen(false)
+                                      .setKolomNamen(KOLOMMEN)
+                                      .build()) {
+      for (var alias : aliassen.entrySet()) {
+        uitvoer.write(alias.getKey(), alias.getValue());
+      }
+    }
+    nieuw.clear();
+  }
+
+  private static String[] getDelen(String naam) {
+    var komma = naam.indexOf(',');
+    if (komma < 0) {
+      return new String[] {normaliseer(naam), ""};
+    }
+
+    return new String[] {normaliseer(naam.substring(0, komma)),
+                         normaliseer(naam.substring(komma + 1))};
+  }
+
+  // De vaste naam van de speler. Een onbekende naam wordt een gekende naam.
+  public String getNaam(String naam) {
+    if (DoosUtils.isBlankOrNull(naam)) {
+      return naam;
+    }
+
+    var alias = aliassen.get(naam);
+    if (null != alias) {
+      return alias;
+    }
+    if (ids.containsKey(naam)) {
+      return naam;
+    }
+
+    if (drempel > 0) {
+      var gevonden  = zoek(naam);
+      if (null != gevonden) {
+        nieuw.put(naam, gevonden);
+        if (!voorstel) {
+          aliassen.put(naam, gevonden);
+          return gevonden;
+        }
+      }
+    }
+
+    voegToe(naam);
+
+    return naam;
+  }
+
+  // De instellingen en de inhoud van het aliasBestand. Als die wijzigen dan
+  // kan een speler een andere vaste naam krijgen.
+  public String getOpties() {
+    return drempel + "|" + voorstel + "|" + vingerafdruk;
+  }
+
+  private static long[] getTrigrammen(String genormaliseerd) {
+    var tekst   = " " + genormaliseerd + " ";
+    var aantal  = Math.max(0, tekst.length() - 2);
+    var codes   = new long[aantal];
+    for (var i = 0; i < aantal; i++) {
+      codes[i]  = ((long) tekst.charAt(i) << 32)
+                  | ((long) tekst.charAt(i + 1) << 16)
+                  | tekst.charAt(i + 2);
+    }
+
+    return Arrays.stream(codes).distinct().toArray();
+  }
+
+  // Leest het aliasBestand. De namen waarnaar verwezen wordt zijn gekend.
+  public void laad() throws BestandException {
+    if (null == aliasBestand
+        || !Files.exists(Paths.get(aliasBestand))) {
+      return;
+    }
+
+    try {
+      vingerafdruk  =
+          toHex(MessageDigest.getInstance("SHA-256")
+                             .digest(Files.readAllBytes(
+                                 Paths.get(aliasBestand))));
+    } catch (IOException e) {
+      throw new BestandException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(aliasBestand)
+                                    .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        aliassen.put(veld[0], veld[1]);
+        if (!ids.containsKey(veld[1])) {
+          voegToe(veld[1]);
+        }
+      }
+    }
+  }
+
+  public static NaamIndex maak(ParameterBundle paramBundle)
+      throws BestandException {
+    String  bestand = null;
+    if (paramBundle.containsArgument(CaissaTools.PAR_ALIASBESTAND)) {
+      bestand = paramBundle.getBestand(CaissaTools.PAR_ALIASBESTAND);
+    }
+    var     drempel = 0.0;
+    if (paramBundle.containsArgument(CaissaTools.PAR_NAAMDREMPEL)) {
+      drempel =
+          paramBundle.getInteger(CaissaTools.PAR_NAAMDREMPEL) / 100.0;
+    }
+
+    var naamIndex =
+        new NaamIndex(bestand, drempel,
+                      paramBundle.getBoolean(CaissaTools.PAR_NAAMVOORSTEL));
+    naamIndex.laad();
+
+    return naamIndex;
+  }
+
+  protected static String normaliseer(String naam) {
+    return Normalizer.normalize(naam, Normalizer.Form.NFD)
+                     .replaceAll("\\p{M}", "")
+                     .toLowerCase(Locale.ROOT)
+                     .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                     .trim();
+  }
+
+  // Is elke voornaam gelijk aan, of het begin van, die van de andere?
+  private static boolean passen(String voornamen, String andere) {
+    var een   = voornamen.split(" ");
+    var twee  = andere.split(" ");
+    if (een.length != twee.length
+        || voornamen.isEmpty()
+        || andere.isEmpty()) {
+      return false;
+    }
+
+    for (var i = 0; i < een.length; i++) {
+      if (!een[i].startsWith(twee[i])
+          && !twee[i].startsWith(een[i])) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static String toHex(byte[] bytes) {
+    var hex = new StringBuilder();
+    for (var b : bytes) {
+      hex.append(String.format("%02x", b));
+    }
+
+    return hex.toString();
+  }
+
+  // Maakt de naam gekend zonder hem op te zoeken.
+  public void voegToe(String naam) {
+    if (ids.containsKey(naam)) {
+      return;
+    }
+
+    var id    = namen.size();
+    var norm  = normaliseer(naam);
+    namen.add(naam);
+    ids.put(naam, id);
+    genormaliseerd.putIfAbsent(norm, id);
+
+    var codes = getTrigrammen(norm);
+    if (id == grammen.length) {
+      grammen = Arrays.copyOf(grammen, id * 2);
+      telling = Arrays.copyOf(telling, id * 2);
+    }
+    grammen[id] = codes.length;
+    for (var code : codes) {
+      var lijst = index.get(code);
+      if (null == lijst) {
+        lijst = new int[] {0, 0, 0, 0};
+      } else if (lijst[0] + 1 == lijst.length) {
+        lijst = Arrays.copyOf(lijst, lijst.length * 2);
+      }
+      lijst[++lijst[0]] = id;
+      index.put(code, lijst);
+    }
+  }
+
+  // De beste gekende naam met een score vanaf de drempel of null.
+  public String zoek(String naam) {
+    var norm  = normaliseer(naam);
+    var exact = genormaliseerd.get(norm);
+    if (null != exact) {
+      return namen.get(exact);
+    }
+
+    var           codes       = getTrigrammen(norm);
+    List<Integer> kandidaten  = new ArrayList<>();
+    for (var code : codes) {
+      var lijst = index.get(code);
+      if (null == lijst) {
+        continue;
+      }
+      for (var i = 1; i <= lijst[0]; i++) {
+        if (telling[lijst[i]]++ == 0) {
+          kandidaten.add(lijst[i]);
+        }
+      }
+    }
+
+    var delen     = getDelen(naam);
+    var beste     = -1;
+    var score     = 0.0;
+    var gelijk    = false;
+    var initialen = -1;
+    for (var id : kandidaten) {
+      var dice  = 2.0 * telling[id] / (codes.length + grammen[id]);
+      telling[id] = 0;
+      var andere  = getDelen(namen.get(id));
+      if (delen[0].equals(andere[0])
+          && passen(delen[1], andere[1])) {
+        initialen = initialen < 0 ? id : Integer.MAX_VALUE;
+      }
+      if (dice > score) {
+        beste   = id;
+        score   = dice;
+        gelijk  = false;
+      } else if (dice == score) {
+        gelijk  = true;
+      }
+    }
+
+    // Meerdere namen met dezelfde initialen: niet te onderscheiden.
+    if (initialen == Integer.MAX_VALUE) {
+      return null;
+    }
+    if (initialen >= 0
+        && INITIALEN > score) {
+      beste   = initialen;
+      score   = INITIALEN;
+      gelijk  = false;
+    }
+
+    if (beste < 0
+        || gelijk
+        || score < drempel) {
+      return null;
+    }
+
+    return namen.get(beste);
+  }
+
+  // Zoekt de spelers van alle partijen op in alfabetische volgorde. Zo hangt
+  // de vaste naam niet af van de volgorde van de partijen of van de
+  // partijen die overgeslagen worden.
+  public void zoekVooraf(List<PgnIndex> pgnIndexen) {
+    if (drempel <= 0) {
+      return;
+    }
+
+    Set<String> spelers = new TreeSet<>();
+    for (var pgnIndex : pgnIndexen) {
+      for (var i = 0; i < pgnIndex.size(); i++) {
+        var verwijzing  = pgnIndex.get(i);
+        for (var tag : new String[] {PGN.PGNTAG_WHITE, PGN.PGNTAG_BLACK}) {
+          var naam  = verwijzing.getTag(tag);
+          if (!DoosUtils.isBlankOrNull(naam)) {
+            spelers.add(naam);
+          }
+        }
+      }
+    }
+    spelers.forEach(this::getNaam);
+  }
+
+  // Zoals zoekVooraf voor PGN bestanden waarvan er nog geen index is.
+  public void zoekVooraf(String[] bestanden) throws BestandException {
+    if (drempel <= 0) {
+      return;
+    }
+
+    List<PgnIndex>  pgnIndexen  = new ArrayList<>();
+    for (var bestand : bestanden) {
+      pgnIndexen.add(PgnIndex.laad(bestand, null, false));
+    }
+    zoekVooraf(pgnIndexen);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.PGN;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.smile.SmileFactory;
+import org.codehaus.jackson.type.TypeReference;
+
+
+/**
+ * Bewaart de omgezette partijen van PgnToJson tussen 2 runs. De sleutel is
+ * een hash van de opties, de tags en de zetten van de partij zodat enkel
+ * nieuwe of gewijzigde partijen opnieuw worden nagespeeld. Het aantal
+ * partijen in de cache is begrensd; de partijen die het langst niet meer
+ * gebruikt zijn verdwijnen eerst.
+ *
+ * @author Marco de Booij
+ */
+public final class PartijCache {
+  public static final String  EXT_CACHE = "cache";
+
+  private static final  String  GAMEKEY = "_gamekey";
+  private static final  String  PARTIJ  = "partij";
+  private static final  String  SLEUTEL = "sleutel";
+
+  private final String                            bestand;
+  private final Map<String, Map<String, Object>>  partijen;
+  private final ObjectMapper                      mapper  =
+      new ObjectMapper(new SmileFactory());
+  private final String                            opties;
+
+  private int gevonden  = 0;
+
+  private PartijCache(String bestand, int maximum, String opties) {
+    this.bestand  = bestand;
+    this.opties   = opties;
+    partijen      = new LinkedHashMap<>(16, 0.75f, true) {
+      private static final  long  serialVersionUID  = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(
+          Map.Entry<String, Map<String, Object>> oudste) {
+        return size() > maximum;
+      }
+    };
+  }
+
+  public void bewaar() throws IOException {
+    List<Map<String, Object>> inhoud  = new ArrayList<>(partijen.size());
+    synchronized (this) {
+      for (var partij : partijen.entrySet()) {
+        Map<String, Object> item  = new LinkedHashMap<>();
+        item.put(SLEUTEL, partij.getKey());
+        item.put(PARTIJ, partij.getValue());
+        inhoud.add(item);
+      }
+    }
+
+    mapper.writeValue(new File(bestand), inhoud);
+  }
+
+  // Geeft de partij met het gevraagde partijnummer of null als ze niet in de
+  // cache zit.
+  public synchronized Map<String, Object> get(String sleutel, int partijnr) {
+    var partij  = partijen.get(sleutel);
+    if (null == partij) {
+      return null;
+    }
+
+    gevonden++;
+    Map<String, Object> kopie = new LinkedHashMap<>();
+    kopie.put(GAMEKEY, "" + partijnr);
+    kopie.putAll(partij);
+
+    return kopie;
+  }
+
+  protected static String getCachenaam(String bestand) {
+    if (bestand.toLowerCase().endsWith(".pgn")) {
+      return bestand.substring(0, bestand.length() - 3) + EXT_CACHE;
+    }
+
+    return bestand + "." + EXT_CACHE;
+  }
+
+  public int getGevonden() {
+    return gevonden;
+  }
+
+  public String getSleutel(PGN partij) {
+    MessageDigest digest;
+    try {
+      digest  = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    digest.update(opties.getBytes(StandardCharsets.UTF_8));
+    for (var tag : partij.getTags().entrySet()) {
+      digest.update((tag.getKey() + "\u0000" + tag.getValue() + "\u0000")
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update(partij.getZetten().getBytes(StandardCharsets.UTF_8));
+
+    var sleutel = new StringBuilder();
+    for (var b : digest.digest()) {
+      sleutel.append(String.format("%02x", b));
+    }
+
+    return sleutel.toString();
+  }
+
+  public static PartijCache laad(String bestand, int maximum, String opties)
+      throws IOException {
+    var cache = new PartijCache(bestand, maximum, opties);
+    if (!new File(bestand).exists()) {
+      return cache;
+    }
+
+    List<Map<String, Object>> inhoud  =
+        cache.mapper.readValue(new File(bestand),
+                               new TypeReference<List<Map<String, Object>>>() {});
+    for (var item : inhoud) {
+      @SuppressWarnings("unchecked")
+      var partij  = (Map<String, Object>) item.get(PARTIJ);
+      cache.partijen.put((String) item.get(SLEUTEL), partij);
+    }
+
+    return cache;
+  }
+
+  public synchronized void put(String sleutel, Map<String, Object> partij) {
+    Map<String, Object> kopie = new LinkedHashMap<>(partij);
+    kopie.remove(GAMEKEY);
+    partijen.put(sleutel, kopie);
+  }
+
+  public synchronized int size() {
+    return partijen.size();
+  }
+}
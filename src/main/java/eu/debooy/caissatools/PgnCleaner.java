@@ -16,8 +16,6 @@
  */
 package eu.debooy.caissatools;
 
-import eu.debooy.caissa.CaissaUtils;
-import eu.debooy.caissa.PGN;
 import eu.debooy.caissa.exceptions.PgnException;
 import eu.debooy.doosutils.Batchjob;
 import eu.debooy.doosutils.DoosConstants;
@@ -28,7 +26,6 @@ import eu.debooy.doosutils.access.TekstBestand;
 import eu.debooy.doosutils.errorhandling.exception.FileNotFoundException;
 import eu.debooy.doosutils.exception.BestandException;
 import java.text.MessageFormat;
-import java.util.Collection;
 import java.util.Locale;
 import java.util.ResourceBundle;
 
@@ -59,22 +56,16 @@ public final class PgnCleaner extends Batchjob {
     var enkelZetten = paramBundle.getBoolean(CaissaTools.PAR_ENKELZETTEN);
     var invoer      = paramBundle.getBestand(CaissaTools.PAR_BESTAND);
     var noPartijen  = 0;
+    var partijen    = 0;
     var uitvoer     = paramBundle.getBestand(CaissaTools.PAR_UITVOER);
 
-    Collection<PGN> partijen;
-    try {
-      partijen =
-          CaissaUtils.laadPgnBestand(invoer);
-    } catch (PgnException e) {
-      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
-      return;
-    }
-
-    try (var output  =
+    try (var pgnLezer  = new PgnLezer(invoer);
+         var output    =
             new TekstBestand.Builder()
                             .setBestand(uitvoer)
                             .setLezen(false).build()){
-      for (var partij: partijen) {
+      while (pgnLezer.hasNext()) {
+        var partij  = pgnLezer.next();
         if (Boolean.TRUE.equals(enkelZetten)) {
           partij.setZetten(partij.getZuivereZetten());
         }
@@ -84,7 +75,8 @@ public final class PgnCleaner extends Batchjob {
           noPartijen++;
         }
       }
-    } catch (BestandException | FileNotFoundException e) {
+      partijen  = pgnLezer.getAantal();
+    } catch (BestandException | FileNotFoundException | PgnException e) {
       DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
 
@@ -93,7 +85,7 @@ public final class PgnCleaner extends Batchjob {
                              invoer));
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
-                             partijen.size()));
+                             partijen));
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_UITVOER),
                              uitvoer));
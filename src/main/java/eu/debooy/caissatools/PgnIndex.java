@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.PGN;
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.DoosUtils;
+import eu.debooy.doosutils.access.CsvBestand;
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Index op de partijen van een PGN bestand. Het PGN bestand wordt in het
+ * geheugen gemapt en de begin van de partijen wordt op byte niveau gezocht.
+ * De index kan als CSV bestand naast het PGN bestand bewaard worden zodat
+ * een volgende keer direct naar een partij (of reeks partijen) gesprongen
+ * kan worden. Als dat niet lukt dan blijft de index enkel in het geheugen.
+ *
+ * @author Marco de Booij
+ */
+public final class PgnIndex {
+  public static final  String  EXT_INDEX = "idx";
+
+  private static final  String[]  TAGS      =
+      new String[]{PGN.PGNTAG_EVENT, PGN.PGNTAG_SITE, PGN.PGNTAG_DATE,
+                   PGN.PGNTAG_ROUND, PGN.PGNTAG_WHITE, PGN.PGNTAG_BLACK,
+                   PGN.PGNTAG_RESULT, PGN.PGNTAG_EVENTDATE};
+  private static final  String[]  KOLOMMEN  =
+      new String[]{"offset", "lengte", PGN.PGNTAG_EVENT, PGN.PGNTAG_SITE,
+                   PGN.PGNTAG_DATE, PGN.PGNTAG_ROUND, PGN.PGNTAG_WHITE,
+                   PGN.PGNTAG_BLACK, PGN.PGNTAG_RESULT,
+                   PGN.PGNTAG_EVENTDATE};
+  private static final  byte[]    EVENT     =
+      "[Event ".getBytes(StandardCharsets.US_ASCII);
+  private static final  int       BUFFER    = 1 << 16;
+  private static final  int       SEGMENT   = 1 << 30;
+
+  private final Charset             charset;
+  private final long                grootte;
+  private final MappedByteBuffer[]  segmenten;
+  private final List<Verwijzing>    verwijzingen  = new ArrayList<>();
+
+  public static final class Verwijzing {
+    private final long                offset;
+    private final int                 lengte;
+    private final Map<String, String> tags  = new LinkedHashMap<>();
+
+    private Verwijzing(long offset, int lengte) {
+      this.offset = offset;
+      this.lengte = lengte;
+    }
+
+    public int getLengte() {
+      return lengte;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public String getTag(String tag) {
+      return tags.get(tag);
+    }
+
+    public PGN toPgn() throws PgnException {
+      var partij  = new PGN();
+      for (var tag : tags.entrySet()) {
+        if (null != tag.getValue()) {
+          partij.setTag(tag.getKey(), tag.getValue());
+        }
+      }
+
+      return partij;
+    }
+  }
+
+  private PgnIndex(String bestand, String charset) throws BestandException {
+    if (DoosUtils.isBlankOrNull(charset)) {
+      this.charset  = StandardCharsets.UTF_8;
+    } else {
+      this.charset  = Charset.forName(charset);
+    }
+
+    try (var kanaal = FileChannel.open(Paths.get(bestand),
+                                       StandardOpenOption.READ)) {
+      grootte   = kanaal.size();
+      segmenten =
+          new MappedByteBuffer[(int) ((grootte + SEGMENT - 1) / SEGMENT)];
+      for (var i = 0; i < segmenten.length; i++) {
+        long  start = (long) i * SEGMENT;
+        segmenten[i]  =
+            kanaal.map(FileChannel.MapMode.READ_ONLY, start,
+                       Math.min(SEGMENT, grootte - start));
+      }
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  private byte getByte(long positie) {
+    return segmenten[(int) (positie / SEGMENT)].get((int) (positie % SEGMENT));
+  }
+
+  private byte[] getBytes(long van, long tot) {
+    var bytes = new byte[(int) (tot - van)];
+    var i     = 0;
+    while (i < bytes.length) {
+      i += kopieer(van + i, bytes, i, bytes.length - i);
+    }
+
+    return bytes;
+  }
+
+  public Verwijzing get(int partij) {
+    return verwijzingen.get(partij);
+  }
+
+  // Een lezer op de partijen van tot tot. Elke lezer heeft zijn eigen
+  // positie zodat meerdere stukken van het bestand tegelijk gelezen kunnen
+  // worden. Zonder partijen (van >= tot) is de lezer leeg.
+  public PgnLezer getLezer(int van, int tot) throws BestandException {
+    if (van >= tot) {
+      return new PgnLezer(new BufferedReader(new StringReader("")));
+    }
+
+    var start = verwijzingen.get(van).getOffset();
+    var einde = verwijzingen.get(tot - 1).getOffset()
+                  + verwijzingen.get(tot - 1).getLengte();
+
+    return new PgnLezer(
+        new BufferedReader(
+            new InputStreamReader(new SegmentStream(start, einde), charset),
+            BUFFER));
+  }
+
+  protected static String getIndexnaam(String bestand) {
+    if (bestand.toLowerCase().endsWith(".pgn")) {
+      return bestand.substring(0, bestand.length() - 3) + EXT_INDEX;
+    }
+
+    return bestand + "." + EXT_INDEX;
+  }
+
+  private static MessageDigest getDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // SHA-256 van de bytes van een partij zonder de witruimte op het einde.
+  // Een partij die achteraan het bestand stond blijft zo dezelfde als er
+  // partijen bijkomen.
+  public byte[] getPartijVingerafdruk(int partij) {
+    var verwijzing  = verwijzingen.get(partij);
+    var einde       = verwijzing.getOffset() + verwijzing.getLengte();
+    while (einde > verwijzing.getOffset()
+           && Character.isWhitespace(getByte(einde - 1))) {
+      einde--;
+    }
+
+    return getDigest().digest(getBytes(verwijzing.getOffset(), einde));
+  }
+
+  // SHA-256 van de bytes voor de gevraagde partij.
+  public byte[] getVingerafdruk(int partijen) {
+    var digest  = getDigest();
+    var einde   = partijen < verwijzingen.size()
+                    ? verwijzingen.get(partijen).getOffset() : grootte;
+    for (var i = 0; (long) i * SEGMENT < einde; i++) {
+      var segment = segmenten[i].duplicate();
+      segment.position(0);
+      segment.limit((int) Math.min(segment.capacity(),
+                                   einde - (long) i * SEGMENT));
+      digest.update(segment);
+    }
+
+    return digest.digest();
+  }
+
+  private boolean isEvent(long positie) {
+    if (positie + EVENT.length > grootte) {
+      return false;
+    }
+
+    for (var i = 0; i < EVENT.length; i++) {
+      if (getByte(positie + i) != EVENT[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  // Kopieert maximaal lengte bytes vanaf positie tot het einde van het
+  // segment. Geeft het aantal gekopieerde bytes terug.
+  private int kopieer(long positie, byte[] buffer, int offset, int lengte) {
+    var segment = segmenten[(int) (positie / SEGMENT)].duplicate();
+    segment.position((int) (positie % SEGMENT));
+    var aantal  = Math.min(lengte, segment.remaining());
+    segment.get(buffer, offset, aantal);
+
+    return aantal;
+  }
+
+  public static PgnIndex laad(String bestand) throws BestandException {
+    return laad(bestand, null);
+  }
+
+  public static PgnIndex laad(String bestand, String charset)
+      throws BestandException {
+    return laad(bestand, charset, true);
+  }
+
+  // Zonder bewaren wordt het bestand altijd gescand en blijft de index enkel
+  // in het geheugen.
+  public static PgnIndex laad(String bestand, String charset,
+                              boolean bewaren)
+      throws BestandException {
+    var pgnIndex  = new PgnIndex(bestand, charset);
+    var index     = getIndexnaam(bestand);
+
+    if (bewaren
+        && pgnIndex.leesIndex(Paths.get(bestand), index)) {
+      return pgnIndex;
+    }
+
+    pgnIndex.scan();
+    if (bewaren) {
+      try {
+        pgnIndex.schrijfIndex(index);
+      } catch (BestandException e) {
+        DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+        verwijder(index);
+      }
+    }
+
+    return pgnIndex;
+  }
+
+  public PGN lees(int partij) throws BestandException, PgnException {
+    try (var pgnLezer = getLezer(partij, partij + 1)) {
+      return pgnLezer.next();
+    }
+  }
+
+  private boolean leesIndex(Path pgn, String index) throws BestandException {
+    var indexPad  = Paths.get(index);
+    try {
+      if (!Files.exists(indexPad)
+          || Files.getLastModifiedTime(indexPad)
+                  .compareTo(Files.getLastModifiedTime(pgn)) < 0) {
+        return false;
+      }
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+
+    // Een onvolledig geschreven index wordt opnieuw gemaakt.
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(index)
+                                    .build()) {
+      while (invoer.hasNext()) {
+        var veld        = invoer.next();
+        var verwijzing  = new Verwijzing(Long.parseLong(veld[0]),
+                                         Integer.parseInt(veld[1]));
+        for (var i = 0; i < TAGS.length; i++) {
+          if (i + 2 < veld.length
+              && DoosUtils.isNotBlankOrNull(veld[i + 2])) {
+            verwijzing.tags.put(TAGS[i], veld[i + 2]);
+          }
+        }
+        verwijzingen.add(verwijzing);
+      }
+    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+      verwijzingen.clear();
+      return false;
+    }
+
+    if (verwijzingen.isEmpty()) {
+      return grootte == 0;
+    }
+
+    var laatste = verwijzingen.get(verwijzingen.size() - 1);
+    if (laatste.getOffset() + laatste.getLengte() != grootte) {
+      verwijzingen.clear();
+      return false;
+    }
+
+    return true;
+  }
+
+  private long leesTag(long positie, Map<String, String> tags) {
+    var einde = positie;
+    while (einde < grootte
+           && getByte(einde) != '\n') {
+      einde++;
+    }
+
+    var lijn    = new String(getBytes(positie, einde), charset).trim();
+    var spatie  = lijn.indexOf(' ');
+    var begin   = lijn.indexOf('"');
+    var laatste = lijn.lastIndexOf('"');
+    if (spatie > 1
+        && begin > spatie
+        && laatste > begin) {
+      var tag = lijn.substring(1, spatie);
+      for (var naam : TAGS) {
+        if (naam.equals(tag)) {
+          tags.put(tag, lijn.substring(begin + 1, laatste)
+                            .replace("\\\"", "\""));
+          break;
+        }
+      }
+    }
+
+    return einde;
+  }
+
+  private void scan() {
+    List<Long>                starts  = new ArrayList<>();
+    List<Map<String, String>> tags    = new ArrayList<>();
+    var                       inTags    = false;
+    var                       positie   = 0L;
+    var                       vorigTag  = false;
+
+    // Sla een eventuele BOM over.
+    if (grootte >= 3
+        && getByte(0) == (byte) 0xEF
+        && getByte(1) == (byte) 0xBB
+        && getByte(2) == (byte) 0xBF) {
+      positie = 3;
+    }
+
+    while (positie < grootte) {
+      // positie staat altijd aan het begin van een lijn.
+      var start = positie;
+      while (positie < grootte
+             && (getByte(positie) == ' ' || getByte(positie) == '\t')) {
+        positie++;
+      }
+
+      var teken = positie < grootte ? getByte(positie) : '\n';
+      if (teken == '[') {
+        if (!vorigTag
+            && isEvent(positie)) {
+          starts.add(starts.isEmpty() ? 0L : start);
+          tags.add(new LinkedHashMap<>());
+          inTags  = true;
+        }
+        if (inTags) {
+          positie = leesTag(positie, tags.get(tags.size() - 1));
+        }
+        vorigTag  = true;
+      } else if (teken != '\r'
+                 && teken != '\n') {
+        inTags    = false;
+        vorigTag  = false;
+      }
+
+      while (positie < grootte
+             && getByte(positie) != '\n') {
+        positie++;
+      }
+      positie++;
+    }
+
+    for (var i = 0; i < starts.size(); i++) {
+      var offset      = starts.get(i);
+      var einde       = (i + 1 < starts.size()) ? starts.get(i + 1) : grootte;
+      var verwijzing  = new Verwijzing(offset, (int) (einde - offset));
+      verwijzing.tags.putAll(tags.get(i));
+      verwijzingen.add(verwijzing);
+    }
+  }
+
+  private void schrijfIndex(String index) throws BestandException {
+    try (var uitvoer  = new CsvBestand.Builder()
+                                      .setBestand(index)
+                                      .setLezen(false)
+                                      .setKolomNamen(KOLOMMEN)
+                                      .build()) {
+      for (var verwijzing : verwijzingen) {
+        var velden  = new Object[KOLOMMEN.length];
+        velden[0]   = verwijzing.getOffset();
+        velden[1]   = verwijzing.getLengte();
+        for (var i = 0; i < TAGS.length; i++) {
+          velden[i + 2] = DoosUtils.nullToEmpty(verwijzing.getTag(TAGS[i]));
+        }
+        uitvoer.write(velden);
+      }
+    }
+  }
+
+  public int size() {
+    return verwijzingen.size();
+  }
+
+  private static void verwijder(String bestand) {
+    try {
+      Files.deleteIfExists(Paths.get(bestand));
+    } catch (IOException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+    }
+  }
+
+  private final class SegmentStream extends InputStream {
+    private final long  einde;
+
+    private long  positie;
+
+    SegmentStream(long start, long einde) {
+      this.einde  = einde;
+      positie     = start;
+    }
+
+    @Override
+    public int read() {
+      if (positie >= einde) {
+        return -1;
+      }
+
+      return getByte(positie++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int lengte) {
+      if (positie >= einde) {
+        return -1;
+      }
+
+      var aantal  = kopieer(positie, buffer, offset,
+                            (int) Math.min(lengte, einde - positie));
+      positie += aantal;
+
+      return aantal;
+    }
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.CaissaConstants;
+import eu.debooy.caissa.PGN;
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.DoosConstants;
+import eu.debooy.doosutils.DoosUtils;
+import eu.debooy.doosutils.access.TekstBestand;
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.ResourceBundle;
+
+
+/**
+ * Leest de partijen uit een PGN bestand één voor één in plaats van het hele
+ * bestand in het geheugen te laden.
+ *
+ * Een partij zonder tags, een foutieve tag en commentaar of varianten die
+ * niet afgesloten zijn geven een PgnException.
+ *
+ * @author Marco de Booij
+ */
+public final class PgnLezer implements AutoCloseable {
+  private static final  char            BOM             = '\uFEFF';
+  private static final  String          ERR_COMMENTAAR  =
+      "error.pgn.commentaar";
+  private static final  String          ERR_GEENTAGS    =
+      "error.pgn.geen.tags";
+  private static final  String          ERR_TAG         = "error.pgn.tag";
+  private static final  String          ERR_VARIATIE    =
+      "error.pgn.variatie";
+  private static final  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
+                               Locale.getDefault());
+  private static final  List<String>    UITSLAGEN       =
+      Arrays.asList(CaissaConstants.PARTIJ_WIT_WINT,
+                    CaissaConstants.PARTIJ_REMISE,
+                    CaissaConstants.PARTIJ_ZWART_WINT,
+                    CaissaConstants.PARTIJ_BEZIG);
+
+  private final TekstBestand    invoer;
+  private final BufferedReader  reader;
+  private final StringBuilder   zetten    = new StringBuilder();
+
+  private int     aantal    = 0;
+  private int     commentaar;
+  private String  lijn;
+  private int     variatie;
+
+  public PgnLezer(String bestand) throws BestandException {
+    this(bestand, null);
+  }
+
+  public PgnLezer(String bestand, String charset) throws BestandException {
+    var builder = new TekstBestand.Builder().setBestand(bestand);
+    if (DoosUtils.isNotBlankOrNull(charset)) {
+      builder.setCharset(charset);
+    }
+    invoer  = builder.build();
+    reader  = null;
+
+    leesEersteLijn();
+  }
+
+  public PgnLezer(BufferedReader reader) throws BestandException {
+    invoer      = null;
+    this.reader = reader;
+
+    leesEersteLijn();
+  }
+
+  @Override
+  public void close() throws BestandException {
+    if (null != invoer) {
+      invoer.close();
+      return;
+    }
+
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  public int getAantal() {
+    return aantal;
+  }
+
+  public boolean hasNext() throws BestandException {
+    while (null != lijn
+           && lijn.isEmpty()) {
+      leesLijn();
+    }
+
+    return null != lijn;
+  }
+
+  private PgnException getFout(String sleutel, Object... params) {
+    return new PgnException(
+        MessageFormat.format(resourceBundle.getString(sleutel), params));
+  }
+
+  private boolean isTag() {
+    return commentaar == 0
+            && lijn.startsWith("[")
+            && lijn.endsWith("]");
+  }
+
+  // Een lijn die als tag begint maar geen geldige tag is.
+  private boolean isFouteTag() {
+    return commentaar == 0
+            && variatie == 0
+            && lijn.startsWith("[")
+            && !isTag();
+  }
+
+  private void leesEersteLijn() throws BestandException {
+    leesLijn();
+    if (null != lijn
+        && !lijn.isEmpty()
+        && lijn.charAt(0) == BOM) {
+      lijn  = lijn.substring(1).trim();
+    }
+  }
+
+  private void leesLijn() throws BestandException {
+    if (null == invoer) {
+      try {
+        lijn  = reader.readLine();
+      } catch (IOException e) {
+        throw new BestandException(e);
+      }
+      if (null != lijn) {
+        lijn  = lijn.trim();
+      }
+      return;
+    }
+
+    if (invoer.hasNext()) {
+      lijn  = invoer.next().trim();
+    } else {
+      lijn  = null;
+    }
+  }
+
+  public PGN next() throws BestandException, PgnException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    var partij  = new PGN();
+    var nummer  = aantal + 1;
+    var tags    = 0;
+    commentaar  = 0;
+    variatie    = 0;
+    zetten.setLength(0);
+
+    while (null != lijn
+           && (lijn.isEmpty() || isTag() || isFouteTag())) {
+      if (isFouteTag()) {
+        throw getFout(ERR_TAG, lijn, nummer);
+      }
+      if (!lijn.isEmpty()) {
+        voegTagToe(partij, nummer);
+        tags++;
+      }
+      leesLijn();
+    }
+    if (tags == 0) {
+      throw getFout(ERR_GEENTAGS, nummer);
+    }
+
+    while (null != lijn
+           && !isTag()) {
+      if (isFouteTag()) {
+        throw getFout(ERR_TAG, lijn, nummer);
+      }
+      if (!lijn.isEmpty()) {
+        zetten.append(lijn).append(' ');
+        telCommentaar();
+      }
+      leesLijn();
+    }
+    if (commentaar != 0) {
+      throw getFout(ERR_COMMENTAAR, nummer);
+    }
+    if (variatie != 0) {
+      throw getFout(ERR_VARIATIE, nummer);
+    }
+
+    verwijderUitslag();
+    partij.setZetten(zetten.toString().trim());
+    aantal++;
+
+    return partij;
+  }
+
+  // Telt de open commentaren en varianten. Haakjes in commentaar tellen
+  // niet mee.
+  private void telCommentaar() {
+    for (var i = 0; i < lijn.length(); i++) {
+      switch (lijn.charAt(i)) {
+        case '{':
+          commentaar++;
+          break;
+        case '}':
+          commentaar--;
+          break;
+        case '(':
+          if (commentaar == 0) {
+            variatie++;
+          }
+          break;
+        case ')':
+          if (commentaar == 0) {
+            variatie--;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private void verwijderUitslag() {
+    var einde = zetten.length();
+    while (einde > 0
+           && Character.isWhitespace(zetten.charAt(einde - 1))) {
+      einde--;
+    }
+    var begin = zetten.lastIndexOf(" ", einde - 1) + 1;
+    if (UITSLAGEN.contains(zetten.substring(begin, einde))) {
+      zetten.setLength(begin);
+    }
+  }
+
+  private void voegTagToe(PGN partij, int nummer) throws PgnException {
+    var spatie  = lijn.indexOf(' ');
+    var begin   = lijn.indexOf('"');
+    var einde   = lijn.lastIndexOf('"');
+    if (spatie < 2
+        || begin < spatie
+        || einde <= begin) {
+      throw getFout(ERR_TAG, lijn, nummer);
+    }
+
+    partij.addTag(lijn.substring(1, spatie),
+                  lijn.substring(begin + 1, einde).replace("\\\"", "\""));
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.PGN;
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.DoosUtils;
+import eu.debooy.doosutils.exception.BestandException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+
+/**
+ * Voegt de partijen uit meerdere PGN bestanden samen in de volgorde van een
+ * TreeSet<PGN>. Elk bestand wordt als stroom gelezen. Enkel de partijen van
+ * dezelfde dag staan per bestand in het geheugen. Een bestand dat niet op
+ * datum gesorteerd is wordt wel volledig ingelezen en gesorteerd.
+ *
+ * Het geheugen hangt dus niet enkel af van het aantal bestanden. De PgnIndex
+ * van elk bestand houdt de belangrijkste tags van alle partijen bij en een
+ * ongesorteerd bestand staat helemaal in het geheugen.
+ *
+ * Net zoals in een TreeSet komt een partij die gelijk is aan de vorige maar
+ * één keer terug.
+ *
+ * @author Marco de Booij
+ */
+public final class PgnSamenvoeger implements AutoCloseable {
+  private final List<Bron>          bronnen   = new ArrayList<>();
+  private final PriorityQueue<Bron> wachtrij  =
+      new PriorityQueue<>((een, twee) -> {
+        var verschil  = een.getEerste().compareTo(twee.getEerste());
+        return verschil != 0 ? verschil : een.volgnummer - twee.volgnummer;
+      });
+
+  private boolean gestart   = false;
+  private PGN     vorige;
+
+  private static final class Bron {
+    private final TreeSet<PGN>  buffer  = new TreeSet<>();
+    private final PgnLezer      lezer;
+    private final int           volgnummer;
+
+    private PGN volgende;
+
+    private Bron(PgnLezer lezer, int volgnummer) {
+      this.lezer      = lezer;
+      this.volgnummer = volgnummer;
+    }
+
+    private void close() throws BestandException {
+      if (null != lezer) {
+        lezer.close();
+      }
+    }
+
+    private PGN getEerste() {
+      return buffer.first();
+    }
+
+    private static String getDatum(PGN partij) {
+      return DoosUtils.nullToEmpty(partij.getTag(PGN.PGNTAG_DATE));
+    }
+
+    // Leest alle partijen van de volgende dag in de buffer.
+    private boolean vul() throws BestandException, PgnException {
+      if (!buffer.isEmpty()) {
+        return true;
+      }
+      if (null == lezer) {
+        return false;
+      }
+
+      if (null == volgende
+          && lezer.hasNext()) {
+        volgende  = lezer.next();
+      }
+      if (null == volgende) {
+        return false;
+      }
+
+      var datum = getDatum(volgende);
+      buffer.add(volgende);
+      volgende  = null;
+      while (lezer.hasNext()) {
+        var partij  = lezer.next();
+        if (!datum.equals(getDatum(partij))) {
+          volgende  = partij;
+          break;
+        }
+        buffer.add(partij);
+      }
+
+      return true;
+    }
+  }
+
+  @Override
+  public void close() throws BestandException {
+    BestandException  fout  = null;
+    for (var bron : bronnen) {
+      try {
+        bron.close();
+      } catch (BestandException e) {
+        fout  = e;
+      }
+    }
+    bronnen.clear();
+    wachtrij.clear();
+
+    if (null != fout) {
+      throw fout;
+    }
+  }
+
+  private static boolean isGesorteerd(PgnIndex pgnIndex, int van) {
+    var datum = "";
+    for (var i = van; i < pgnIndex.size(); i++) {
+      var volgende  =
+          DoosUtils.nullToEmpty(pgnIndex.get(i).getTag(PGN.PGNTAG_DATE));
+      if (volgende.compareTo(datum) < 0) {
+        return false;
+      }
+      datum = volgende;
+    }
+
+    return true;
+  }
+
+  public boolean hasNext() throws BestandException, PgnException {
+    if (!gestart) {
+      for (var bron : bronnen) {
+        if (bron.vul()) {
+          wachtrij.add(bron);
+        }
+      }
+      gestart = true;
+    }
+
+    while (!wachtrij.isEmpty()
+           && null != vorige
+           && vorige.compareTo(wachtrij.peek().getEerste()) == 0) {
+      neemEerste();
+    }
+
+    return !wachtrij.isEmpty();
+  }
+
+  private PGN neemEerste() throws BestandException, PgnException {
+    var bron    = wachtrij.poll();
+    var partij  = bron.buffer.pollFirst();
+    if (bron.vul()) {
+      wachtrij.add(bron);
+    }
+
+    return partij;
+  }
+
+  public PGN next() throws BestandException, PgnException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    vorige  = neemEerste();
+
+    return vorige;
+  }
+
+  // Voegt de partijen vanaf partij <van> toe met een datum vanaf <vanaf>.
+  public void voegToe(PgnIndex pgnIndex, int van, String vanaf)
+      throws BestandException, PgnException {
+    if (gestart) {
+      throw new IllegalStateException();
+    }
+
+    var volgnummer  = bronnen.size();
+    if (!isGesorteerd(pgnIndex, van)) {
+      var bron  = new Bron(null, volgnummer);
+      for (var i = van; i < pgnIndex.size(); i++) {
+        if (DoosUtils.nullToEmpty(pgnIndex.get(i).getTag(PGN.PGNTAG_DATE))
+                     .compareTo(vanaf) >= 0) {
+          bron.buffer.add(pgnIndex.lees(i));
+        }
+      }
+      bronnen.add(bron);
+      return;
+    }
+
+    var start = van;
+    while (start < pgnIndex.size()
+           && DoosUtils.nullToEmpty(pgnIndex.get(start)
+                                            .getTag(PGN.PGNTAG_DATE))
+                       .compareTo(vanaf) < 0) {
+      start++;
+    }
+    if (start < pgnIndex.size()) {
+      bronnen.add(new Bron(pgnIndex.getLezer(start, pgnIndex.size()),
+                           volgnummer));
+    }
+  }
+}
@@ -38,12 +38,15 @@ import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
-import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import org.json.simple.JSONObject;
 
 
@@ -135,17 +138,18 @@ public final class PgnToHtml extends Batchjob {
 
   public static final String  PROP_INDENT = "indent";
 
-  private static  final ClassLoader     classloader     =
-      PgnToHtml.class.getClassLoader();
   private static  final ResourceBundle  resourceBundle  =
       ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
                                Locale.getDefault());
 
   private static  Competitie        competitie;
   private static  double[][]        matrix;
-  private static  TekstBestand      output;
-  private static  String            prefix        = "";
-  private static  Properties        skelet;
+
+  // Elke pagina wordt door een eigen instantie gemaakt.
+  private final   StringBuilder     regel         = new StringBuilder();
+  private         TekstBestand      output;
+  private         String            prefix        = "";
+  private         Skelet            skelet;
 
   protected PgnToHtml() {}
 
@@ -187,12 +191,18 @@ public final class PgnToHtml extends Batchjob {
     if (Boolean.TRUE.equals(paramBundle.getBoolean(CaissaTools.PAR_AKTIEF))) {
       matrix  = CaissaUtils.verwijderNietActief(matrix, competitie);
     }
+    // Elke pagina is een taak met een eigen PgnToHtml. De taken lezen enkel
+    // competitie, matrix en het schema.
+    List<Runnable>  taken = new ArrayList<>();
     if (matrix.length > 0) {
       // Maak het matrix.html bestand.
-      maakMatrix();
+      var namen = new ArrayList<>(competitie.getDeelnemers());
+      taken.add(() -> new PgnToHtml().maakMatrix(namen));
 
       // Maak het index.html bestand.
-      maakIndex();
+      var stand = competitie.getDeelnemers();
+      Collections.sort(stand);
+      taken.add(() -> new PgnToHtml().maakIndex(stand));
     }
 
     // Maak het uitslagen.html bestand.
@@ -200,15 +210,30 @@ public final class PgnToHtml extends Batchjob {
       var schema      =
           CaissaUtils.genereerSpeelschema(competitie, partijen);
       if (!schema.isEmpty()) {
-        maakUitslagen(schema);
+        taken.add(() -> new PgnToHtml().maakUitslagen(schema));
       }
     }
 
     if (!competitie.getKalender().isEmpty()) {
-      maakKalender();
+      taken.add(() -> new PgnToHtml().maakKalender());
     }
 
-    maakInhalen();
+    taken.add(() -> new PgnToHtml().maakInhalen());
+
+    var forkJoin  =
+        new ForkJoinPool(CaissaTools.getThreads(paramBundle, taken.size()));
+    try {
+      forkJoin.submit(() -> taken.parallelStream().forEach(Runnable::run))
+              .get();
+    } catch (ExecutionException e) {
+      DoosUtils.foutNaarScherm(e.getCause().getLocalizedMessage());
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } finally {
+      forkJoin.shutdown();
+    }
 
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_BESTAND),
@@ -222,7 +247,7 @@ public final class PgnToHtml extends Batchjob {
     klaar();
   }
 
-  private static void genereerLegenda(Boolean metInhaaldatum) throws BestandException {
+  private void genereerLegenda(Boolean metInhaaldatum) throws BestandException {
     var forfait     = resourceBundle.getString("message.forfait");
     var notRanked   = resourceBundle.getString("message.notranked");
     var inhaaldatum = resourceBundle.getString("message.met.inhaaldatum");
@@ -236,13 +261,13 @@ public final class PgnToHtml extends Batchjob {
     schrijfUitvoer(HTML_TABLE_EIND);
   }
 
-  private static void genereerRondefooting() throws BestandException {
+  private void genereerRondefooting() throws BestandException {
     schrijfUitvoer(HTML_TABLE_BODY_FOOTER);
     schrijfUitvoer(HTML_TABLE_BODY_EIND);
     schrijfUitvoer(HTML_TABLE_EIND);
   }
 
-  private static void genereerRondeheading(int ronde, String datum)
+  private void genereerRondeheading(int ronde, String datum)
       throws BestandException {
     genereerTabelheading();
     schrijfUitvoer(HTML_TABLE_HEAD, resourceBundle.getString(LBL_RONDE),
@@ -250,12 +275,12 @@ public final class PgnToHtml extends Batchjob {
     schrijfUitvoer(HTML_TABLE_BODY_BEGIN);
   }
 
-  private static void genereerTabelheading() throws BestandException {
+  private void genereerTabelheading() throws BestandException {
     schrijfUitvoer(HTML_TABLE_BEGIN);
     schrijfUitvoer(HTML_TABLE_COLGROUP);
   }
 
-  private static void genereerUitslagtabel(Set<Partij> schema)
+  private void genereerUitslagtabel(Set<Partij> schema)
       throws BestandException {
     var iter            = schema.iterator();
     var metInhaaldatum  =
@@ -314,24 +339,15 @@ public final class PgnToHtml extends Batchjob {
     return "" + ((Double) score).intValue() + Utilities.kwart(score);
   }
 
-  private static void laadSkelet(String resource) throws IOException {
-      skelet.load(PgnToHtml.class.getClassLoader()
-                           .getResourceAsStream(resource));
-
-      if (skelet.containsKey(PROP_INDENT)) {
-        prefix  = DoosUtils.stringMetLengte("",
-            Integer.parseInt(skelet.getProperty(PROP_INDENT)));
-      } else {
-        prefix  = "";
-      }
+  private void laadSkelet(String resource) throws IOException {
+    skelet  = Skelet.laad(resource);
+    prefix  = skelet.getPrefix();
   }
 
-  private static void maakIndex() {
-    var spelers   = competitie.getDeelnemers();
+  // De spelers in de volgorde van de stand.
+  private void maakIndex(List<Spelerinfo> spelers) {
     var noSpelers = spelers.size();
 
-    Collections.sort(spelers);
-    skelet  = new Properties();
     try {
       output    =
           new TekstBestand.Builder()
@@ -344,21 +360,13 @@ public final class PgnToHtml extends Batchjob {
       schrijfUitvoer(HTML_TABLE_COLGROUP);
 
       schrijfUitvoer(HTML_TABLE_HEAD_BEGIN);
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_NR),
-                                 resourceBundle.getString(TAG_NUMMER)));
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_NAAM),
-                                 resourceBundle.getString(TAG_NAAM)));
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_PUNTEN),
-                                 resourceBundle.getString(TAG_PUNTEN)));
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_PARTIJEN),
-                                 resourceBundle.getString(TAG_PARTIJEN)));
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_SB),
-                                 resourceBundle.getString(TAG_SB)));
+      schrijfRegel(HTML_TABLE_HEAD_NR, resourceBundle.getString(TAG_NUMMER));
+      schrijfRegel(HTML_TABLE_HEAD_NAAM, resourceBundle.getString(TAG_NAAM));
+      schrijfRegel(HTML_TABLE_HEAD_PUNTEN,
+                   resourceBundle.getString(TAG_PUNTEN));
+      schrijfRegel(HTML_TABLE_HEAD_PARTIJEN,
+                   resourceBundle.getString(TAG_PARTIJEN));
+      schrijfRegel(HTML_TABLE_HEAD_SB, resourceBundle.getString(TAG_SB));
       schrijfUitvoer(HTML_TABLE_HEAD_EIND);
 
       schrijfUitvoer(HTML_TABLE_BODY_BEGIN);
@@ -381,33 +389,26 @@ public final class PgnToHtml extends Batchjob {
     }
   }
 
-  private static void maakIndexBody(Spelerinfo speler, int plaats)
+  private void maakIndexBody(Spelerinfo speler, int plaats)
       throws BestandException {
-    output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_BEGIN));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_NR), plaats));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_NAAM),
-                               swapNaam(speler.getNaam())));
+    schrijfRegel(HTML_TABLE_ROW_BEGIN);
+    schrijfRegel(HTML_TABLE_ROW_NR, plaats);
+    schrijfRegel(HTML_TABLE_ROW_NAAM, swapNaam(speler.getNaam()));
     var pntn  = speler.getPunten().intValue();
     var decim = Utilities.kwart(speler.getPunten());
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_PUNTEN),
-                               getPunten(pntn, decim),
-                               getDecimalen(pntn, decim)));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_PARTIJEN),
-                               speler.getPartijen()));
+    schrijfRegel(HTML_TABLE_ROW_PUNTEN,
+                 getPunten(pntn, decim),
+                 getDecimalen(pntn, decim));
+    schrijfRegel(HTML_TABLE_ROW_PARTIJEN, speler.getPartijen());
     var wpntn   = speler.getTieBreakScore().intValue();
     var wdecim  = Utilities.kwart(speler.getTieBreakScore());
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_SB),
-                               getPunten(wpntn, wdecim),
-                               getDecimalen(wpntn, wdecim)));
-    output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_EIND));
+    schrijfRegel(HTML_TABLE_ROW_SB,
+                 getPunten(wpntn, wdecim),
+                 getDecimalen(wpntn, wdecim));
+    schrijfRegel(HTML_TABLE_ROW_EIND);
   }
 
-  private static void maakInhalen() {
+  private void maakInhalen() {
     var inhalen = competitie.getInhaalpartijen();
     try {
       output    =
@@ -422,27 +423,19 @@ public final class PgnToHtml extends Batchjob {
       schrijfUitvoer(HTML_TABLE_COLGROUP);
 
       schrijfUitvoer(HTML_TABLE_HEAD_BEGIN);
-      output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_RONDE),
-                               resourceBundle.getString(LBL_RONDE)));
-      output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_DATUM),
-                               resourceBundle.getString(LBL_TESPELEN)));
-      output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_WIT),
-                               resourceBundle.getString(LBL_WIT)));
-      output.write(prefix + skelet.getProperty(HTML_TABLE_HEAD_SCHEIDING));
-      output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_ZWART),
-                               resourceBundle.getString(LBL_ZWART)));
+      schrijfRegel(HTML_TABLE_HEAD_RONDE, resourceBundle.getString(LBL_RONDE));
+      schrijfRegel(HTML_TABLE_HEAD_DATUM,
+                   resourceBundle.getString(LBL_TESPELEN));
+      schrijfRegel(HTML_TABLE_HEAD_WIT, resourceBundle.getString(LBL_WIT));
+      schrijfRegel(HTML_TABLE_HEAD_SCHEIDING);
+      schrijfRegel(HTML_TABLE_HEAD_ZWART, resourceBundle.getString(LBL_ZWART));
       schrijfUitvoer(HTML_TABLE_HEAD_EIND);
 
       schrijfUitvoer(HTML_TABLE_BODY_BEGIN);
 
       if (inhalen.isEmpty()) {
-        output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_GEENINHAAL),
-                                 resourceBundle.getString(MSG_GEENINHAAL)));
+        schrijfRegel(HTML_TABLE_ROW_GEENINHAAL,
+                     resourceBundle.getString(MSG_GEENINHAAL));
       } else {
         var datum             =
             ((JSONObject) inhalen.get(0))
@@ -468,7 +461,7 @@ public final class PgnToHtml extends Batchjob {
     }
   }
 
-  private static void maakInhalenBody(JSONObject item, String volgende)
+  private void maakInhalenBody(JSONObject item, String volgende)
       throws BestandException {
     var datum = item.get("datum").toString();
     var ronde = item.get("ronde").toString();
@@ -478,27 +471,21 @@ public final class PgnToHtml extends Batchjob {
     zwart.setNaam(item.get("zwart").toString());
 
     if (datum.equals(volgende)) {
-      output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_BEGIN_V));
+      schrijfRegel(HTML_TABLE_ROW_BEGIN_V);
     } else {
-      output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_BEGIN));
-    }
-
-    output.write(prefix +
-        MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_RONDE), ronde));
-    output.write(prefix +
-        MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_DATUM), datum));
-    output.write(prefix +
-        MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_WIT),
-                             wit.getVolledigenaam()));
-    output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_SCHEIDING));
-    output.write(prefix +
-        MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_ZWART),
-                             zwart.getVolledigenaam()));
-
-    output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_EIND));
+      schrijfRegel(HTML_TABLE_ROW_BEGIN);
+    }
+
+    schrijfRegel(HTML_TABLE_ROW_RONDE, ronde);
+    schrijfRegel(HTML_TABLE_ROW_DATUM, datum);
+    schrijfRegel(HTML_TABLE_ROW_WIT, wit.getVolledigenaam());
+    schrijfRegel(HTML_TABLE_ROW_SCHEIDING);
+    schrijfRegel(HTML_TABLE_ROW_ZWART, zwart.getVolledigenaam());
+
+    schrijfRegel(HTML_TABLE_ROW_EIND);
   }
 
-  private static void maakKalender() {
+  private void maakKalender() {
     var     kalender  = competitie.getKalender();
     var     datum     =
         ((JSONObject) kalender.get(0))
@@ -518,7 +505,6 @@ public final class PgnToHtml extends Batchjob {
                                  .format(formatter);
     }
 
-    skelet  = new Properties();
     try {
       output    =
           new TekstBestand.Builder()
@@ -532,12 +518,10 @@ public final class PgnToHtml extends Batchjob {
       schrijfUitvoer(HTML_TABLE_COLGROUP);
 
       schrijfUitvoer(HTML_TABLE_HEAD_BEGIN);
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_KALENDER),
-                                 resourceBundle.getString(TAG_DATUM)));
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_KALENDER),
-                                 resourceBundle.getString(TAG_ACTIVITEIT)));
+      schrijfRegel(HTML_TABLE_HEAD_KALENDER,
+                   resourceBundle.getString(TAG_DATUM));
+      schrijfRegel(HTML_TABLE_HEAD_KALENDER,
+                   resourceBundle.getString(TAG_ACTIVITEIT));
       schrijfUitvoer(HTML_TABLE_HEAD_EIND);
 
       schrijfUitvoer(HTML_TABLE_BODY_BEGIN);
@@ -560,7 +544,7 @@ public final class PgnToHtml extends Batchjob {
     }
   }
 
-  private static void maakKalenderBody(JSONObject item, String volgende)
+  private void maakKalenderBody(JSONObject item, String volgende)
       throws BestandException {
     var datum = item.get(Competitie.JSON_TAG_KALENDER_DATUM).toString();
     var type  = Competitie.JSON_TAG_KALENDER_RONDE;
@@ -570,12 +554,9 @@ public final class PgnToHtml extends Batchjob {
     if (item.containsKey(Competitie.JSON_TAG_KALENDER_EXTRA)) {
       type  = Competitie.JSON_TAG_KALENDER_EXTRA;
     }
-    output.write(prefix +
-        MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_BEGIN
-                                                  + "." + type),
-                             datum.equals(volgende) ? " attentie" : ""));
-    output.write(prefix +
-        MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_DATUM), datum));
+    schrijfRegel(HTML_TABLE_ROW_BEGIN + "." + type,
+                 datum.equals(volgende) ? " attentie" : "");
+    schrijfRegel(HTML_TABLE_ROW_DATUM, datum);
     String  activiteit;
     if (resourceBundle.containsKey(TAG_HTML + type)) {
       activiteit  =
@@ -584,18 +565,15 @@ public final class PgnToHtml extends Batchjob {
     } else {
       activiteit  = item.get(type).toString();
     }
-    output.write(prefix +
-        MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW),
-                             activiteit));
-    output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_EIND));
+    schrijfRegel(HTML_TABLE_ROW, activiteit);
+    schrijfRegel(HTML_TABLE_ROW_EIND);
   }
 
-  private static void maakMatrix() {
+  // De spelers in de volgorde van de matrix.
+  private void maakMatrix(List<Spelerinfo> spelers) {
     var kolommen  = matrix[0].length;
-    var spelers   = competitie.getDeelnemers();
     var noSpelers = spelers.size();
 
-    skelet  = new Properties();
     try {
       output  =
           new TekstBestand.Builder()
@@ -653,123 +631,97 @@ public final class PgnToHtml extends Batchjob {
     }
   }
 
-  private static void maakMatrixBody(Spelerinfo speler, int i, int kolommen,
-                                     boolean dubbelrondig, boolean metBye)
+  private void maakMatrixBody(Spelerinfo speler, int i, int kolommen,
+                              boolean dubbelrondig, boolean metBye)
       throws BestandException {
-    output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_BEGIN));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_NR),
-                               (i + 1)));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_NAAM),
-                               swapNaam(speler.getNaam())));
+    schrijfRegel(HTML_TABLE_ROW_BEGIN);
+    schrijfRegel(HTML_TABLE_ROW_NR, (i + 1));
+    schrijfRegel(HTML_TABLE_ROW_NAAM, swapNaam(speler.getNaam()));
+    var wit   = skelet.getSjabloon(HTML_TABLE_ROW_WIT);
+    var zelf  = skelet.getSjabloon(HTML_TABLE_ROW_ZELF).getWaarde();
+    var zwart = skelet.getSjabloon(HTML_TABLE_ROW_ZWART);
     var j     = 0;
-    var lijn  = new StringBuilder();
     while (j < kolommen) {
-      lijn.append(prefix).append("      ");
+      regel.setLength(0);
+      regel.append(prefix).append("      ");
       if ((dubbelrondig ? 2 : 1) * i == j) {
-        lijn.append(skelet.getProperty(HTML_TABLE_ROW_ZELF));
+        regel.append(zelf);
         if (dubbelrondig) {
           j++;
-          lijn.append(skelet.getProperty(HTML_TABLE_ROW_ZELF));
+          regel.append(zelf);
         }
       } else {
         // -1 is een niet gespeelde partij.
-        lijn.append(
-            MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_WIT),
-                                 getScore(matrix[i][j])));
+        wit.schrijf(regel, getScore(matrix[i][j]));
         if (dubbelrondig) {
           j++;
-          lijn.append(
-              MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_ZWART),
-                                   getScore(matrix[i][j])));
+          zwart.schrijf(regel, getScore(matrix[i][j]));
         }
       }
-      output.write(lijn.toString());
-      lijn  = new StringBuilder();
+      output.write(regel.toString());
       j++;
     }
     if (metBye) {
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_PARTIJEN),
-                                 getScore(speler.getByeScore().intValue())));
+      schrijfRegel(HTML_TABLE_ROW_PARTIJEN,
+                   getScore(speler.getByeScore().intValue()));
     }
     var pntn  = speler.getPunten().intValue();
     var decim = Utilities.kwart(speler.getPunten());
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_PUNTEN),
-                               getPunten(pntn, decim),
-                               getDecimalen(pntn, decim)));
-    output.write(prefix + MessageFormat.format(
-        skelet.getProperty(HTML_TABLE_ROW_PARTIJEN), speler.getPartijen()));
+    schrijfRegel(HTML_TABLE_ROW_PUNTEN,
+                 getPunten(pntn, decim),
+                 getDecimalen(pntn, decim));
+    schrijfRegel(HTML_TABLE_ROW_PARTIJEN, speler.getPartijen());
     var wpntn   = speler.getTieBreakScore().intValue();
     var wdecim  = Utilities.kwart(speler.getTieBreakScore());
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_ROW_SB),
-                               getPunten(wpntn, wdecim),
-                               getDecimalen(wpntn, wdecim)));
-    output.write(prefix + skelet.getProperty(HTML_TABLE_ROW_EIND));
+    schrijfRegel(HTML_TABLE_ROW_SB,
+                 getPunten(wpntn, wdecim),
+                 getDecimalen(wpntn, wdecim));
+    schrijfRegel(HTML_TABLE_ROW_EIND);
   }
 
-  private static void maakMatrixHead(long noSpelers) throws BestandException {
+  private void maakMatrixHead(long noSpelers) throws BestandException {
     String  enkeltekst;
-    output.write(prefix + skelet.getProperty(HTML_TABLE_HEAD_BEGIN_M));
+    schrijfRegel(HTML_TABLE_HEAD_BEGIN_M);
     if (competitie.isDubbel()) {
-      enkeltekst  = skelet.getProperty(HTML_TABLE_HEAD_DUBBEL);
+      enkeltekst  = HTML_TABLE_HEAD_DUBBEL;
     } else {
-      enkeltekst  = skelet.getProperty(HTML_TABLE_HEAD_ENKEL);
+      enkeltekst  = HTML_TABLE_HEAD_ENKEL;
     }
     for (var i = 0; i < noSpelers; i++) {
-      output.write(prefix + MessageFormat.format(enkeltekst, (i + 1)));
+      schrijfRegel(enkeltekst, (i + 1));
     }
     if (competitie.metBye()) {
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_BYE),
-                                 resourceBundle.getString(TAG_BYE)));
-    }
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_PUNTEN),
-                               resourceBundle.getString(TAG_PUNTEN)));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_PARTIJEN),
-                               resourceBundle.getString(TAG_PARTIJEN)));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_SB),
-                               resourceBundle.getString(TAG_SB)));
+      schrijfRegel(HTML_TABLE_HEAD_BYE, resourceBundle.getString(TAG_BYE));
+    }
+    schrijfRegel(HTML_TABLE_HEAD_PUNTEN, resourceBundle.getString(TAG_PUNTEN));
+    schrijfRegel(HTML_TABLE_HEAD_PARTIJEN,
+                 resourceBundle.getString(TAG_PARTIJEN));
+    schrijfRegel(HTML_TABLE_HEAD_SB, resourceBundle.getString(TAG_SB));
 
     if (competitie.isDubbel()) {
       maakMatrixHeadDubbel(noSpelers);
     }
   }
 
-  private static void maakMatrixHeadDubbel(long noSpelers)
+  private void maakMatrixHeadDubbel(long noSpelers)
       throws BestandException {
-    output.write(prefix + skelet.getProperty(HTML_TABLE_HEAD_EIND + 1));
-    output.write(prefix + skelet.getProperty(HTML_TABLE_HEAD_BEGIN + 2));
-    output.write(prefix + skelet.getProperty(HTML_TABLE_HEAD_BEGIN_M));
+    schrijfRegel(HTML_TABLE_HEAD_EIND + 1);
+    schrijfRegel(HTML_TABLE_HEAD_BEGIN + 2);
+    schrijfRegel(HTML_TABLE_HEAD_BEGIN_M);
     for (var i = 0; i < noSpelers; i++) {
-      output.write(prefix + MessageFormat.format(
-                                skelet.getProperty(HTML_TABLE_HEAD_DUBBEL2),
-                                resourceBundle.getString(TAG_WIT),
-                                resourceBundle.getString(TAG_ZWART)));
+      schrijfRegel(HTML_TABLE_HEAD_DUBBEL2,
+                   resourceBundle.getString(TAG_WIT),
+                   resourceBundle.getString(TAG_ZWART));
     }
     if (competitie.metBye()) {
-      output.write(prefix
-          + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_BYE),
-                                 ""));
-    }
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_PUNTEN),
-                               ""));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_PARTIJEN),
-                               ""));
-    output.write(prefix
-        + MessageFormat.format(skelet.getProperty(HTML_TABLE_HEAD_SB), ""));
+      schrijfRegel(HTML_TABLE_HEAD_BYE, "");
+    }
+    schrijfRegel(HTML_TABLE_HEAD_PUNTEN, "");
+    schrijfRegel(HTML_TABLE_HEAD_PARTIJEN, "");
+    schrijfRegel(HTML_TABLE_HEAD_SB, "");
   }
 
-  private static void maakUitslagen(Set<Partij> schema) {
-    skelet  = new Properties();
+  private void maakUitslagen(Set<Partij> schema) {
     try {
       output  =
           new TekstBestand.Builder()
@@ -777,14 +729,7 @@ public final class PgnToHtml extends Batchjob {
                                         + DoosUtils.getFileSep()
                                         + "uitslagen.html")
                           .setLezen(false).build();
-      skelet.load(classloader.getResourceAsStream("uitslagen.properties"));
-
-      if (skelet.containsKey(PROP_INDENT)) {
-        prefix  = DoosUtils.stringMetLengte("",
-            Integer.parseInt(skelet.getProperty(PROP_INDENT)));
-      } else {
-        prefix  = "";
-      }
+      laadSkelet("uitslagen.properties");
 
       genereerUitslagtabel(schema);
     } catch (BestandException | IOException e) {
@@ -800,23 +745,27 @@ public final class PgnToHtml extends Batchjob {
     }
   }
 
-  private static void schrijfUitvoer(String parameter)
+  private void schrijfRegel(String sleutel, Object... params)
       throws BestandException {
-    var k = 1;
-    while (skelet.containsKey(parameter + k)) {
-      output.write(prefix + skelet.getProperty(parameter + k));
-      k++;
+    schrijfRegel(skelet.getSjabloon(sleutel), params);
+  }
+
+  private void schrijfRegel(Skelet.Sjabloon sjabloon, Object... params)
+      throws BestandException {
+    regel.setLength(0);
+    regel.append(prefix);
+    if (params.length == 0) {
+      regel.append(sjabloon.getWaarde());
+    } else {
+      sjabloon.schrijf(regel, params);
     }
+    output.write(regel.toString());
   }
 
-  private static void schrijfUitvoer(String parameter, Object... params)
+  private void schrijfUitvoer(String parameter, Object... params)
       throws BestandException {
-    var k = 1;
-    while (skelet.containsKey(parameter + k)) {
-      output.write(
-          prefix + MessageFormat.format(skelet.getProperty(parameter + k),
-                                        params));
-      k++;
+    for (var sjabloon : skelet.getReeks(parameter)) {
+      schrijfRegel(sjabloon, params);
     }
   }
 
@@ -829,7 +778,7 @@ public final class PgnToHtml extends Batchjob {
     return deel[1].trim() + " " + deel[0].trim();
   }
 
-  private static void verwerkPartij(Partij partij, Boolean metInhaaldatum)
+  private void verwerkPartij(Partij partij, Boolean metInhaaldatum)
       throws BestandException {
     var klasse        =
         (partij.isRanked()
@@ -27,24 +27,20 @@ import eu.debooy.doosutils.DoosConstants;
 import eu.debooy.doosutils.DoosUtils;
 import eu.debooy.doosutils.MarcoBanner;
 import eu.debooy.doosutils.ParameterBundle;
-import eu.debooy.doosutils.access.TekstBestand;
+import eu.debooy.doosutils.access.BestandConstants;
 import eu.debooy.doosutils.exception.BestandException;
 import java.io.IOException;
-import java.io.Serializable;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.ResourceBundle;
-import java.util.TreeMap;
-import org.codehaus.jackson.map.ObjectMapper;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 
 /**
@@ -55,12 +51,20 @@ public final class PgnToJson extends Batchjob {
       ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
                                Locale.getDefault());
 
+  protected static final String FORMAAT_JSON    = "json";
+  protected static final String FORMAAT_NDJSON  = "ndjson";
+  protected static final String FORMAAT_SMILE   = "smile";
+
+  protected static final String EXT_NDJSON  = "ndjson";
+  protected static final String EXT_SMILE   = "smile";
+
+  private static final int      BATCH       = 256;
   private static final String   DEFSTUKKEN  =
       CaissaConstants.Stukcodes.valueOf("EN").getStukcodes();
-  private static final Integer  EXTRA       = -2;
-  private static final Integer  OUT         = -1;
-  private static final Integer  PROMOTIE    = -3;
+  private static final Pattern  ZETNUMMER   = Pattern.compile("^\\d*\\.");
 
+  private static  PartijCache cache;
+  private static  boolean compact       = false;
   private static  String  defaultEco;
   private static  boolean metFen        = false;
   private static  boolean metTrajecten  = false;
@@ -71,35 +75,20 @@ public final class PgnToJson extends Batchjob {
 
   protected PgnToJson() {}
 
-  public static class IdComparator
-  implements Comparator<String>, Serializable {
-    private static final  long  serialVersionUID  = 1L;
-
-    private static final  Map<String, Integer> STUKKEN  = new HashMap<>();
-    static {
-      STUKKEN.put("q", 11);
-      STUKKEN.put("r", 12);
-      STUKKEN.put("b", 13);
-      STUKKEN.put("n", 14);
-      STUKKEN.put("k", 15);
-      STUKKEN.put("p", 16);
-      STUKKEN.put("Q", 21);
-      STUKKEN.put("R", 22);
-      STUKKEN.put("B", 23);
-      STUKKEN.put("N", 24);
-      STUKKEN.put("K", 25);
-      STUKKEN.put("P", 26);
-    }
-
-    @Override
-    public int compare(String id1, String id2) {
-      var string1 = STUKKEN.get(id1.substring(0, 1)) + id1.substring(2)
-                     + id1.substring(1, 2);
-      var string2 = STUKKEN.get(id2.substring(0, 1)) + id2.substring(2)
-                     + id2.substring(1, 2);
-
-      return string1.compareTo(string2);
+  private static final class Resultaat {
+    private Exception           fout;
+    private Map<String, Object> partij;
+  }
+
+  private static Resultaat converteer(PGN pgn, int partijnr) {
+    var resultaat = new Resultaat();
+    try {
+      resultaat.partij  = zetOm(pgn, partijnr);
+    } catch (FenException | PgnException e) {
+      resultaat.fout    = e;
     }
+
+    return resultaat;
   }
 
   public static void execute(String[] args) {
@@ -108,7 +97,7 @@ public final class PgnToJson extends Batchjob {
                            .setArgs(args)
                            .setBanner(new MarcoBanner())
                            .setBaseName(CaissaTools.TOOL_PGNTOJSON)
-                           .setValidator(new BestandDefaultParameters())
+                           .setValidator(new PgnToJsonParameters())
                            .build());
 
     if (!paramBundle.isValid()) {
@@ -116,7 +105,16 @@ public final class PgnToJson extends Batchjob {
     }
 
     var includeLege = paramBundle.getBoolean(CaissaTools.PAR_INCLUDELEGE);
+    var perBestand  = 0;
+    var threads     =
+        CaissaTools.getThreads(paramBundle,
+                               Runtime.getRuntime().availableProcessors());
+
+    if (paramBundle.containsArgument(CaissaTools.PAR_PERBESTAND)) {
+      perBestand  = paramBundle.getInteger(CaissaTools.PAR_PERBESTAND);
+    }
 
+    compact       = paramBundle.getBoolean(CaissaTools.PAR_COMPACT);
     defaultEco    = paramBundle.getString(CaissaTools.PAR_DEFAULTECO);
     metFen        = paramBundle.getBoolean(CaissaTools.PAR_METFEN);
     metTrajecten  = paramBundle.getBoolean(CaissaTools.PAR_METTRAJECTEN);
@@ -136,23 +134,48 @@ public final class PgnToJson extends Batchjob {
                        .getStukcodes();
 
     var invoer      = paramBundle.getBestand(CaissaTools.PAR_BESTAND);
-    var mapper      = new ObjectMapper();
-    List<Map<String, Object>>
-        lijst       = new ArrayList<>();
-    var uitvoer     = paramBundle.getBestand(CaissaTools.PAR_JSON);
-
-    Collection<PGN> partijen  = null;
-    var             partijnr  = 0;
-    try (var output  =
-          new TekstBestand.Builder()
-                          .setBestand(uitvoer)
-                          .setLezen(false).build()) {
-      partijen =
-          CaissaUtils.laadPgnBestand(invoer);
-
-      partijnr  = verwerkPartijen(partijen, includeLege, lijst);
-
-      output.write(mapper.writeValueAsString(lijst));
+    var formaat     = paramBundle.getString(CaissaTools.PAR_FORMAAT);
+    var uitvoer     = paramBundle.getBestand(CaissaTools.PAR_JSON,
+                                             getExtensie(formaat));
+
+    cache = null;
+    if (paramBundle.containsArgument(CaissaTools.PAR_CACHE)
+        && paramBundle.getInteger(CaissaTools.PAR_CACHE) > 0) {
+      try {
+        cache = PartijCache.laad(PartijCache.getCachenaam(invoer),
+                                 paramBundle.getInteger(CaissaTools.PAR_CACHE),
+                                 getOpties());
+      } catch (IOException e) {
+        DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      }
+    }
+
+    // Elke partij wordt direct naar het bestand geschreven zodat er nooit
+    // meer dan een partij (of een batch) in het geheugen zit.
+    var partijen  = 0;
+    var partijnr  = 0;
+    try {
+      var pgnIndex  = getPgnIndex(invoer);
+      if (null != pgnIndex
+          && threads > 1) {
+        try (var json = new JsonUitvoer(uitvoer, formaat, perBestand)) {
+          partijnr  = verwerkPartijen(pgnIndex, includeLege, json, threads);
+        }
+        partijen  = pgnIndex.size();
+      } else {
+        try (var pgnLezer  = getPgnLezer(invoer, pgnIndex);
+             var json      = new JsonUitvoer(uitvoer, formaat, perBestand)) {
+          if (threads < 2) {
+            partijnr  = verwerkPartijen(pgnLezer, includeLege, json);
+          } else {
+            partijnr  = verwerkPartijen(pgnLezer, includeLege, json, threads);
+          }
+          partijen  = pgnLezer.getAantal();
+        }
+      }
+      if (null != cache) {
+        cache.bewaar();
+      }
     } catch (BestandException | IOException | PgnException e) {
       DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
@@ -160,11 +183,9 @@ public final class PgnToJson extends Batchjob {
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_BESTAND),
                              invoer));
-    if (null != partijen) {
-      DoosUtils.naarScherm(
+    DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
-                             partijen.size()));
-    }
+                             partijen));
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_UITVOER),
                              uitvoer));
@@ -176,106 +197,172 @@ public final class PgnToJson extends Batchjob {
     DoosUtils.naarScherm();
   }
 
-  protected static Integer getCoordinaat(Integer positie) {
-    return (((positie%10) - 1) * 10) + (9 - (positie/10));
+  // Het uitvoerbestand krijgt de extensie van het formaat.
+  protected static String getExtensie(String formaat) {
+    if (FORMAAT_NDJSON.equalsIgnoreCase(formaat)) {
+      return EXT_NDJSON;
+    }
+    if (FORMAAT_SMILE.equalsIgnoreCase(formaat)) {
+      return EXT_SMILE;
+    }
+
+    return BestandConstants.EXT_JSON;
+  }
+
+  // Alle opties die de inhoud van een omgezette partij bepalen.
+  private static String getOpties() {
+    return String.join("|", String.valueOf(compact), String.valueOf(metFen),
+                       String.valueOf(metPgnviewer),
+                       String.valueOf(metTrajecten), String.valueOf(voorNico),
+                       vanStukken, naarStukken,
+                       DoosUtils.nullToEmpty(defaultEco));
   }
 
-  protected static String getKey(Map<String, Integer> ids, Integer veld) {
-    for (Entry<String, Integer> id : ids.entrySet()) {
-      if (id.getValue().equals(veld)) {
-        return id.getKey();
+  // De index op het PGN bestand met --index en null zonder.
+  private static PgnIndex getPgnIndex(String invoer) throws BestandException {
+    if (Boolean.TRUE.equals(paramBundle.getBoolean(CaissaTools.PAR_INDEX))) {
+      var pgnIndex  = PgnIndex.laad(invoer);
+      if (pgnIndex.size() > 0) {
+        return pgnIndex;
       }
     }
 
     return null;
   }
 
-  protected static Integer getPositie(Integer coordinaat) {
-    return ((9 - (coordinaat%10)) * 10) + (coordinaat/10) + 1;
+  private static PgnLezer getPgnLezer(String invoer, PgnIndex pgnIndex)
+      throws BestandException {
+    if (null != pgnIndex) {
+      return pgnIndex.getLezer(0, pgnIndex.size());
+    }
+
+    return new PgnLezer(invoer);
   }
 
-  private static void setFenbord(int[] bord, Map<String, Integer> ids) {
-    for (var i = 9; i > 1; i--) {
-      for (var j = 1; j < 9; j++) {
-        Integer positie = i*10+j;
-        if (bord[positie] != 0) {
-          String  id  = "" + CaissaUtils.getStuk(bord[positie])
-                          + CaissaUtils.internToExtern(positie);
-          ids.put(id, getCoordinaat(positie));
-        }
+  // De gewijzigde velden in ChessTheatre codering gevolgd door de rochades,
+  // het en passant veld en de halve zetten van de FEN. De kleur aan zet en
+  // het zetnummer worden door de lezer zelf bijgehouden.
+  protected static String getPositieDelta(int[] van, int[] naar, String fen) {
+    var delta   = new StringBuilder();
+    var velden  = fen.split(" ");
+    voegChessTheatreZetToe(delta, van, naar);
+    delta.append(' ').append(velden[2])
+         .append(' ').append(velden[3])
+         .append(' ').append(velden[4]);
+
+    return delta.toString();
+  }
+
+  // Leest de partijen van tot tot in stukken tegelijk. Elk stuk heeft een
+  // eigen lezer op het PGN bestand.
+  private static List<PGN> leesBatch(ForkJoinPool pool, PgnIndex pgnIndex,
+                                     int van, int tot, int stukken,
+                                     Boolean includeLege)
+      throws BestandException, PgnException {
+    var gelezen = new PGN[tot - van];
+    var fouten  = new Exception[stukken];
+    var grootte = (tot - van + stukken - 1) / stukken;
+
+    try {
+      pool.submit(() ->
+          IntStream.range(0, stukken)
+                   .parallel()
+                   .forEach(i -> fouten[i] =
+                       leesStuk(pgnIndex, van + i * grootte,
+                                Math.min(van + (i + 1) * grootte, tot),
+                                gelezen, van)))
+          .get();
+    } catch (ExecutionException e) {
+      throw new BestandException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BestandException(e);
+    }
+
+    for (var fout : fouten) {
+      if (fout instanceof PgnException) {
+        throw (PgnException) fout;
+      }
+      if (fout instanceof BestandException) {
+        throw (BestandException) fout;
       }
     }
-  }
 
-  private static String vertaal(String zetten,
-                                String vanStukken, String naarStukken) {
-    if (!vanStukken.equals(naarStukken)) {
-      try {
-        return CaissaUtils.vertaalStukken(zetten, vanStukken, naarStukken);
-      } catch (PgnException e) {
-        DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+    List<PGN> batch = new ArrayList<>(gelezen.length);
+    for (var pgn : gelezen) {
+      if (null != pgn
+          && (Boolean.TRUE.equals(includeLege)
+              || DoosUtils.isNotBlankOrNull(pgn.getZuivereZetten()))) {
+        batch.add(pgn);
       }
     }
 
-    return zetten;
+    return batch;
   }
 
-  private static void verwerkBord(int[] bord, Map<String, Integer> ids,
-                                 Map<String, String> verplaatst,
-                                 Map<String, List<Integer>> trajecten) {
-    for (var i = 9; i > 1; i--) {
-      for (var j = 1; j < 9; j++) {
-        var positie = i*10+j;
-        if (bord[positie] == 0) {
-          continue;
-        }
+  private static Exception leesStuk(PgnIndex pgnIndex, int begin, int einde,
+                                    PGN[] gelezen, int van) {
+    if (begin >= einde) {
+      return null;
+    }
 
-        if (DoosUtils.isBlankOrNull(getKey(ids, getCoordinaat(positie)))) {
-          verwerkPositie(positie, bord, ids, verplaatst, trajecten);
-        }
+    try (var pgnLezer = pgnIndex.getLezer(begin, einde)) {
+      var i = begin;
+      while (i < einde
+             && pgnLezer.hasNext()) {
+        gelezen[i - van]  = pgnLezer.next();
+        i++;
       }
+    } catch (BestandException | PgnException e) {
+      return e;
     }
+
+    return null;
   }
 
-  private static void verwerkId(Entry<String, Integer> id, int[] bord,
-                                Map<String, Integer> ids,
-                                Map<String, String> verplaatst) {
-    if (id.getValue() >= 0
-        && id.getValue() < 100) {
-      var positie = getPositie(id.getValue()%100);
-      var stuk  = CaissaUtils.zoekStuk(id.getKey().charAt(0));
-      if (bord[positie] != stuk) {
-        if (bord[positie] == 0) {
-          verplaatst.put(id.getKey().substring(0, 1), id.getKey());
-        }
-        ids.put(id.getKey(), OUT);
-      }
-    } else {
-      if (Objects.equals(id.getValue(), PROMOTIE)
-          || (id.getValue() >= 100 && id.getValue() < 200)) {
-        ids.put(id.getKey(), OUT);
+  // Een fout in de pool breekt de verwerking af. Anders zou de uitvoer
+  // stil een hele batch partijen missen.
+  private static void verwerkBatch(ForkJoinPool pool, List<PGN> batch,
+                                   int vorige, JsonUitvoer json)
+      throws BestandException, IOException, PgnException {
+    var resultaten  = new Resultaat[batch.size()];
+
+    try {
+      pool.submit(() ->
+          IntStream.range(0, batch.size())
+                   .parallel()
+                   .forEach(i -> resultaten[i] =
+                                    converteer(batch.get(i), vorige + i + 1)))
+          .get();
+    } catch (ExecutionException e) {
+      throw new BestandException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BestandException(e);
+    }
+
+    for (var i = 0; i < resultaten.length; i++) {
+      var resultaat = resultaten[i];
+      if (resultaat.fout instanceof PgnException) {
+        throw (PgnException) resultaat.fout;
       }
-      if (id.getValue() >= 200) {
-        ids.put(id.getKey(), id.getValue() - 200);
+      if (null == resultaat.fout) {
+        json.schrijf(resultaat.partij);
+      } else {
+        DoosUtils.foutNaarScherm(String.format("Partij %d %s",
+                                               vorige + i + 1,
+                                               resultaat.fout
+                                                 .getLocalizedMessage()));
       }
     }
   }
 
-  private static void verwerkIds(int[] bord, Map<String, Integer> ids,
-                                 Map<String, String> verplaatst) {
-    ids.entrySet().forEach(id -> verwerkId(id, bord, ids, verplaatst));
-  }
-
   private static Map<String, Object> verwerkPartij(PGN pgn, int partijnr)
       throws PgnException, FenException {
-    FEN fen;
-
-    Map<String, Integer>        ids       =
-        new TreeMap<>(new IdComparator());
-    Map<String, Object>         partij    =
-        new LinkedHashMap<>();
-    Map<String, List<Integer>>  trajecten =
-        new LinkedHashMap<>();
+    FEN           fen;
+    TrajectVolger volger  = null;
+
+    Map<String, Object> partij  = new LinkedHashMap<>();
     if (pgn.hasTag(PGN.PGNTAG_FEN)) {
       fen = new FEN(pgn.getTag(PGN.PGNTAG_FEN));
     } else {
@@ -287,14 +374,9 @@ public final class PgnToJson extends Batchjob {
       pgn.addTag(PGN.PGNTAG_ECO, defaultEco);
     }
 
-    var bord  = fen.getBord();
-    setFenbord(bord, ids);
-
-    ids.entrySet().forEach(id -> {
-      List<Integer> traject = new ArrayList<>();
-      traject.add(id.getValue());
-      trajecten.put(id.getKey(), traject);
-    });
+    if (metTrajecten) {
+      volger  = new TrajectVolger(fen.getBord(), voorNico);
+    }
 
     partij.put("_gamekey", "" + partijnr);
     pgn.getTags().entrySet().forEach(tag -> partij.put(tag.getKey(),
@@ -302,27 +384,28 @@ public final class PgnToJson extends Batchjob {
     partij.put("_moves", pgn.getZetten());
     var zuivereZetten = pgn.getZuivereZetten();
     if (metPgnviewer) {
-      partij.put("_pgnviewer",
-                 CaissaUtils.pgnZettenToChessTheatre(zuivereZetten));
+      // Wordt ingevuld tijdens het naspelen van de zetten.
+      partij.put("_pgnviewer", "");
     }
 
     if (DoosUtils.isNotBlankOrNull(zuivereZetten)) {
-      verwerkZuivereZetten(partij, zuivereZetten, fen, ids, trajecten);
+      verwerkZuivereZetten(partij, zuivereZetten, fen, volger);
     }
 
     return partij;
   }
 
-  private static int verwerkPartijen(Collection<PGN> partijen,
+  private static int verwerkPartijen(PgnLezer pgnLezer,
                                      Boolean includeLege,
-                                     List<Map<String, Object>> lijst)
-      throws PgnException {
+                                     JsonUitvoer json)
+      throws BestandException, IOException, PgnException {
     var partijnr  = 1;
-    for (var pgn: partijen) {
+    while (pgnLezer.hasNext()) {
+      var pgn = pgnLezer.next();
       if (Boolean.TRUE.equals(includeLege)
           || DoosUtils.isNotBlankOrNull(pgn.getZuivereZetten())) {
         try {
-          lijst.add(verwerkPartij(pgn, partijnr));
+          json.schrijf(zetOm(pgn, partijnr));
         } catch (FenException e) {
           DoosUtils.foutNaarScherm(String.format("Partij %d %s",
                                                  partijnr,
@@ -335,80 +418,188 @@ public final class PgnToJson extends Batchjob {
     return partijnr - 1;
   }
 
-  private static void verwerkPositie(int positie, int[] bord,
-                                     Map<String, Integer> ids,
-                                     Map<String, String> verplaatst,
-                                     Map<String, List<Integer>> trajecten) {
-    var stuk  = String.valueOf(CaissaUtils.getStuk(bord[positie]));
-    if (verplaatst.containsKey(stuk)) {
-      if (ids.get(verplaatst.get(stuk)).equals(OUT)) {
-        ids.put(verplaatst.get(stuk), getCoordinaat(positie));
-      }
-    } else {
-      var plies     = trajecten.values().iterator().next().size();
-      var promotie  = "";
-      if (verplaatst.containsKey("P")) {
-        promotie    = verplaatst.get("P");
-      }
-      if (verplaatst.containsKey("p")) {
-        promotie    = verplaatst.get("P");
-      }
-      if (voorNico) {
-        ids.put(promotie, 100 + getCoordinaat(positie));
-      } else {
-        ids.put(promotie, PROMOTIE);
-      }
-      var id        = stuk + promotie.substring(1);
-      List<Integer> traject = new ArrayList<>();
-      while (plies > 0) {
-        traject.add(EXTRA);
-        plies--;
+  // Zet de partijen in batches om op een fork-join pool. De partijnummers
+  // worden bij het lezen toegekend en de resultaten in volgorde toegevoegd
+  // zodat de uitvoer gelijk is aan die van de sequentiële verwerking.
+  private static int verwerkPartijen(PgnLezer pgnLezer,
+                                     Boolean includeLege,
+                                     JsonUitvoer json,
+                                     int threads)
+      throws BestandException, IOException, PgnException {
+    var       pool      = new ForkJoinPool(threads);
+    List<PGN> batch     = new ArrayList<>(threads * BATCH);
+    var       partijnr  = 0;
+    try {
+      while (pgnLezer.hasNext()) {
+        var pgn = pgnLezer.next();
+        if (Boolean.TRUE.equals(includeLege)
+            || DoosUtils.isNotBlankOrNull(pgn.getZuivereZetten())) {
+          batch.add(pgn);
+        }
+        if (batch.size() == threads * BATCH) {
+          verwerkBatch(pool, batch, partijnr, json);
+          partijnr  += batch.size();
+          batch.clear();
+        }
       }
-      ids.put(id, (voorNico ? 200 : 0) + getCoordinaat(positie));
+      verwerkBatch(pool, batch, partijnr, json);
+      partijnr  += batch.size();
+    } finally {
+      pool.shutdown();
+    }
 
-      trajecten.put(id, traject);
+    return partijnr;
+  }
+
+  // Leest en zet de partijen in batches om op een fork-join pool. Elke
+  // batch wordt met de index in stukken tegelijk gelezen in plaats van
+  // partij per partij. De nummering en volgorde zijn die van de
+  // sequentiële verwerking.
+  private static int verwerkPartijen(PgnIndex pgnIndex,
+                                     Boolean includeLege,
+                                     JsonUitvoer json,
+                                     int threads)
+      throws BestandException, IOException, PgnException {
+    var pool      = new ForkJoinPool(threads);
+    var partijnr  = 0;
+    try {
+      for (var van = 0; van < pgnIndex.size(); van += threads * BATCH) {
+        var tot   = Math.min(van + threads * BATCH, pgnIndex.size());
+        var batch = leesBatch(pool, pgnIndex, van, tot, threads, includeLege);
+        verwerkBatch(pool, batch, partijnr, json);
+        partijnr  += batch.size();
+      }
+    } finally {
+      pool.shutdown();
     }
+
+    return partijnr;
   }
 
+  // Speelt de partij een keer na en vult alle gevraagde uitvoer (notatie,
+  // FEN, trajecten en pgnviewer) vanuit diezelfde doorloop.
   private static void verwerkZuivereZetten(Map<String, Object> partij,
                                            String zuivereZetten, FEN fen,
-                                           Map<String, Integer> ids,
-                                           Map<String, List<Integer>> trajecten)
+                                           TrajectVolger volger)
       throws PgnException {
     var                 zetten      =
-        vertaal(zuivereZetten, vanStukken, naarStukken).split(" ");
+        StukVertaler.getVertaler(vanStukken, naarStukken)
+                    .vertaal(zuivereZetten).split(" ");
     Map<String, Object> jsonZetten  = new LinkedHashMap<>();
+    var                 naspelen    =
+        metFen || metPgnviewer || null != volger;
+    var                 pgnviewer   = new StringBuilder();
+    List<String>        notaties    = new ArrayList<>(zetten.length);
+    List<String>        posities    = new ArrayList<>(zetten.length);
+    String[]            speelZetten = null;
+    int[]               vorigBord   = null;
+
+    if (naspelen) {
+      speelZetten = StukVertaler.getVertaler(vanStukken, DEFSTUKKEN)
+                                .vertaal(zuivereZetten).split(" ");
+    }
+    if (metPgnviewer
+        || (compact && metFen)) {
+      vorigBord   = fen.getBord().clone();
+    }
+    if (compact && metFen) {
+      partij.put("fen", fen.getFen());
+    }
+
     for (var i = 0; i < zetten.length; i++) {
       Map<String, String> jsonZet   = new LinkedHashMap<>();
-      var                 pgnZet    = zetten[i].replaceAll("^\\d*\\.", "");
-      jsonZet.put("notatie", pgnZet);
-      if (metFen || metTrajecten) {
-        var zet = CaissaUtils.vindZet(fen, vertaal(pgnZet, naarStukken,
-                                                   DEFSTUKKEN));
+      var                 notatie   =
+          ZETNUMMER.matcher(zetten[i]).replaceFirst("");
+      if (compact) {
+        notaties.add(notatie);
+      } else {
+        jsonZet.put("notatie", notatie);
+      }
+      if (naspelen) {
+        var zet = CaissaUtils.vindZet(fen,
+                                      ZETNUMMER.matcher(speelZetten[i])
+                                               .replaceFirst(""));
         fen.doeZet(zet);
+        var bord  = fen.getBord();
+        if (metPgnviewer) {
+          if (i > 0) {
+            pgnviewer.append(' ');
+          }
+          voegChessTheatreZetToe(pgnviewer, vorigBord, bord);
+        }
+        if (metFen) {
+          if (compact) {
+            posities.add(getPositieDelta(vorigBord, bord, fen.getFen()));
+          } else {
+            jsonZet.put("fen", fen.getFen());
+          }
+        }
+        if (null != vorigBord) {
+          System.arraycopy(bord, 0, vorigBord, 0, vorigBord.length);
+        }
+        if (null != volger) {
+          volger.verwerk(bord);
+        }
       }
-      if (metFen) {
-        jsonZet.put("fen", fen.getFen());
+      if (!compact) {
+        jsonZetten.put(Integer.toString(i), jsonZet);
       }
-      if (metTrajecten) {
-        wijzigTrajecten(fen, ids, trajecten);
+    }
+    if (metPgnviewer) {
+      partij.put("_pgnviewer", pgnviewer.toString());
+    }
+    if (null != volger) {
+      partij.put("trajecten", volger.getTrajecten());
+    }
+    if (compact) {
+      partij.put("moves", notaties);
+      if (metFen) {
+        partij.put("posities", posities);
       }
-      jsonZetten.put(Integer.toString(i), jsonZet);
+    } else {
+      partij.put("moves", jsonZetten);
     }
-    if (metTrajecten) {
-      partij.put("trajecten", trajecten);
+  }
+
+  // Codeert een zet zoals ChessTheatre: het aantal ongewijzigde velden
+  // (van a8 tot h1) gevolgd door het nieuwe stuk of een '.' voor een leeg
+  // veld.
+  protected static void voegChessTheatreZetToe(StringBuilder uitvoer,
+                                               int[] van, int[] naar) {
+    var ongewijzigd = 0;
+    for (var i = 9; i > 1; i--) {
+      for (var j = 1; j < 9; j++) {
+        var positie = i*10+j;
+        if (van[positie] == naar[positie]) {
+          ongewijzigd++;
+          continue;
+        }
+        if (ongewijzigd > 0) {
+          uitvoer.append(ongewijzigd);
+          ongewijzigd = 0;
+        }
+        if (naar[positie] == 0) {
+          uitvoer.append('.');
+        } else {
+          uitvoer.append(CaissaUtils.getStuk(naar[positie]));
+        }
+      }
     }
-    partij.put("moves", jsonZetten);
   }
 
-  private static void wijzigTrajecten(FEN fen, Map<String, Integer> ids,
-                                      Map<String, List<Integer>> trajecten) {
-    var                 bord        = fen.getBord();
-    Map<String, String> verplaatst  = new HashMap<>();
+  private static Map<String, Object> zetOm(PGN pgn, int partijnr)
+      throws FenException, PgnException {
+    if (null == cache) {
+      return verwerkPartij(pgn, partijnr);
+    }
 
-    verwerkIds(bord, ids, verplaatst);
-    verwerkBord(bord, ids, verplaatst, trajecten);
+    var sleutel = cache.getSleutel(pgn);
+    var partij  = cache.get(sleutel, partijnr);
+    if (null == partij) {
+      partij    = verwerkPartij(pgn, partijnr);
+      cache.put(sleutel, partij);
+    }
 
-    trajecten.keySet().forEach(stuk -> trajecten.get(stuk).add(ids.get(stuk)));
+    return partij;
   }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.DoosConstants;
+import eu.debooy.doosutils.IParameterBundleValidator;
+import eu.debooy.doosutils.Parameter;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class PgnToJsonParameters implements IParameterBundleValidator {
+  private static final  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
+                               Locale.getDefault());
+
+  protected static final  List<String>  FORMATEN  =
+      Arrays.asList(PgnToJson.FORMAAT_JSON, PgnToJson.FORMAAT_NDJSON,
+                    PgnToJson.FORMAAT_SMILE);
+
+  @Override
+  public List<String> valideer(Map<String, Parameter> params,
+                               List<String> argumenten) {
+    var validator = new BestandDefaultParameters();
+    var fouten    = validator.valideer(params, argumenten);
+
+    valideerFormaat(params, fouten);
+
+    return fouten;
+  }
+
+  private void valideerFormaat(Map<String, Parameter> params,
+                               List<String> fouten) {
+    var formaat = params.get(CaissaTools.PAR_FORMAAT).getWaarde().toString();
+
+    if (!FORMATEN.contains(formaat.toLowerCase())) {
+      fouten.add(
+          MessageFormat.format(resourceBundle.getString(CaissaTools.ERR_FORMAAT),
+                               formaat));
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.DoosUtils;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Een HTML skelet (.properties) van PgnToHtml. Het skelet wordt eenmalig
+ * gelezen en elke waarde wordt opgesplitst in vaste tekst en de plaatsen van
+ * de parameters ({0}, {1}, ...). Schrijven is dan enkel aan elkaar plakken in
+ * een StringBuilder die hergebruikt kan worden. De uitkomst is die van
+ * MessageFormat. Een waarde met een opgemaakte parameter (bv. {0,number})
+ * gaat nog via MessageFormat.
+ *
+ * Een reeks is de waarden van sleutel + 1, sleutel + 2, ... tot er een
+ * ontbreekt.
+ *
+ * Skeletten zijn onveranderlijk en worden gedeeld tussen threads.
+ *
+ * @author Marco de Booij
+ */
+public final class Skelet {
+  public static final String  PROP_INDENT = "indent";
+
+  private static final  Sjabloon[]  GEEN  = new Sjabloon[0];
+
+  private static final  Map<String, Skelet> skeletten =
+      new ConcurrentHashMap<>();
+
+  private final String                  prefix;
+  private final Map<String, Sjabloon[]> reeksen   = new HashMap<>();
+  private final Map<String, Sjabloon>   sjablonen = new HashMap<>();
+
+  // Een waarde van het skelet in stukken vaste tekst en parameters.
+  public static final class Sjabloon {
+    private final boolean   opmaak;
+    private final String[]  teksten;
+    private final int[]     parameters;
+    private final String    waarde;
+
+    private Sjabloon(String patroon) {
+      waarde  = patroon;
+      List<String>  stukken = new ArrayList<>();
+      List<Integer> nummers = new ArrayList<>();
+      var           tekst   = new StringBuilder();
+      var           quote   = false;
+      var           i       = 0;
+      var           format  = false;
+      while (i < patroon.length()) {
+        var teken = patroon.charAt(i);
+        if (teken == '\'') {
+          if (i + 1 < patroon.length()
+              && patroon.charAt(i + 1) == '\'') {
+            tekst.append('\'');
+            i++;
+          } else {
+            quote = !quote;
+          }
+        } else if (teken == '{' && !quote) {
+          var einde   = patroon.indexOf('}', i);
+          var nummer  = einde < 0 ? "" : patroon.substring(i + 1, einde);
+          if (!nummer.matches("\\d+")) {
+            format  = true;
+            break;
+          }
+          stukken.add(tekst.toString());
+          nummers.add(Integer.parseInt(nummer));
+          tekst.setLength(0);
+          i = einde;
+        } else {
+          tekst.append(teken);
+        }
+        i++;
+      }
+      stukken.add(tekst.toString());
+
+      opmaak      = format;
+      teksten     = stukken.toArray(new String[0]);
+      parameters  = nummers.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // De waarde zoals ze in het skelet staat.
+    public String getWaarde() {
+      return waarde;
+    }
+
+    // Voegt de waarde met de parameters toe aan de buffer.
+    public StringBuilder schrijf(StringBuilder buffer, Object... params) {
+      if (opmaak) {
+        return buffer.append(MessageFormat.format(waarde, params));
+      }
+
+      buffer.append(teksten[0]);
+      for (var i = 0; i < parameters.length; i++) {
+        if (parameters[i] < params.length) {
+          schrijfParameter(buffer, params[parameters[i]]);
+        } else {
+          buffer.append('{').append(parameters[i]).append('}');
+        }
+        buffer.append(teksten[i + 1]);
+      }
+
+      return buffer;
+    }
+
+    private static void schrijfParameter(StringBuilder buffer, Object waarde) {
+      if (waarde instanceof String) {
+        buffer.append((String) waarde);
+      } else if ((waarde instanceof Integer
+                  || waarde instanceof Long)
+                 && Math.abs(((Number) waarde).longValue()) < 1000) {
+        buffer.append(((Number) waarde).longValue());
+      } else if (waarde instanceof Number) {
+        buffer.append(NumberFormat.getInstance().format(waarde));
+      } else {
+        buffer.append(waarde);
+      }
+    }
+  }
+
+  private Skelet(Properties properties) {
+    if (properties.containsKey(PROP_INDENT)) {
+      prefix  = DoosUtils.stringMetLengte("",
+          Integer.parseInt(properties.getProperty(PROP_INDENT)));
+    } else {
+      prefix  = "";
+    }
+
+    for (var sleutel : properties.stringPropertyNames()) {
+      sjablonen.put(sleutel, new Sjabloon(properties.getProperty(sleutel)));
+    }
+    for (var sleutel : sjablonen.keySet()) {
+      if (!sleutel.endsWith(".1")) {
+        continue;
+      }
+      var            basis = sleutel.substring(0, sleutel.length() - 1);
+      List<Sjabloon> reeks = new ArrayList<>();
+      while (sjablonen.containsKey(basis + (reeks.size() + 1))) {
+        reeks.add(sjablonen.get(basis + (reeks.size() + 1)));
+      }
+      reeksen.put(basis, reeks.toArray(GEEN));
+    }
+  }
+
+  public String getPrefix() {
+    return prefix;
+  }
+
+  // De reeks sleutel + 1, sleutel + 2, ... (leeg als er geen is).
+  public Sjabloon[] getReeks(String sleutel) {
+    return reeksen.getOrDefault(sleutel, GEEN);
+  }
+
+  public Sjabloon getSjabloon(String sleutel) {
+    return sjablonen.get(sleutel);
+  }
+
+  // Het skelet uit de resource. Elke resource wordt maar één keer gelezen.
+  public static Skelet laad(String resource) throws IOException {
+    var skelet  = skeletten.get(resource);
+    if (null != skelet) {
+      return skelet;
+    }
+
+    var properties  = new Properties();
+    try (var invoer = Skelet.class.getClassLoader()
+                                  .getResourceAsStream(resource)) {
+      if (null == invoer) {
+        throw new IOException(resource);
+      }
+      properties.load(invoer);
+    }
+    skelet  = new Skelet(properties);
+    var vorige  = skeletten.putIfAbsent(resource, skelet);
+
+    return null == vorige ? skelet : vorige;
+  }
+}
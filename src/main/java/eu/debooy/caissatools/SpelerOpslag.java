@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Binaire opslag van de spelers van ELOBerekenaar naast het spelerBestand.
+ * Het bestand wordt in het geheugen gemapt en bestaat uit:
+ *
+ *   - een kop met het aantal spelers, de capaciteit en de lengte van de
+ *     namentabel;
+ *   - per speler een record van vaste lengte. Record i is van speler i
+ *     (het volgnummer in ELOMotor). Het bevat de plaats van de naam in de
+ *     namentabel en alle gegevens als int (datums als yyyymmdd);
+ *   - de namentabel met de namen in UTF-8.
+ *
+ * Enkel de records van gewijzigde spelers worden herschreven en de namen van
+ * nieuwe spelers worden achteraan de namentabel toegevoegd. Pas als de
+ * capaciteit te klein is wordt het bestand opnieuw aangemaakt. Dat gebeurt
+ * altijd in een kopie die daarna het bestand vervangt zodat een onderbroken
+ * run de opslag niet half bijgewerkt achterlaat.
+ *
+ * Een speler die enkel in afgewezen partijen voorkwam staat wel in de opslag
+ * maar niet in de CSV export.
+ *
+ * @author Marco de Booij
+ */
+public final class SpelerOpslag {
+  public static final String  EXT_OPSLAG  = "spl";
+
+  private static final  int CAPACITEIT  = 64;
+  private static final  int KOP         = 24;
+  private static final  int MAGIC       = 0x454C4F53;
+  private static final  int RECORD      = 48;
+  private static final  int VERSIE      = 2;
+
+  private SpelerOpslag() {}
+
+  // Werkt de opslag bij met de gewijzigde en nieuwe spelers. Als de motor
+  // niet uit deze opslag geladen is dan wordt ze opnieuw aangemaakt.
+  public static void bewaar(String bestand, ELOMotor motor,
+                            boolean bijwerken)
+      throws BestandException {
+    var pad = Paths.get(bestand);
+    try {
+      if (!bijwerken
+          || !werkBij(pad, motor)) {
+        herschrijf(pad, motor);
+      }
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+    motor.wisGewijzigd();
+  }
+
+  protected static String getOpslagnaam(String spelerBestand) {
+    if (spelerBestand.toLowerCase().endsWith(".csv")) {
+      return spelerBestand.substring(0, spelerBestand.length() - 3)
+              + EXT_OPSLAG;
+    }
+
+    return spelerBestand + "." + EXT_OPSLAG;
+  }
+
+  private static int getCapaciteit(int aantal) {
+    var capaciteit  = CAPACITEIT;
+    while (capaciteit < aantal) {
+      capaciteit  *= 2;
+    }
+
+    return capaciteit;
+  }
+
+  private static void herschrijf(Path pad, ELOMotor motor)
+      throws IOException {
+    var       capaciteit  = getCapaciteit(motor.size() * 2);
+    byte[][]  namen       = new byte[motor.size()][];
+    var       lengte      = 0L;
+    for (var id = 0; id < motor.size(); id++) {
+      namen[id] = motor.getNaam(id).getBytes(StandardCharsets.UTF_8);
+      lengte    += namen[id].length;
+    }
+
+    var tijdelijk = Paths.get(pad + ".tmp");
+    try (var kanaal = FileChannel.open(tijdelijk, StandardOpenOption.CREATE,
+                                       StandardOpenOption.TRUNCATE_EXISTING,
+                                       StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE)) {
+      var buffer  =
+          kanaal.map(FileChannel.MapMode.READ_WRITE, 0,
+                     KOP + (long) capaciteit * RECORD + lengte);
+      var tabel   = KOP + capaciteit * RECORD;
+      var plaats  = 0;
+      for (var id = 0; id < motor.size(); id++) {
+        buffer.position(tabel + plaats);
+        buffer.put(namen[id]);
+        schrijfRecord(buffer, id, plaats, namen[id].length, motor);
+        plaats  += namen[id].length;
+      }
+      schrijfKop(buffer, motor.size(), capaciteit, plaats);
+      buffer.force();
+    }
+
+    Files.move(tijdelijk, pad, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  // Laadt de spelers in een lege motor. Geeft false als er geen bruikbare
+  // opslag is.
+  public static boolean laad(String bestand, ELOMotor motor)
+      throws BestandException {
+    var pad = Paths.get(bestand);
+    if (!Files.exists(pad)) {
+      return false;
+    }
+
+    try (var kanaal = FileChannel.open(pad, StandardOpenOption.READ)) {
+      if (kanaal.size() < KOP) {
+        return false;
+      }
+      var buffer  = kanaal.map(FileChannel.MapMode.READ_ONLY, 0,
+                               kanaal.size());
+      if (buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != VERSIE) {
+        return false;
+      }
+
+      var aantal      = buffer.getInt(8);
+      var capaciteit  = buffer.getInt(12);
+      var tabel       = KOP + capaciteit * RECORD;
+      for (var id = 0; id < aantal; id++) {
+        var record  = KOP + id * RECORD;
+        var naam    = new byte[buffer.getInt(record + 4)];
+        buffer.position(tabel + buffer.getInt(record));
+        buffer.get(naam);
+        motor.voegToe(new String(naam, StandardCharsets.UTF_8),
+                      buffer.getInt(record + 8),
+                      buffer.getInt(record + 12),
+                      buffer.getInt(record + 16),
+                      buffer.getInt(record + 20),
+                      buffer.getInt(record + 24),
+                      buffer.getInt(record + 28),
+                      buffer.getInt(record + 32),
+                      buffer.getInt(record + 36),
+                      buffer.getInt(record + 40),
+                      buffer.getInt(record + 44));
+      }
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+    motor.wisGewijzigd();
+
+    return true;
+  }
+
+  private static void schrijfKop(MappedByteBuffer buffer, int aantal,
+                                 int capaciteit, int namen) {
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, VERSIE);
+    buffer.putInt(8, aantal);
+    buffer.putInt(12, capaciteit);
+    buffer.putInt(16, namen);
+  }
+
+  private static void schrijfRecord(MappedByteBuffer buffer, int id,
+                                    int naam, int lengte, ELOMotor motor) {
+    var record  = KOP + id * RECORD;
+    buffer.putInt(record,      naam);
+    buffer.putInt(record +  4, lengte);
+    schrijfGegevens(buffer, id, motor);
+  }
+
+  private static void schrijfGegevens(MappedByteBuffer buffer, int id,
+                                      ELOMotor motor) {
+    var record  = KOP + id * RECORD;
+    buffer.putInt(record +  8, motor.getElo(id));
+    buffer.putInt(record + 12, motor.getGroei(id));
+    buffer.putInt(record + 16, motor.getPartijen(id));
+    buffer.putInt(record + 20, motor.getEerstePartij(id));
+    buffer.putInt(record + 24, motor.getLaatstePartij(id));
+    buffer.putInt(record + 28, motor.getOfficieel(id));
+    buffer.putInt(record + 32, motor.getMinElo(id));
+    buffer.putInt(record + 36, motor.getMinDatum(id));
+    buffer.putInt(record + 40, motor.getMaxElo(id));
+    buffer.putInt(record + 44, motor.getMaxDatum(id));
+  }
+
+  // Herschrijft enkel wat gewijzigd is in een kopie van het bestand. Geeft
+  // false als het bestand opnieuw aangemaakt moet worden.
+  private static boolean werkBij(Path pad, ELOMotor motor)
+      throws IOException {
+    if (!Files.exists(pad)) {
+      return false;
+    }
+
+    var tijdelijk = Paths.get(pad + ".tmp");
+    Files.copy(pad, tijdelijk, StandardCopyOption.REPLACE_EXISTING);
+    if (!werkKopieBij(tijdelijk, motor)) {
+      Files.delete(tijdelijk);
+      return false;
+    }
+
+    Files.move(tijdelijk, pad, StandardCopyOption.REPLACE_EXISTING);
+
+    return true;
+  }
+
+  private static boolean werkKopieBij(Path kopie, ELOMotor motor)
+      throws IOException {
+    try (var kanaal = FileChannel.open(kopie, StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE)) {
+      if (kanaal.size() < KOP) {
+        return false;
+      }
+      var kop         = kanaal.map(FileChannel.MapMode.READ_ONLY, 0, KOP);
+      var aantal      = kop.getInt(8);
+      var capaciteit  = kop.getInt(12);
+      var namen       = kop.getInt(16);
+      if (kop.getInt(0) != MAGIC
+          || kop.getInt(4) != VERSIE
+          || aantal > motor.size()
+          || motor.size() > capaciteit) {
+        return false;
+      }
+
+      byte[][]  nieuw   = new byte[motor.size() - aantal][];
+      var       lengte  = 0;
+      for (var id = aantal; id < motor.size(); id++) {
+        nieuw[id - aantal]  = motor.getNaam(id)
+                                   .getBytes(StandardCharsets.UTF_8);
+        lengte              += nieuw[id - aantal].length;
+      }
+
+      var tabel   = KOP + capaciteit * RECORD;
+      var buffer  = kanaal.map(FileChannel.MapMode.READ_WRITE, 0,
+                               (long) tabel + namen + lengte);
+      var gewijzigd = motor.getGewijzigd();
+      for (var id = gewijzigd.nextSetBit(0); id >= 0 && id < aantal;
+           id = gewijzigd.nextSetBit(id + 1)) {
+        schrijfGegevens(buffer, id, motor);
+      }
+      var plaats  = namen;
+      for (var id = aantal; id < motor.size(); id++) {
+        buffer.position(tabel + plaats);
+        buffer.put(nieuw[id - aantal]);
+        schrijfRecord(buffer, id, plaats, nieuw[id - aantal].length, motor);
+        plaats  += nieuw[id - aantal].length;
+      }
+      schrijfKop(buffer, motor.size(), capaciteit, plaats);
+      buffer.force();
+    }
+
+    return true;
+  }
+}
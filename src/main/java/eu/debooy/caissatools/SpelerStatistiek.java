@@ -17,7 +17,6 @@
 package eu.debooy.caissatools;
 
 import eu.debooy.caissa.CaissaConstants;
-import eu.debooy.caissa.CaissaUtils;
 import eu.debooy.caissa.PGN;
 import eu.debooy.caissa.exceptions.PgnException;
 import eu.debooy.doosutils.Batchjob;
@@ -34,7 +33,6 @@ import java.text.DecimalFormat;
 import java.text.MessageFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -65,6 +63,7 @@ public final class SpelerStatistiek extends Batchjob {
 
   private static  String              einddatum   = "0000.00.00";
   private static  Map<String, int[]>  items;
+  private static  NaamIndex           naamIndex;
   private static  Map<String, String> params;
   private static  String              startdatum  = "9999.99.99";
   private static  int                 verwerkt    = 0;
@@ -136,17 +135,27 @@ public final class SpelerStatistiek extends Batchjob {
     var speler        = paramBundle.getString(CaissaTools.PAR_SPELER);
     var statistiektag = paramBundle.getString(CaissaTools.PAR_TAG);
 
-    Collection<PGN> partijen;
     try {
-      partijen =
-          CaissaUtils.laadPgnBestand(paramBundle
-                                        .getBestand(CaissaTools.PAR_BESTAND));
-    } catch (PgnException e) {
+      naamIndex = NaamIndex.maak(paramBundle);
+      naamIndex.voegToe(speler);
+      naamIndex.zoekVooraf(
+          new String[] {paramBundle.getBestand(CaissaTools.PAR_BESTAND)});
+    } catch (BestandException e) {
       DoosUtils.foutNaarScherm(e.getLocalizedMessage());
       return;
     }
 
-    partijen.forEach(partij -> verwerkPartij(partij, speler, statistiektag));
+    int partijen;
+    try (var pgnLezer  =
+          new PgnLezer(paramBundle.getBestand(CaissaTools.PAR_BESTAND))) {
+      while (pgnLezer.hasNext()) {
+        verwerkPartij(pgnLezer.next(), speler, statistiektag);
+      }
+      partijen  = pgnLezer.getAantal();
+    } catch (BestandException | PgnException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      return;
+    }
 
     vulParams();
 
@@ -172,6 +181,11 @@ public final class SpelerStatistiek extends Batchjob {
       DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
 
+    try {
+      naamIndex.bewaar();
+    } catch (BestandException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+    }
 
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString("label.bestand"),
@@ -180,7 +194,7 @@ public final class SpelerStatistiek extends Batchjob {
                                             BestandConstants.EXT_TEX)));
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString("label.partijen"),
-                             partijen.size()));
+                             partijen));
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString("label.verwerkt"),
                              verwerkt));
@@ -400,14 +414,17 @@ public final class SpelerStatistiek extends Batchjob {
   }
 
   private static void verwerkPartij(PGN partij, String speler,
-                                    String statistiektag) {
+                                    String statistiektag)
+      throws PgnException {
     if (!partij.isBeeindigd()
         || !partij.isRated()) {
       return;
     }
 
-    var     wit       = partij.getTag(PGN.PGNTAG_WHITE);
-    var     zwart     = partij.getTag(PGN.PGNTAG_BLACK);
+    var     wit       = naamIndex.getNaam(partij.getTag(PGN.PGNTAG_WHITE));
+    var     zwart     = naamIndex.getNaam(partij.getTag(PGN.PGNTAG_BLACK));
+    partij.setTag(PGN.PGNTAG_WHITE, wit);
+    partij.setTag(PGN.PGNTAG_BLACK, zwart);
 
     if (!speler.equals(wit)
         && !speler.equals(zwart)) {
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.CaissaConstants;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Vertaalt de stukletters in zetten van de ene taal naar de andere. Per
+ * taalpaar wordt eenmalig een tabel (letter naar letter) gemaakt zodat een
+ * vertaling één doorloop over de zetten is.
+ *
+ * Enkel de letter aan het begin van een zet en het promotiestuk (na '=')
+ * worden vertaald. Commentaar tussen {} of na ; blijft ongewijzigd.
+ *
+ * @author Marco de Booij
+ */
+public final class StukVertaler {
+  private static final  String  DEFSTUKKEN  =
+      CaissaConstants.Stukcodes.valueOf("EN").getStukcodes();
+  private static final  int     PION        = DEFSTUKKEN.indexOf('P');
+
+  private static final  Map<String, StukVertaler> VERTALERS =
+      new ConcurrentHashMap<>();
+
+  private final boolean gelijk;
+  private final char[]  tabel;
+
+  private StukVertaler(String vanStukken, String naarStukken) {
+    var grootte = 0;
+    for (var i = 0; i < vanStukken.length(); i++) {
+      grootte = Math.max(grootte, vanStukken.charAt(i) + 1);
+    }
+
+    gelijk  = vanStukken.equals(naarStukken);
+    tabel   = new char[grootte];
+    for (var i = vanStukken.length() - 1; i >= 0; i--) {
+      if (i != PION
+          && i < naarStukken.length()) {
+        tabel[vanStukken.charAt(i)] = naarStukken.charAt(i);
+      }
+    }
+  }
+
+  public static StukVertaler getVertaler(String vanStukken,
+                                         String naarStukken) {
+    return VERTALERS.computeIfAbsent(vanStukken + '\u0000' + naarStukken,
+                                     sleutel -> new StukVertaler(vanStukken,
+                                                                 naarStukken));
+  }
+
+  private boolean isBeginZet(char vorige) {
+    return Character.isWhitespace(vorige)
+            || vorige == '.'
+            || vorige == '(';
+  }
+
+  private char opzoeken(char stuk) {
+    if (stuk < tabel.length
+        && tabel[stuk] != 0) {
+      return tabel[stuk];
+    }
+
+    return stuk;
+  }
+
+  public String vertaal(String zetten) {
+    if (gelijk
+        || null == zetten) {
+      return zetten;
+    }
+
+    var buffer      = zetten.toCharArray();
+    var commentaar  = 0;
+    var lijn        = false;
+    var vorige      = ' ';
+    for (var i = 0; i < buffer.length; i++) {
+      var teken = buffer[i];
+      if (lijn) {
+        lijn  = teken != '\n';
+      } else if (teken == '{') {
+        commentaar++;
+      } else if (teken == '}') {
+        commentaar--;
+      } else if (commentaar == 0) {
+        if (teken == ';') {
+          lijn  = true;
+        } else if (isBeginZet(vorige)
+                   || vorige == '=') {
+          buffer[i] = opzoeken(teken);
+        }
+      }
+      vorige  = teken;
+    }
+
+    return new String(buffer);
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.CaissaConstants;
+import eu.debooy.caissa.CaissaUtils;
+import eu.debooy.caissa.Competitie;
+import eu.debooy.caissa.PGN;
+import eu.debooy.caissa.Spelerinfo;
+import eu.debooy.caissa.exceptions.CompetitieException;
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.Batchjob;
+import eu.debooy.doosutils.DoosConstants;
+import eu.debooy.doosutils.DoosUtils;
+import eu.debooy.doosutils.MarcoBanner;
+import eu.debooy.doosutils.ParameterBundle;
+import eu.debooy.doosutils.access.CsvBestand;
+import eu.debooy.doosutils.exception.BestandException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Voorspelt de eindstand van een lopend toernooi. De nog te spelen partijen
+ * uit het schema worden met VoorspelMotor vele keren nagespeeld met de ELO
+ * uit het spelerBestand van ELOBerekenaar. Per speler wordt de kans op elke
+ * plaats getoond. Met een zaadje is de voorspelling herhaalbaar, ook met
+ * een ander aantal threads.
+ *
+ * @author Marco de Booij
+ */
+public final class Toernooivoorspelling extends Batchjob {
+  private static final  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
+                               Locale.getDefault());
+
+  protected Toernooivoorspelling() {}
+
+  public static void execute(String[] args) {
+    setParameterBundle(
+        new ParameterBundle.Builder()
+                           .setArgs(args)
+                           .setBanner(new MarcoBanner())
+                           .setBaseName(CaissaTools.TOOL_TOERNOOIVOORSPELLING)
+                           .setValidator(new ToernooivoorspellingParameters())
+                           .build());
+
+    if (!paramBundle.isValid()) {
+      return;
+    }
+
+    var invoer  = paramBundle.getBestand(CaissaTools.PAR_BESTAND);
+
+    Competitie      competitie;
+    Collection<PGN> partijen;
+    try {
+      competitie  =
+          new Competitie(paramBundle.getBestand(CaissaTools.PAR_SCHEMA));
+      partijen    = CaissaUtils.laadPgnBestand(invoer);
+    } catch (CompetitieException | PgnException e) {
+      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+      return;
+    }
+
+    Map<String, Integer>  elos  = new HashMap<>();
+    if (paramBundle.containsArgument(CaissaTools.PAR_SPELERBESTAND)) {
+      try {
+        leesElo(paramBundle.getBestand(CaissaTools.PAR_SPELERBESTAND), elos);
+      } catch (BestandException e) {
+        DoosUtils.foutNaarScherm(e.getLocalizedMessage());
+        return;
+      }
+    }
+
+    competitie.sorteerOpNaam();
+    CaissaUtils.vulToernooiMatrix(partijen, competitie, false);
+
+    List<Spelerinfo>      spelers = new ArrayList<>();
+    Map<String, Integer>  ids     = new HashMap<>();
+    for (var speler : competitie.getDeelnemers()) {
+      if (!CaissaConstants.BYE.equals(speler.getNaam())) {
+        ids.put(speler.getNaam(), spelers.size());
+        spelers.add(speler);
+      }
+    }
+
+    var startElo  = paramBundle.getInteger(CaissaTools.PAR_STARTELO);
+    var punten    = new int[spelers.size()];
+    var elo       = new int[spelers.size()];
+    for (var id = 0; id < spelers.size(); id++) {
+      punten[id]  = (int) Math.round(spelers.get(id).getPunten() * 2);
+      elo[id]     = elos.getOrDefault(spelers.get(id).getNaam(), startElo);
+    }
+
+    var remise  = getRemise(partijen);
+    var motor   = new VoorspelMotor(punten, elo, remise);
+    if (!competitie.isMatch()) {
+      for (var partij : CaissaUtils.genereerSpeelschema(competitie,
+                                                        partijen)) {
+        var wit   = ids.get(partij.getWitspeler().getNaam());
+        var zwart = ids.get(partij.getZwartspeler().getNaam());
+        if (partij.isGespeeld()
+            || partij.isBye()
+            || !partij.isRanked()
+            || null == wit
+            || null == zwart) {
+          continue;
+        }
+        motor.voegPartijToe(wit, zwart);
+      }
+    }
+
+    var simulaties  = paramBundle.getInteger(CaissaTools.PAR_SIMULATIES);
+    var zaadje      = getZaadje();
+    var forkJoin    =
+        new ForkJoinPool(CaissaTools.getThreads(
+            paramBundle, Runtime.getRuntime().availableProcessors()));
+    double[][]  kansen;
+    try {
+      kansen  = forkJoin.submit(() -> motor.simuleer(simulaties, zaadje))
+                        .get();
+    } catch (ExecutionException e) {
+      DoosUtils.foutNaarScherm(e.getCause().getLocalizedMessage());
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } finally {
+      forkJoin.shutdown();
+    }
+
+    toonKansen(spelers, elo, kansen);
+
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_BESTAND),
+                             invoer));
+    DoosUtils.naarScherm(
+        MessageFormat.format(
+            resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
+            motor.getPartijen()));
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString("label.remise"),
+                             Math.round(remise * 100)));
+    DoosUtils.naarScherm(
+        MessageFormat.format(resourceBundle.getString("label.simulaties"),
+                             simulaties));
+    DoosUtils.naarScherm();
+    DoosUtils.naarScherm(getMelding(MSG_KLAAR));
+    DoosUtils.naarScherm();
+  }
+
+  // De opgegeven kans op remise of anders die in de gespeelde partijen.
+  private static double getRemise(Collection<PGN> partijen) {
+    if (paramBundle.containsArgument(CaissaTools.PAR_REMISE)) {
+      return paramBundle.getInteger(CaissaTools.PAR_REMISE) / 100.0;
+    }
+
+    var gespeeld  = 0;
+    var remises   = 0;
+    for (var partij : partijen) {
+      var uitslag = partij.getTag(PGN.PGNTAG_RESULT);
+      if (partij.isBye()
+          || !partij.isRated()
+          || CaissaConstants.PARTIJ_BEZIG.equals(uitslag)) {
+        continue;
+      }
+      gespeeld++;
+      if (CaissaConstants.PARTIJ_REMISE.equals(uitslag)) {
+        remises++;
+      }
+    }
+
+    if (gespeeld == 0) {
+      return 0.0;
+    }
+
+    return (double) remises / gespeeld;
+  }
+
+  // Het opgegeven zaadje of telkens een ander.
+  private static long getZaadje() {
+    if (paramBundle.containsArgument(CaissaTools.PAR_ZAADJE)) {
+      return paramBundle.getInteger(CaissaTools.PAR_ZAADJE);
+    }
+
+    return System.nanoTime();
+  }
+
+  private static void leesElo(String spelerBestand, Map<String, Integer> elos)
+      throws BestandException {
+    try (var invoer = new CsvBestand.Builder()
+                                    .setBestand(spelerBestand)
+                                    .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        elos.put(veld[0], Integer.parseInt(veld[1]));
+      }
+    }
+  }
+
+  private static void toonKansen(List<Spelerinfo> spelers, int[] elo,
+                                 double[][] kansen) {
+    var kop = new StringBuilder();
+    kop.append(String.format("%-20s %6s %5s",
+                             resourceBundle.getString("tag.naam"),
+                             resourceBundle.getString("tag.punten"), "ELO"));
+    for (var plaats = 1; plaats <= spelers.size(); plaats++) {
+      kop.append(String.format(" %5d", plaats));
+    }
+    DoosUtils.naarScherm(kop.toString());
+
+    for (var id = 0; id < spelers.size(); id++) {
+      var regel = new StringBuilder();
+      regel.append(String.format("%-20s %6.1f %5d", spelers.get(id).getNaam(),
+                                 spelers.get(id).getPunten(), elo[id]));
+      for (var kans : kansen[id]) {
+        regel.append(String.format(" %5.1f", kans * 100));
+      }
+      DoosUtils.naarScherm(regel.toString());
+    }
+    DoosUtils.naarScherm();
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.DoosConstants;
+import eu.debooy.doosutils.IParameterBundleValidator;
+import eu.debooy.doosutils.Parameter;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class ToernooivoorspellingParameters
+    implements IParameterBundleValidator {
+  private static final  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
+                               Locale.getDefault());
+
+  @Override
+  public List<String> valideer(Map<String, Parameter> params,
+                               List<String> argumenten) {
+    var validator = new BestandDefaultParameters();
+    var fouten    = validator.valideer(params, argumenten);
+
+    valideerRemise(params, fouten);
+    valideerSimulaties(params, fouten);
+
+    return fouten;
+  }
+
+  private void valideerRemise(Map<String, Parameter> params,
+                              List<String> fouten) {
+    var remise  = params.get(CaissaTools.PAR_REMISE).getWaarde();
+    if (null == remise) {
+      return;
+    }
+
+    var kans    = ((Long) remise).intValue();
+    if (kans < 0
+        || kans > 100) {
+      fouten.add(
+          MessageFormat.format(
+              resourceBundle.getString(CaissaTools.ERR_REMISE), kans));
+    }
+  }
+
+  // Met 0 simulaties wordt er door 0 gedeeld.
+  private void valideerSimulaties(Map<String, Parameter> params,
+                                  List<String> fouten) {
+    var simulaties  = ((Long) params.get(CaissaTools.PAR_SIMULATIES)
+                                    .getWaarde()).intValue();
+    if (simulaties < 1) {
+      fouten.add(
+          MessageFormat.format(
+              resourceBundle.getString(CaissaTools.ERR_SIMULATIES),
+              simulaties));
+    }
+  }
+}
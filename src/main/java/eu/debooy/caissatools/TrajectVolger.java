@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.CaissaUtils;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Volgt de trajecten van de stukken tijdens een partij. Elk stuk krijgt een
+ * nummer, een veld-naar-stuk tabel vervangt het zoeken op waarde en de
+ * trajecten worden in int arrays bijgehouden. Na de opbouw van de partij
+ * wordt er per zet niets meer gealloceerd (buiten een promotie of het
+ * vergroten van de buffers).
+ *
+ * @author Marco de Booij
+ */
+public final class TrajectVolger {
+  protected static final  int EXTRA     = -2;
+  protected static final  int OUT       = -1;
+  protected static final  int PROMOTIE  = -3;
+
+  private static final  int     CAPACITEIT    = 128;
+  private static final  int     MAXSTUKKEN    = 64;
+  private static final  String  VOLGORDE      = "qrbnkp";
+  private static final  int     WITTE_PION    = CaissaUtils.zoekStuk('P');
+  private static final  int     ZWARTE_PION   = CaissaUtils.zoekStuk('p');
+
+  private final int[]     bezet       = new int[100];
+  private final String[]  namen       = new String[MAXSTUKKEN];
+  private final int[]     stukken     = new int[MAXSTUKKEN];
+  private final int[][]   trajecten   = new int[MAXSTUKKEN][];
+  private final int[]     verplaatst  = new int[MAXSTUKKEN];
+  private final boolean   voorNico;
+  private final int[]     waarden     = new int[MAXSTUKKEN];
+
+  private int aantal            = 0;
+  private int aantalVerplaatst  = 0;
+  private int capaciteit        = CAPACITEIT;
+  private int lengte            = 0;
+
+  public TrajectVolger(int[] bord, boolean voorNico) {
+    this.voorNico = voorNico;
+
+    var sleutels  = new int[MAXSTUKKEN];
+    for (var i = 9; i > 1; i--) {
+      for (var j = 1; j < 9; j++) {
+        var positie = i*10+j;
+        if (bord[positie] != 0) {
+          var veld  = CaissaUtils.internToExtern(positie);
+          var stuk  = String.valueOf(CaissaUtils.getStuk(bord[positie]));
+          namen[aantal]     = stuk + veld;
+          stukken[aantal]   = bord[positie];
+          waarden[aantal]   = getCoordinaat(positie);
+          sleutels[aantal]  = getSleutel(stuk.charAt(0), veld);
+          aantal++;
+        }
+      }
+    }
+
+    sorteer(sleutels);
+
+    for (var i = 0; i < aantal; i++) {
+      trajecten[i]  = new int[capaciteit];
+    }
+    voegWaardenToe();
+  }
+
+  protected static int getCoordinaat(int positie) {
+    return (((positie%10) - 1) * 10) + (9 - (positie/10));
+  }
+
+  protected static int getPositie(int coordinaat) {
+    return ((9 - (coordinaat%10)) * 10) + (coordinaat/10) + 1;
+  }
+
+  // Dezelfde volgorde als de oude IdComparator: soort stuk, rij en lijn.
+  private static int getSleutel(char stuk, String veld) {
+    var soort = VOLGORDE.indexOf(Character.toLowerCase(stuk))
+                  + (Character.isUpperCase(stuk) ? 21 : 11);
+
+    return soort * 1000 + veld.charAt(1) * 10 + (veld.charAt(0) - 'a');
+  }
+
+  public Map<String, int[]> getTrajecten() {
+    Map<String, int[]>  resultaat = new LinkedHashMap<>();
+    for (var i = 0; i < aantal; i++) {
+      resultaat.put(namen[i], Arrays.copyOf(trajecten[i], lengte));
+    }
+
+    return resultaat;
+  }
+
+  private void promotie(int code, int coordinaat) {
+    var pion  = zoekVerplaatst(ZWARTE_PION);
+    if (pion < 0) {
+      pion    = zoekVerplaatst(WITTE_PION);
+    }
+    if (pion < 0
+        || aantal == MAXSTUKKEN) {
+      return;
+    }
+
+    waarden[pion]     = (voorNico ? 100 + coordinaat : PROMOTIE);
+
+    namen[aantal]     = CaissaUtils.getStuk(code) + namen[pion].substring(1);
+    stukken[aantal]   = code;
+    waarden[aantal]   = (voorNico ? 200 : 0) + coordinaat;
+    trajecten[aantal] = new int[capaciteit];
+    Arrays.fill(trajecten[aantal], 0, lengte, EXTRA);
+    if (!voorNico) {
+      bezet[coordinaat] = aantal;
+    }
+    aantal++;
+  }
+
+  private void sorteer(int[] sleutels) {
+    for (var i = 1; i < aantal; i++) {
+      var naam    = namen[i];
+      var sleutel = sleutels[i];
+      var stuk    = stukken[i];
+      var waarde  = waarden[i];
+      var j       = i - 1;
+      while (j >= 0
+             && sleutels[j] > sleutel) {
+        namen[j+1]    = namen[j];
+        sleutels[j+1] = sleutels[j];
+        stukken[j+1]  = stukken[j];
+        waarden[j+1]  = waarden[j];
+        j--;
+      }
+      namen[j+1]    = naam;
+      sleutels[j+1] = sleutel;
+      stukken[j+1]  = stuk;
+      waarden[j+1]  = waarde;
+    }
+  }
+
+  public void verwerk(int[] bord) {
+    aantalVerplaatst  = 0;
+    for (var i = 0; i < aantal; i++) {
+      verwerkStuk(i, bord);
+    }
+
+    Arrays.fill(bezet, -1);
+    for (var i = 0; i < aantal; i++) {
+      if (waarden[i] >= 0
+          && waarden[i] < 100) {
+        bezet[waarden[i]] = i;
+      }
+    }
+
+    for (var i = 9; i > 1; i--) {
+      for (var j = 1; j < 9; j++) {
+        var positie = i*10+j;
+        if (bord[positie] != 0
+            && bezet[getCoordinaat(positie)] < 0) {
+          verwerkVeld(bord[positie], getCoordinaat(positie));
+        }
+      }
+    }
+
+    voegWaardenToe();
+  }
+
+  private void verwerkStuk(int stuk, int[] bord) {
+    var waarde  = waarden[stuk];
+    if (waarde >= 0
+        && waarde < 100) {
+      var positie = getPositie(waarde);
+      if (bord[positie] != stukken[stuk]) {
+        if (bord[positie] == 0) {
+          verplaatst[aantalVerplaatst] = stuk;
+          aantalVerplaatst++;
+        }
+        waarden[stuk] = OUT;
+      }
+      return;
+    }
+
+    if (waarde == PROMOTIE
+        || (waarde >= 100 && waarde < 200)) {
+      waarden[stuk] = OUT;
+    }
+    if (waarde >= 200) {
+      waarden[stuk] = waarde - 200;
+    }
+  }
+
+  private void verwerkVeld(int code, int coordinaat) {
+    var stuk  = zoekVerplaatst(code);
+    if (stuk < 0) {
+      promotie(code, coordinaat);
+      return;
+    }
+
+    if (waarden[stuk] == OUT) {
+      waarden[stuk]     = coordinaat;
+      bezet[coordinaat] = stuk;
+    }
+  }
+
+  private void voegWaardenToe() {
+    if (lengte == capaciteit) {
+      capaciteit  *= 2;
+      for (var i = 0; i < aantal; i++) {
+        trajecten[i]  = Arrays.copyOf(trajecten[i], capaciteit);
+      }
+    }
+
+    for (var i = 0; i < aantal; i++) {
+      trajecten[i][lengte]  = waarden[i];
+    }
+    lengte++;
+  }
+
+  private int zoekVerplaatst(int code) {
+    for (var i = 0; i < aantalVerplaatst; i++) {
+      if (stukken[verplaatst[i]] == code) {
+        return verplaatst[i];
+      }
+    }
+
+    return -1;
+  }
+}
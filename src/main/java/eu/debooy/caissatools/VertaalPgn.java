@@ -20,7 +20,6 @@
 package eu.debooy.caissatools;
 
 import eu.debooy.caissa.CaissaConstants;
-import eu.debooy.caissa.CaissaUtils;
 import eu.debooy.caissa.PGN;
 import eu.debooy.caissa.exceptions.PgnException;
 import eu.debooy.doosutils.Batchjob;
@@ -31,7 +30,6 @@ import eu.debooy.doosutils.ParameterBundle;
 import eu.debooy.doosutils.access.TekstBestand;
 import eu.debooy.doosutils.exception.BestandException;
 import java.text.MessageFormat;
-import java.util.Collection;
 import java.util.Locale;
 import java.util.ResourceBundle;
 
@@ -71,16 +69,13 @@ public final class VertaalPgn extends Batchjob {
                                            .toUpperCase())
                        .getStukcodes();
 
+    var vertaler    = StukVertaler.getVertaler(vanStukken, naarStukken);
+
     // Verwerk command line invoer en stop.
     if (paramBundle.containsParameter(CaissaTools.PAR_PGN)) {
       var partij  = new PGN();
       partij.setZetten(paramBundle.getString(CaissaTools.PAR_PGN));
-      try {
-        DoosUtils.naarScherm(CaissaUtils.vertaalStukken(partij.getZetten(),
-                vanStukken, naarStukken));
-      } catch (PgnException e) {
-        DoosUtils.foutNaarScherm(e.getLocalizedMessage());
-      }
+      DoosUtils.naarScherm(vertaler.vertaal(partij.getZetten()));
       return;
     }
 
@@ -91,26 +86,19 @@ public final class VertaalPgn extends Batchjob {
 
     var uitvoer = String.join(".", deel);
 
-    Collection<PGN> partijen;
-    try {
-      partijen =
-          CaissaUtils
-              .laadPgnBestand(paramBundle.getBestand(CaissaTools.PAR_BESTAND));
-    } catch (PgnException e) {
-      DoosUtils.foutNaarScherm(e.getLocalizedMessage());
-      return;
-    }
-
-    try (var output  =
+    var partijen  = 0;
+    try (var pgnLezer  =
+          new PgnLezer(paramBundle.getBestand(CaissaTools.PAR_BESTAND));
+         var output    =
           new TekstBestand.Builder()
                           .setBestand(uitvoer)
                           .setLezen(false).build()) {
-      for (var partij: partijen) {
-        var zetten  = partij.getZetten();
-        partij.setZetten(CaissaUtils.vertaalStukken(zetten,
-                                                    vanStukken, naarStukken));
+      while (pgnLezer.hasNext()) {
+        var partij  = pgnLezer.next();
+        partij.setZetten(vertaler.vertaal(partij.getZetten()));
         output.write(partij.toString());
       }
+      partijen  = pgnLezer.getAantal();
     } catch (BestandException | PgnException e) {
       DoosUtils.foutNaarScherm(e.getLocalizedMessage());
     }
@@ -120,7 +108,7 @@ public final class VertaalPgn extends Batchjob {
                              uitvoer));
     DoosUtils.naarScherm(
         MessageFormat.format(resourceBundle.getString(CaissaTools.LBL_PARTIJEN),
-                             partijen.size()));
+                             partijen));
     DoosUtils.naarScherm();
     DoosUtils.naarScherm(getMelding(MSG_KLAAR));
     DoosUtils.naarScherm();
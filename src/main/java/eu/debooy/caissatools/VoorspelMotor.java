@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+
+/**
+ * Speelt de nog te spelen partijen van een toernooi na voor
+ * Toernooivoorspelling. De spelers krijgen een volgnummer en hun punten
+ * staan als halve punten in een int array. Per partij worden de kans op
+ * winst voor wit en de kans op winst of remise voor wit eenmalig berekend.
+ *
+ * De verwachte score komt uit het verschil in ELO. De kans op remise is voor
+ * alle partijen gelijk maar nooit groter dan twee keer de kleinste kans op
+ * winst.
+ *
+ * De simulaties worden in blokken van BLOK verdeeld. Elk blok heeft zijn
+ * eigen SplittableRandom en telt in zijn eigen array. Met hetzelfde zaadje is
+ * de uitkomst gelijk, ongeacht het aantal threads.
+ *
+ * Spelers met evenveel punten delen hun plaatsen. Twee spelers samen op de
+ * eerste plaats krijgen elk een halve kans op plaats 1 en op plaats 2.
+ *
+ * @author Marco de Booij
+ */
+public final class VoorspelMotor {
+  protected static final  int BLOK  = 10000;
+
+  private static final  int CAPACITEIT  = 64;
+
+  private final int[]   elo;
+  private final int[]   punten;
+  private final double  remise;
+
+  private int       aantal      = 0;
+  private int[]     wit         = new int[CAPACITEIT];
+  private int[]     zwart       = new int[CAPACITEIT];
+  private double[]  winst       = new double[CAPACITEIT];
+  private double[]  nietVerlies = new double[CAPACITEIT];
+
+  // Punten in halve punten. Remise is de kans op remise (0 tot 1).
+  public VoorspelMotor(int[] punten, int[] elo, double remise) {
+    this.elo    = Arrays.copyOf(elo, elo.length);
+    this.punten = Arrays.copyOf(punten, punten.length);
+    this.remise = remise;
+  }
+
+  public int getPartijen() {
+    return aantal;
+  }
+
+  // De verwachte score van wit.
+  protected static double getVerwachting(int eloWit, int eloZwart) {
+    return 1.0 / (1.0 + Math.pow(10.0, (eloZwart - eloWit) / 400.0));
+  }
+
+  // Kansen[speler][plaats] met plaats 0 de eerste plaats.
+  public double[][] simuleer(int simulaties, long zaadje) {
+    var blokken   = (simulaties + BLOK - 1) / BLOK;
+    var bron      = new SplittableRandom(zaadje);
+    var randoms   = new SplittableRandom[blokken];
+    for (var i = 0; i < blokken; i++) {
+      randoms[i]  = bron.split();
+    }
+
+    var maximum   = 0;
+    for (var id = 0; id < punten.length; id++) {
+      maximum     = Math.max(maximum, punten[id]);
+    }
+    var hoogste   = maximum + 2 * aantal;
+
+    var tellingen = new double[blokken][];
+    IntStream.range(0, blokken)
+             .parallel()
+             .forEach(i -> tellingen[i] =
+                 simuleerBlok(randoms[i],
+                              Math.min(BLOK, simulaties - i * BLOK),
+                              hoogste));
+
+    var spelers   = punten.length;
+    var kansen    = new double[spelers][spelers];
+    for (var telling : tellingen) {
+      for (var id = 0; id < spelers; id++) {
+        for (var plaats = 0; plaats < spelers; plaats++) {
+          kansen[id][plaats]  += telling[id * spelers + plaats];
+        }
+      }
+    }
+    for (var kans : kansen) {
+      for (var plaats = 0; plaats < spelers; plaats++) {
+        kans[plaats]  /= simulaties;
+      }
+    }
+
+    return kansen;
+  }
+
+  private double[] simuleerBlok(SplittableRandom random, int simulaties,
+                                int hoogste) {
+    var spelers = punten.length;
+    var telling = new double[spelers * spelers];
+    var score   = new int[spelers];
+    var gelijk  = new int[hoogste + 1];
+    var boven   = new int[hoogste + 1];
+
+    for (var s = 0; s < simulaties; s++) {
+      System.arraycopy(punten, 0, score, 0, spelers);
+      for (var i = 0; i < aantal; i++) {
+        var kans  = random.nextDouble();
+        if (kans < winst[i]) {
+          score[wit[i]]   += 2;
+        } else if (kans < nietVerlies[i]) {
+          score[wit[i]]++;
+          score[zwart[i]]++;
+        } else {
+          score[zwart[i]] += 2;
+        }
+      }
+
+      for (var id = 0; id < spelers; id++) {
+        gelijk[score[id]]++;
+      }
+      var hoger = 0;
+      for (var p = hoogste; p >= 0; p--) {
+        boven[p]  = hoger;
+        hoger     += gelijk[p];
+      }
+      for (var id = 0; id < spelers; id++) {
+        var eerste  = boven[score[id]];
+        var deel    = 1.0 / gelijk[score[id]];
+        for (var plaats = eerste; plaats < eerste + gelijk[score[id]];
+             plaats++) {
+          telling[id * spelers + plaats]  += deel;
+        }
+      }
+      for (var id = 0; id < spelers; id++) {
+        gelijk[score[id]] = 0;
+      }
+    }
+
+    return telling;
+  }
+
+  private void vergroot() {
+    var capaciteit  = wit.length * 2;
+    wit             = Arrays.copyOf(wit, capaciteit);
+    zwart           = Arrays.copyOf(zwart, capaciteit);
+    winst           = Arrays.copyOf(winst, capaciteit);
+    nietVerlies     = Arrays.copyOf(nietVerlies, capaciteit);
+  }
+
+  // Een nog te spelen partij tussen 2 volgnummers.
+  public void voegPartijToe(int witId, int zwartId) {
+    if (aantal == wit.length) {
+      vergroot();
+    }
+
+    var verwachting = getVerwachting(elo[witId], elo[zwartId]);
+    var kans        = Math.min(remise,
+                               2 * Math.min(verwachting, 1 - verwachting));
+    wit[aantal]         = witId;
+    zwart[aantal]       = zwartId;
+    winst[aantal]       = verwachting - kans / 2;
+    nietVerlies[aantal] = verwachting + kans / 2;
+    aantal++;
+  }
+}
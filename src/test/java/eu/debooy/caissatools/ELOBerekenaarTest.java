@@ -18,15 +18,25 @@ package eu.debooy.caissatools;
 
 import eu.debooy.doosutils.DoosConstants;
 import eu.debooy.doosutils.access.Bestand;
+import eu.debooy.doosutils.access.CsvBestand;
 import eu.debooy.doosutils.exception.BestandException;
 import eu.debooy.doosutils.test.BatchTest;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
 import org.junit.AfterClass;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -47,17 +57,55 @@ public class ELOBerekenaarTest extends BatchTest {
       "competitieH.1997.12.31.csv";
   private static final  String  BST_COMPD_CSV     = "competitie.dubbel.csv";
   private static final  String  BST_COMPHD_CSV    = "competitieH.dubbel.csv";
+  private static final  String  BST_COMPH_HIX     = "competitieH.hix";
+  private static final  String  BST_COMP_CKP      = "competitie.ckp";
+  private static final  String  BST_COMP_SNP      = "competitie.snp";
+  private static final  String  BST_COMP_SPL      = "competitie.spl";
+  private static final  String  BST_COMP1_CSV     = "competitie-1.csv";
+  private static final  String  BST_COMP2_CSV     = "competitie-2.csv";
+  private static final  String  BST_COMPV_CSV     = "competitie-varianten.csv";
+  private static final  String  BST_POOL1_CSV     =
+      "competitie-Testing_97_98.csv";
+  private static final  String  BST_POOL2_CSV     =
+      "competitie-Testing_98_99.csv";
+  private static final  String  BST_POOLH1_CSV    =
+      "competitieH-Testing_97_98.csv";
+  private static final  String  BST_POOLH2_CSV    =
+      "competitieH-Testing_98_99.csv";
+  private static final  String  BST_POOLS_CSV     = "pools.csv";
+  private static final  String  BST_CTRL_CSV      = "controle.csv";
+  private static final  String  BST_CTRLH_CSV     = "controleH.csv";
+  private static final  String  BST_INCR_IDX      = "incrementeel.idx";
+  private static final  String  BST_INCR_PGN      = "incrementeel.pgn";
+  private static final  String  BST_SAMEN1_IDX    = "samen1.idx";
+  private static final  String  BST_SAMEN1_PGN    = "samen1.pgn";
+  private static final  String  BST_SAMEN2_IDX    = "samen2.idx";
+  private static final  String  BST_SAMEN2_PGN    = "samen2.pgn";
   private static final  String  DATUM1            = "1997.12.20";
   private static final  String  DATUM2            = "1997.12.31";
   private static final  String  DATUM3            = "1998.06.13";
 
-  private static final  String  PAR_EINDDATUM = "--eindDatum=1997.12.31";
-  private static final  String  PAR_EXTRAINFO = "--extraInfo";
+  private static final  String  PAR_CONTROLEPUNT  = "--controlepunt";
+  private static final  String  PAR_EINDDATUM     = "--eindDatum=1997.12.31";
+  private static final  String  PAR_EXPORT        = "--export";
+  private static final  String  PAR_EXTRAINFO     = "--extraInfo";
+  private static final  String  PAR_OPSLAG        = "--spelerOpslag";
 
   @Before
   public void beforeTest() {
     verwijderBestanden(getTemp() + File.separator,
-                       new String[] {TestConstants.BST_COMPETITIE_CSV,
+                       new String[] {BST_COMP_CKP,
+                                     BST_COMP_SNP,
+                                     BST_COMP_SPL,
+                                     BST_COMPH_HIX,
+                                     BST_COMP1_CSV,
+                                     BST_COMP2_CSV,
+                                     BST_COMPV_CSV,
+                                     BST_POOL1_CSV,
+                                     BST_POOL2_CSV,
+                                     BST_POOLH1_CSV,
+                                     BST_POOLH2_CSV,
+                                     TestConstants.BST_COMPETITIE_CSV,
                                      TestConstants.BST_COMPETITIEH_CSV,
                                      TestConstants.BST_GESCHIEDENIS_CSV,
                                      TestConstants.BST_INDEX_HTML,
@@ -67,8 +115,30 @@ public class ELOBerekenaarTest extends BatchTest {
   @AfterClass
   public static void afterClass() {
     verwijderBestanden(getTemp() + File.separator,
-                       new String[] {TestConstants.BST_COMPETITIE1_PGN,
+                       new String[] {BST_COMP_CKP,
+                                     BST_COMP_SNP,
+                                     BST_COMP_SPL,
+                                     BST_COMPH_HIX,
+                                     BST_COMP1_CSV,
+                                     BST_COMP2_CSV,
+                                     BST_COMPV_CSV,
+                                     BST_POOL1_CSV,
+                                     BST_POOL2_CSV,
+                                     BST_POOLH1_CSV,
+                                     BST_POOLH2_CSV,
+                                     BST_POOLS_CSV,
+                                     BST_CTRL_CSV,
+                                     BST_CTRLH_CSV,
+                                     BST_INCR_IDX,
+                                     BST_INCR_PGN,
+                                     BST_SAMEN1_IDX,
+                                     BST_SAMEN1_PGN,
+                                     BST_SAMEN2_IDX,
+                                     BST_SAMEN2_PGN,
+                                     TestConstants.BST_COMPETITIE1_PGN,
                                      TestConstants.BST_COMPETITIE2_PGN,
+                                     "competitie1.idx",
+                                     "competitie2.idx",
                                      TestConstants.BST_COMPETITIE_CSV,
                                      TestConstants.BST_COMPETITIEH_CSV,
                                      TestConstants.BST_GESCHIEDENIS_CSV,
@@ -93,6 +163,114 @@ public class ELOBerekenaarTest extends BatchTest {
     }
   }
 
+  @Test
+  public void testControlepunt() throws BestandException, IOException {
+    var temp      = getTemp() + File.separator;
+    var volledig  =
+        Files.readAllBytes(Paths.get(temp + TestConstants.BST_COMPETITIE1_PGN));
+    // Eerst enkel de eerste 75 partijen en dan het volledige bestand.
+    var partijen  = 0;
+    var deel      = volledig.length;
+    for (var i = 0; i < volledig.length - 7; i++) {
+      if ((i == 0 || volledig[i - 1] == '\n')
+          && new String(volledig, i, 7).equals("[Event ")) {
+        partijen++;
+        if (partijen == 76) {
+          deel  = i;
+          break;
+        }
+      }
+    }
+    var deelBytes = new byte[deel];
+    System.arraycopy(volledig, 0, deelBytes, 0, deel);
+
+    String[]  args  = new String[] {"--toernooiBestand=" + temp
+                                      + "incrementeel",
+                                    TestConstants.PAR_SPELERBESTAND};
+    String[]  ckp   = new String[] {"--toernooiBestand=" + temp
+                                      + "incrementeel",
+                                    TestConstants.PAR_SPELERBESTAND,
+                                    PAR_CONTROLEPUNT};
+
+    // Met controlepunt.
+    Files.write(Paths.get(temp + BST_INCR_PGN), deelBytes);
+    before();
+    ELOBerekenaar.execute(ckp);
+    after();
+    assertEquals(0, err.size());
+    assertTrue(Files.exists(Paths.get(temp + BST_COMP_CKP)));
+    assertTrue(Files.exists(Paths.get(temp + BST_INCR_IDX)));
+
+    var controlepunt  =
+        Controlepunt.laad(temp + TestConstants.BST_COMPETITIE_CSV,
+                          temp + TestConstants.BST_COMPETITIE_CSV,
+                          ELOBerekenaar.getOpties());
+    var overslaan     =
+        controlepunt.getPartijen(temp + BST_INCR_PGN,
+                                 PgnIndex.laad(temp + BST_INCR_PGN));
+    assertTrue(overslaan > 0);
+    assertTrue(overslaan <= 75);
+    // Met andere opties is het controlepunt niet geldig.
+    assertEquals(0,
+                 Controlepunt.laad(temp + TestConstants.BST_COMPETITIE_CSV)
+                             .getPartijen(temp + BST_INCR_PGN,
+                                          PgnIndex.laad(temp + BST_INCR_PGN)));
+
+    Files.write(Paths.get(temp + BST_INCR_PGN), volledig);
+    before();
+    ELOBerekenaar.execute(ckp);
+    after();
+    assertEquals(0, err.size());
+    assertEquals(TestConstants.TOT_PARTIJEN, out.get(14).split(":")[1].trim());
+
+    Files.copy(Paths.get(temp + TestConstants.BST_COMPETITIE_CSV),
+               Paths.get(temp + BST_CTRL_CSV),
+               StandardCopyOption.REPLACE_EXISTING);
+    Files.copy(Paths.get(temp + TestConstants.BST_COMPETITIEH_CSV),
+               Paths.get(temp + BST_CTRLH_CSV),
+               StandardCopyOption.REPLACE_EXISTING);
+
+    // Een tweede run op het ongewijzigde bestand slaat alle partijen over.
+    before();
+    ELOBerekenaar.execute(ckp);
+    after();
+    assertEquals(0, err.size());
+    assertEquals(TestConstants.TOT_PARTIJEN, out.get(14).split(":")[1].trim());
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(temp + BST_CTRL_CSV),
+            Bestand.openInvoerBestand(temp
+                                      + TestConstants.BST_COMPETITIE_CSV)));
+
+    // Zonder controlepunt worden er geen bestanden naast de invoer gezet.
+    beforeTest();
+    Files.delete(Paths.get(temp + BST_INCR_IDX));
+    Files.write(Paths.get(temp + BST_INCR_PGN), deelBytes);
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+    assertEquals(0, err.size());
+    assertFalse(Files.exists(Paths.get(temp + BST_COMP_CKP)));
+    assertFalse(Files.exists(Paths.get(temp + BST_INCR_IDX)));
+
+    Files.write(Paths.get(temp + BST_INCR_PGN), volledig);
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+    assertEquals(0, err.size());
+
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(temp + BST_CTRL_CSV),
+            Bestand.openInvoerBestand(temp
+                                      + TestConstants.BST_COMPETITIE_CSV)));
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(temp + BST_CTRLH_CSV),
+            Bestand.openInvoerBestand(temp
+                                      + TestConstants.BST_COMPETITIEH_CSV)));
+  }
+
   @Test
   public void testEnkelMaxVerschil() {
     String[]  args  = new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
@@ -128,6 +306,48 @@ public class ELOBerekenaarTest extends BatchTest {
                  err.get(0));
   }
 
+  @Test
+  public void testHistorie() {
+    before();
+    ELOBerekenaar.execute(new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                                        TestConstants.PAR_SPELERBESTAND});
+    after();
+
+    assertEquals(0, err.size());
+
+    before();
+    ELOBerekenaar.execute(new String[] {TestConstants.PAR_SPELERBESTAND,
+                                        "--historie=Speler, 03",
+                                        "--datum=1998.01.20"});
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals("Speler, 03", out.get(13).split(":")[1].trim());
+    assertEquals("1998.01.20", out.get(14).split(":")[1].trim());
+    assertEquals("1678", out.get(15).split(":")[1].trim());
+    assertEquals("9", out.get(16).split(":")[1].trim());
+    assertTrue(new File(getTemp() + File.separator + BST_COMPH_HIX).exists());
+
+    before();
+    ELOBerekenaar.execute(new String[] {TestConstants.PAR_SPELERBESTAND,
+                                        "--historie=Speler, 03"});
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals("1997.10.03  1615     1", out.get(14));
+    assertEquals("1998.06.05  1698    23", out.get(36));
+
+    before();
+    ELOBerekenaar.execute(new String[] {TestConstants.PAR_SPELERBESTAND,
+                                        "--historie=Niemand"});
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals(MessageFormat.format(
+          resourceBundle.getString("message.geen.historie"), "Niemand"),
+                 out.get(14));
+  }
+
   @Test
   public void testLeeg() {
     String[]  args  = new String[] {};
@@ -337,6 +557,308 @@ public class ELOBerekenaarTest extends BatchTest {
                                         + TestConstants.BST_GESCHIEDENIS_CSV)));
   }
 
+  @Test
+  public void testMomentopnamen() throws BestandException, IOException {
+    var temp      = getTemp() + File.separator;
+    var volledig  =
+        Files.readAllBytes(Paths.get(temp + TestConstants.BST_COMPETITIE1_PGN));
+    // Eerst de laatste 75 partijen. Daarna komen de oudere partijen erbij.
+    var partijen  = 0;
+    var deel      = 0;
+    for (var i = 0; i < volledig.length - 7; i++) {
+      if ((i == 0 || volledig[i - 1] == '\n')
+          && new String(volledig, i, 7).equals("[Event ")) {
+        partijen++;
+        if (partijen == 76) {
+          deel  = i;
+          break;
+        }
+      }
+    }
+    var deelBytes = new byte[volledig.length - deel];
+    System.arraycopy(volledig, deel, deelBytes, 0, deelBytes.length);
+
+    String[]  args  = new String[] {"--toernooiBestand=" + temp
+                                      + "incrementeel",
+                                    "--" + CaissaTools.PAR_MOMENTOPNAMEN,
+                                    TestConstants.PAR_SPELERBESTAND};
+
+    Files.write(Paths.get(temp + BST_INCR_PGN), deelBytes);
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+    assertEquals(0, err.size());
+    assertTrue(Files.exists(Paths.get(temp + BST_COMP_SNP)));
+
+    // Het resultaat moet gelijk zijn aan dat van een volledige berekening.
+    Files.write(Paths.get(temp + BST_INCR_PGN), volledig);
+    for (var run = 0; run < 2; run++) {
+      before();
+      ELOBerekenaar.execute(args);
+      after();
+
+      assertEquals(0, err.size());
+      assertTrue(
+          Bestand.equals(
+              Bestand.openInvoerBestand(CLASSLOADER, BST_COMP_TOT_CSV),
+              Bestand.openInvoerBestand(temp
+                                        + TestConstants.BST_COMPETITIE_CSV)));
+      assertTrue(
+          Bestand.equals(
+              Bestand.openInvoerBestand(CLASSLOADER, BST_COMPH_TOT_CSV),
+              Bestand.openInvoerBestand(temp
+                                        + TestConstants.BST_COMPETITIEH_CSV)));
+    }
+
+    // Een geschiedenis die niet op datum staat wordt herschreven.
+    var geschiedenis  = Paths.get(temp + TestConstants.BST_COMPETITIEH_CSV);
+    var regels        =
+        Files.readAllLines(geschiedenis, StandardCharsets.ISO_8859_1);
+    List<String>  omgekeerd = new ArrayList<>(regels);
+    Collections.reverse(omgekeerd);
+    Files.write(geschiedenis, omgekeerd, StandardCharsets.ISO_8859_1);
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+    var herschreven   =
+        Files.readAllLines(geschiedenis, StandardCharsets.ISO_8859_1);
+    Collections.sort(regels);
+    Collections.sort(herschreven);
+    assertEquals(regels, herschreven);
+  }
+
+  @Test
+  public void testPeriode() {
+    before();
+    ELOBerekenaar.execute(new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                                        TestConstants.PAR_SPELERBESTAND,
+                                        "--periode=jaar"});
+    after();
+
+    assertEquals(1, err.size());
+    assertEquals(MessageFormat.format(
+          resourceBundle.getString(CaissaTools.ERR_PERIODE), "jaar"),
+                 err.get(0));
+
+    before();
+    ELOBerekenaar.execute(new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                                        TestConstants.PAR_SPELERBESTAND,
+                                        "--periode=maand"});
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals(TestConstants.TOT_PARTIJEN, out.get(15).split(":")[1].trim());
+    assertTrue(new File(getTemp() + File.separator
+                        + TestConstants.BST_COMPETITIE_CSV).exists());
+    assertTrue(new File(getTemp() + File.separator
+                        + TestConstants.BST_COMPETITIEH_CSV).exists());
+  }
+
+  @Test
+  public void testPeriodeExtraInfo() throws BestandException {
+    before();
+    ELOBerekenaar.execute(new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                                        TestConstants.PAR_SPELERBESTAND,
+                                        PAR_EXTRAINFO, "--periode=week"});
+    after();
+
+    assertEquals(0, err.size());
+    // Dezelfde kolommen als partij per partij.
+    var regels  = 0;
+    try (var invoer =
+            new CsvBestand.Builder()
+                          .setBestand(getTemp() + File.separator
+                                      + TestConstants.BST_COMPETITIEH_CSV)
+                          .setHeader(false)
+                          .build()) {
+      while (invoer.hasNext()) {
+        var veld  = invoer.next();
+        assertEquals(7, veld.length);
+        assertFalse(veld[5].isEmpty());
+        assertFalse(veld[6].isEmpty());
+        regels++;
+      }
+    }
+    assertTrue(regels > 0);
+  }
+
+  @Test
+  public void testPools() throws BestandException {
+    var       temp  = getTemp() + File.separator;
+    String[]  args  = new String[] {"--toernooiBestand=" + temp
+                                      + "competitie1;" + temp + "competitie2",
+                                    "--poolTag=Event",
+                                    TestConstants.PAR_SPELERBESTAND};
+
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals("214", out.get(16).split(":")[1].trim());
+    assertEquals("Testing 97/98, Testing 98/99",
+                 out.get(17).split(":")[1].trim());
+    // Elke pool apart geeft hetzelfde als een bestand alleen.
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(CLASSLOADER, BST_COMP_TOT_CSV),
+            Bestand.openInvoerBestand(temp + BST_POOL1_CSV)));
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(CLASSLOADER, BST_COMPH_TOT_CSV),
+            Bestand.openInvoerBestand(temp + BST_POOLH1_CSV)));
+    assertTrue(Files.exists(Paths.get(temp + BST_POOL2_CSV)));
+    assertFalse(Files.exists(Paths.get(temp
+                                       + TestConstants.BST_COMPETITIE_CSV)));
+  }
+
+  @Test
+  public void testPoolsZelfdeBestand() throws IOException {
+    var temp  = getTemp() + File.separator;
+    Files.write(Paths.get(temp + BST_POOLS_CSV),
+                List.of("\"waarde\",\"pool\"",
+                        "\"Testing 97/98\",\"A/B\"",
+                        "\"Testing 98/99\",\"A_B\""),
+                StandardCharsets.ISO_8859_1);
+
+    before();
+    ELOBerekenaar.execute(new String[] {"--toernooiBestand=" + temp
+                                          + "competitie1;" + temp
+                                          + "competitie2",
+                                        "--poolBestand=" + temp
+                                          + BST_POOLS_CSV,
+                                        TestConstants.PAR_SPELERBESTAND});
+    after();
+
+    assertEquals(1, err.size());
+    assertEquals(MessageFormat.format(
+          resourceBundle.getString(CaissaTools.ERR_POOLNAAM), "A/B", "A_B"),
+                 err.get(0));
+    assertFalse(Files.exists(Paths.get(temp + "competitie-A_B.csv")));
+  }
+
+  @Test
+  public void testSamenvoegen() throws BestandException, IOException {
+    var temp      = getTemp() + File.separator;
+    var volledig  =
+        Files.readAllBytes(Paths.get(temp + TestConstants.BST_COMPETITIE1_PGN));
+    // De partijen om beurt over 2 bestanden verdelen.
+    var delen     = new ByteArrayOutputStream[] {new ByteArrayOutputStream(),
+                                                 new ByteArrayOutputStream()};
+    var partijen  = 0;
+    var begin     = 0;
+    for (var i = 1; i <= volledig.length; i++) {
+      if (i == volledig.length
+          || (volledig[i - 1] == '\n'
+              && i < volledig.length - 7
+              && new String(volledig, i, 7).equals("[Event "))) {
+        delen[partijen % 2].write(volledig, begin, i - begin);
+        partijen++;
+        begin = i;
+      }
+    }
+    Files.write(Paths.get(temp + BST_SAMEN1_PGN), delen[0].toByteArray());
+    Files.write(Paths.get(temp + BST_SAMEN2_PGN), delen[1].toByteArray());
+
+    for (var toernooien : new String[] {temp + "samen1;" + temp + "samen2",
+                                        temp + "samen?.pgn"}) {
+      verwijderBestanden(temp,
+                         new String[] {TestConstants.BST_COMPETITIE_CSV,
+                                       TestConstants.BST_COMPETITIEH_CSV});
+      String[]  args  = new String[] {"--toernooiBestand=" + toernooien,
+                                      TestConstants.PAR_SPELERBESTAND};
+
+      before();
+      ELOBerekenaar.execute(args);
+      after();
+
+      assertEquals(0, err.size());
+      assertEquals(TestConstants.TOT_PARTIJEN,
+                   out.get(15).split(":")[1].trim());
+      assertTrue(
+          Bestand.equals(
+              Bestand.openInvoerBestand(CLASSLOADER, BST_COMP_TOT_CSV),
+              Bestand.openInvoerBestand(temp
+                                        + TestConstants.BST_COMPETITIE_CSV)));
+      assertTrue(
+          Bestand.equals(
+              Bestand.openInvoerBestand(CLASSLOADER, BST_COMPH_TOT_CSV),
+              Bestand.openInvoerBestand(temp
+                                        + TestConstants.BST_COMPETITIEH_CSV)));
+    }
+  }
+
+  @Test
+  public void testSpelerOpslag() throws BestandException, IOException {
+    var       csv   = Paths.get(getTemp(), TestConstants.BST_COMPETITIE_CSV);
+    String[]  args  = new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                                    TestConstants.PAR_SPELERBESTAND,
+                                    PAR_EINDDATUM, PAR_EXPORT, PAR_OPSLAG};
+
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals("52", out.get(17).split(":")[1].trim());
+    assertTrue(new File(getTemp() + File.separator + BST_COMP_SPL).exists());
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(CLASSLOADER, BST_COMP_CSV),
+            Bestand.openInvoerBestand(csv.toString())));
+
+    // Zonder export blijft het spelerBestand ongewijzigd.
+    args  = new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                          TestConstants.PAR_SPELERBESTAND, PAR_OPSLAG};
+
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals(TestConstants.TOT_PARTIJEN, out.get(14).split(":")[1].trim());
+    assertEquals("98", out.get(15).split(":")[1].trim());
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(CLASSLOADER, BST_COMP_CSV),
+            Bestand.openInvoerBestand(csv.toString())));
+
+    // Een export zonder nieuwe partijen schrijft de ratings uit de opslag.
+    args  = new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                          TestConstants.PAR_SPELERBESTAND, PAR_EXPORT,
+                          PAR_OPSLAG};
+
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(CLASSLOADER, BST_COMP_TOT_CSV),
+            Bestand.openInvoerBestand(csv.toString())));
+
+    // Een export die nog klopt wordt niet opnieuw geschreven.
+    var tijdstip  = Files.getLastModifiedTime(csv);
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals(tijdstip, Files.getLastModifiedTime(csv));
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(CLASSLOADER, BST_COMP_TOT_CSV),
+            Bestand.openInvoerBestand(csv.toString())));
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(CLASSLOADER, BST_COMPH_TOT_CSV),
+            Bestand.openInvoerBestand(getTemp() + File.separator
+                                      + TestConstants.BST_COMPETITIEH_CSV)));
+  }
+
   @Test
   public void testTweeBestanden() throws BestandException {
     String[]  args  = new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
@@ -387,4 +909,46 @@ public class ELOBerekenaarTest extends BatchTest {
             Bestand.openInvoerBestand(getTemp() + File.separator
                                       + TestConstants.BST_COMPETITIEH_CSV)));
   }
+
+  @Test
+  public void testVariantLeeg() {
+    before();
+    ELOBerekenaar.execute(new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                                        TestConstants.PAR_SPELERBESTAND,
+                                        "--varianten=//;;20/800/1500"});
+    after();
+
+    assertEquals(1, err.size());
+    assertEquals(MessageFormat.format(
+          resourceBundle.getString(CaissaTools.ERR_VARIANT), ""),
+                 err.get(0));
+    assertFalse(Files.exists(Paths.get(getTemp() + File.separator
+                                       + BST_COMPV_CSV)));
+  }
+
+  @Test
+  public void testVarianten() throws BestandException {
+    String[]  args  = new String[] {TestConstants.PAR_TOERNOOIBESTAND1,
+                                    TestConstants.PAR_SPELERBESTAND,
+                                    "--varianten=//;20/800/1500"};
+
+    before();
+    ELOBerekenaar.execute(args);
+    after();
+
+    var temp  = getTemp() + File.separator;
+    assertEquals(0, err.size());
+    assertEquals(temp + TestConstants.BST_COMPETITIE_CSV,
+                 out.get(13).split(":")[1].trim());
+    assertEquals(TestConstants.TOT_PARTIJEN, out.get(14).split(":")[1].trim());
+    assertEquals("2", out.get(15).split(":")[1].trim());
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(CLASSLOADER, BST_COMP_TOT_CSV),
+            Bestand.openInvoerBestand(temp + BST_COMP1_CSV)));
+    assertTrue(Files.exists(Paths.get(temp + BST_COMP2_CSV)));
+    assertTrue(Files.exists(Paths.get(temp + BST_COMPV_CSV)));
+    assertFalse(Files.exists(Paths.get(temp
+                                       + TestConstants.BST_COMPETITIE_CSV)));
+  }
 }
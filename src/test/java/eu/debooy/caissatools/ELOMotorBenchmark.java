@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.ELO;
+import eu.debooy.caissa.PGN;
+import eu.debooy.caissa.Spelerinfo;
+import eu.debooy.doosutils.Datum;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+
+/**
+ * Meet hoeveel partijen per seconde de ELOMotor verwerkt tegenover de
+ * oorspronkelijke verwerking met Spelerinfo objecten, een TreeMap op naam en
+ * Date datums. De partijen worden vooraf willekeurig (met een vaste seed)
+ * aangemaakt zodat enkel het rekenen gemeten wordt.
+ *
+ * Gebruik: java eu.debooy.caissatools.ELOMotorBenchmark [partijen] [spelers]
+ *
+ * @author Marco de Booij
+ */
+public final class ELOMotorBenchmark {
+  private ELOMotorBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    var aantal  = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    var spelers = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+    var       random    = new Random(1959L);
+    String[]  wit       = new String[aantal];
+    String[]  zwart     = new String[aantal];
+    String[]  datums    = new String[aantal];
+    int[]     uitslagen = new int[aantal];
+    for (var i = 0; i < aantal; i++) {
+      var een   = random.nextInt(spelers);
+      var twee  = (een + 1 + random.nextInt(spelers - 1)) % spelers;
+      wit[i]        = String.format("Speler, %05d", een);
+      zwart[i]      = String.format("Speler, %05d", twee);
+      datums[i]     = String.format("%04d.%02d.%02d", 2000 + i * 20 / aantal,
+                                    1 + (i / 28) % 12, 1 + i % 28);
+      uitslagen[i]  = random.nextInt(3);
+    }
+
+    // Opwarmen
+    meetOud(wit, zwart, datums, uitslagen);
+    meetNieuw(wit, zwart, datums, uitslagen);
+
+    var oud   = meetOud(wit, zwart, datums, uitslagen);
+    var nieuw = meetNieuw(wit, zwart, datums, uitslagen);
+
+    System.out.println(String.format("%d partijen tussen %d spelers", aantal,
+                                     spelers));
+    System.out.println(String.format("Oud:   %10.0f partijen/s",
+                                     aantal * 1e9 / oud));
+    System.out.println(String.format("Nieuw: %10.0f partijen/s",
+                                     aantal * 1e9 / nieuw));
+    System.out.println(String.format("Factor: %.1f", (double) oud / nieuw));
+  }
+
+  private static long meetNieuw(String[] wit, String[] zwart,
+                                String[] datums, int[] uitslagen) {
+    var begin = System.nanoTime();
+    var motor = new ELOMotor(1600, null, 400);
+    for (var i = 0; i < wit.length; i++) {
+      var dag     = ELOMotor.naarDag(datums[i]);
+      var witId   = motor.getId(wit[i]);
+      if (witId < 0) {
+        witId     = motor.voegToe(wit[i], dag);
+      }
+      var zwartId = motor.getId(zwart[i]);
+      if (zwartId < 0) {
+        zwartId   = motor.voegToe(zwart[i], dag);
+      }
+      motor.verwerk(witId, zwartId, uitslagen[i], dag);
+    }
+    if (motor.size() < 0) {
+      System.out.println(motor.size());
+    }
+
+    return System.nanoTime() - begin;
+  }
+
+  private static long meetOud(String[] wit, String[] zwart, String[] datums,
+                              int[] uitslagen) throws ParseException {
+    var                   begin       = System.nanoTime();
+    List<Spelerinfo>      spelerinfos = new ArrayList<>();
+    Map<String, Integer>  spelers     = new TreeMap<>();
+    for (var i = 0; i < wit.length; i++) {
+      var eloDatum  = Datum.toDate(datums[i], PGN.PGN_DATUM_FORMAAT);
+      for (var naam : new String[] {wit[i], zwart[i]}) {
+        if (!spelers.containsKey(naam)) {
+          var spelerinfo  = new Spelerinfo();
+          spelerinfo.setEerstePartij(eloDatum);
+          spelerinfo.setElo(1600);
+          spelerinfo.setNaam(naam);
+          spelerinfo.setPartijen(0);
+          spelerinfo.setSpelerId(spelers.size());
+          spelerinfos.add(spelerinfo);
+          spelers.put(naam, spelers.size());
+        }
+      }
+      var witInfo   = spelerinfos.get(spelers.get(wit[i]));
+      var zwartInfo = spelerinfos.get(spelers.get(zwart[i]));
+      var witElo    = witInfo.getElo();
+      var zwartElo  = zwartInfo.getElo();
+      pasAan(witInfo,   zwartElo, uitslagen[i], eloDatum);
+      pasAan(zwartInfo, witElo,   2 - uitslagen[i], eloDatum);
+    }
+    if (spelerinfos.size() < 0) {
+      System.out.println(spelerinfos.size());
+    }
+
+    return System.nanoTime() - begin;
+  }
+
+  private static void pasAan(Spelerinfo spelerinfo, Integer andereElo,
+                             int uitslag, Date eloDatum) {
+    var vorigeElo = spelerinfo.getElo();
+    var elo       = ELO.berekenELO(vorigeElo, uitslag, andereElo,
+                                   spelerinfo.getPartijen());
+    spelerinfo.setElo(elo);
+    spelerinfo.setElogroei(elo - vorigeElo);
+    spelerinfo.setLaatstePartij(eloDatum);
+    spelerinfo.addPartij();
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.ELO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class ELOMotorTest {
+  @Test
+  public void testBerekenElo() {
+    var motor = new ELOMotor(1600, null, 400);
+    for (var eigen = 1000; eigen <= 2800; eigen += 37) {
+      for (var andere = 1000; andere <= 2800; andere += 41) {
+        for (var uitslag = 0; uitslag < 3; uitslag++) {
+          for (var gespeeld : new int[] {0, ELO.MIN_PARTIJEN - 1,
+                                         ELO.MIN_PARTIJEN, 100}) {
+            assertEquals(eigen + "-" + andere + " " + uitslag,
+                         (int) ELO.berekenELO(eigen, uitslag, andere,
+                                              gespeeld),
+                         motor.berekenElo(eigen, uitslag, andere, gespeeld));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBerekenEloVast() {
+    var motor = new ELOMotor(1600, 20, 400);
+    for (var eigen = 1000; eigen <= 2800; eigen += 37) {
+      for (var andere = 1000; andere <= 2800; andere += 41) {
+        for (var uitslag = 0; uitslag < 3; uitslag++) {
+          assertEquals(eigen + "-" + andere + " " + uitslag,
+                       (int) ELO.berekenELO(eigen, uitslag, andere, 20,
+                                            400),
+                       motor.berekenElo(eigen, uitslag, andere, 0));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDatum() {
+    assertEquals(20240229, ELOMotor.naarDag("2024.02.29"));
+    assertEquals(-1, ELOMotor.naarDag("2023.02.29"));
+    assertEquals(-1, ELOMotor.naarDag("1900.02.29"));
+    assertEquals(20000229, ELOMotor.naarDag("2000.02.29"));
+    assertEquals(-1, ELOMotor.naarDag("2024.13.01"));
+    assertEquals(-1, ELOMotor.naarDag("2024.??.??"));
+    assertEquals(-1, ELOMotor.naarDag(""));
+    assertEquals("2024.02.29", ELOMotor.naarDatum(20240229));
+    assertEquals("", ELOMotor.naarDatum(ELOMotor.GEEN));
+  }
+
+  @Test
+  public void testPeriode() {
+    var motor = new ELOMotor(1600, null, 400);
+    var a     = motor.voegToe("Alfred", 20240101);
+    var b     = motor.voegToe("Bertha", 20240101);
+    var c     = motor.voegToe("Cecilia", 20240101);
+    var d     = motor.voegToe("Dirk", 20240101);
+    motor.verwerk(c, d, 2, 20240101);
+
+    var spelers =
+        motor.verwerkPeriode(new int[] {a, a, b}, new int[] {b, c, d},
+                             new int[] {2, 0, 1},
+                             new int[] {20240102, 20240109, 20240109}, 3);
+
+    // Elke partij rekent met de ratings van voor de periode.
+    var tegenB  = motor.berekenElo(1600, 2, 1600, 0) - 1600;
+    var tegenC  = motor.berekenElo(1600, 0, 1615, 1) - 1600;
+    assertArrayEquals(new int[] {a, b, c, d}, spelers);
+    assertEquals(1600 + tegenB + tegenC, motor.getElo(a));
+    assertEquals(tegenB + tegenC, motor.getGroei(a));
+    assertEquals(2, motor.getPartijen(a));
+    assertEquals(20240109, motor.getLaatstePartij(a));
+    assertEquals(motor.berekenElo(1600, 0, 1600, 0)
+                  + motor.berekenElo(1600, 1, 1585, 1) - 1600,
+                 motor.getElo(b));
+    assertEquals(motor.berekenElo(1615, 2, 1600, 1), motor.getElo(c));
+    assertEquals(2, motor.getPartijen(d));
+  }
+
+  @Test
+  public void testPeriodeEnkel() {
+    var een   = new ELOMotor(1600, null, 400);
+    var twee  = new ELOMotor(1600, null, 400);
+    for (var motor : new ELOMotor[] {een, twee}) {
+      motor.voegToe("Alfred", 20240101);
+      motor.voegToe("Bertha", 20240101);
+    }
+
+    // Met één partij per periode is er geen verschil.
+    for (var i = 0; i < 20; i++) {
+      een.verwerk(i % 2, 1 - i % 2, i % 3, 20240101 + i);
+      twee.verwerkPeriode(new int[] {i % 2}, new int[] {1 - i % 2},
+                          new int[] {i % 3}, new int[] {20240101 + i}, 1);
+    }
+
+    for (var id = 0; id < 2; id++) {
+      assertEquals(een.getElo(id), twee.getElo(id));
+      assertEquals(een.getGroei(id), twee.getGroei(id));
+      assertEquals(een.getOfficieel(id), twee.getOfficieel(id));
+      assertEquals(een.getMinElo(id), twee.getMinElo(id));
+      assertEquals(een.getMaxDatum(id), twee.getMaxDatum(id));
+    }
+  }
+
+  @Test
+  public void testVolgorde() {
+    var motor = new ELOMotor(1600, null, 400);
+    var c     = motor.voegToe("Cecilia", 20240101);
+    var a     = motor.voegToe("Alfred", 20240101);
+    var b     = motor.voegToe("Bertha", 20240102);
+
+    motor.verwerk(a, b, 2, 20240102);
+
+    assertEquals(1615, motor.getElo(a));
+    assertEquals(1585, motor.getElo(b));
+    assertEquals(1, motor.getPartijen(a));
+    assertEquals(20240102, motor.getLaatstePartij(b));
+    assertEquals(ELOMotor.GEEN, motor.getLaatstePartij(c));
+    assertArrayEquals(new Integer[] {a, b, c}, motor.getVolgorde());
+  }
+}
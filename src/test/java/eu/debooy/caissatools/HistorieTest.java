@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class HistorieTest {
+  private static final  String  REGELS  =
+      "\"Speler, 01\",1998.01.02,1615,1,15\n"
+      + "\"Speler, 02\",1998.01.02,1585,1,-15\n"
+      + "\"Speler, 01\",1998.01.09,1629,2,14\n"
+      + "\"Speler, 01\",1998.01.16,1640,3,11\n";
+
+  private Path  csv;
+  private Path  map;
+
+  @After
+  public void after() throws IOException {
+    Files.deleteIfExists(
+        Paths.get(Historie.getHistorienaam(csv.toString())));
+    Files.deleteIfExists(csv);
+    Files.deleteIfExists(map);
+  }
+
+  @Before
+  public void before() throws IOException {
+    map = Files.createTempDirectory("historie");
+    csv = map.resolve("geschiedenis.csv");
+  }
+
+  private void schrijf(String regels, StandardOpenOption... opties)
+      throws IOException {
+    Files.write(csv, regels.getBytes(StandardCharsets.UTF_8), opties);
+  }
+
+  @Test
+  public void testCompacteren() throws BestandException, IOException {
+    schrijf(REGELS);
+    // Opnieuw berekend vanaf de tweede partij.
+    schrijf("\"Speler, 01\",1998.01.09,1630,2,15\n",
+            StandardOpenOption.APPEND);
+
+    var curve = Historie.getCurve(csv.toString(), "Speler, 01");
+
+    assertEquals(2, curve.size());
+    assertEquals(1630, curve.get(1).getElo());
+    assertEquals(19980109, curve.get(1).getDatum());
+  }
+
+  @Test
+  public void testIncrementeel() throws BestandException, IOException {
+    schrijf(REGELS);
+
+    assertEquals(3, Historie.getCurve(csv.toString(), "Speler, 01").size());
+
+    schrijf("\"Speler, 01\",1998.01.23,1650,4,10\n",
+            StandardOpenOption.APPEND);
+
+    assertEquals(4, Historie.getCurve(csv.toString(), "Speler, 01").size());
+    assertEquals(1650, Historie.getOpDatum(csv.toString(), "Speler, 01",
+                                           19980131).getElo());
+
+    // Ingekort en anders aangevuld.
+    schrijf("\"Speler, 01\",1998.01.02,1585,1,-15\n",
+            StandardOpenOption.TRUNCATE_EXISTING);
+
+    assertEquals(1, Historie.getCurve(csv.toString(), "Speler, 01").size());
+    assertTrue(Historie.getCurve(csv.toString(), "Speler, 02").isEmpty());
+  }
+
+  @Test
+  public void testOpDatum() throws BestandException, IOException {
+    schrijf(REGELS);
+
+    assertNull(Historie.getOpDatum(csv.toString(), "Speler, 01", 19980101));
+    assertEquals(1615, Historie.getOpDatum(csv.toString(), "Speler, 01",
+                                           19980102).getElo());
+    assertEquals(1629, Historie.getOpDatum(csv.toString(), "Speler, 01",
+                                           19980115).getElo());
+    assertEquals(3, Historie.getOpDatum(csv.toString(), "Speler, 01",
+                                        19991231).getPartijen());
+    assertEquals(1585, Historie.getOpDatum(csv.toString(), "Speler, 02",
+                                           19991231).getElo());
+    assertNull(Historie.getOpDatum(csv.toString(), "Speler, 03", 19991231));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class NaamIndexTest {
+  @Test
+  public void testAliasBestand() throws BestandException, IOException {
+    Path  bestand = Files.createTempFile("alias", ".csv");
+    try {
+      Files.delete(bestand);
+      var naamIndex = new NaamIndex(bestand.toString(), 0.8, false);
+      naamIndex.voegToe("de Booij, Marco");
+      assertEquals("de Booij, Marco", naamIndex.getNaam("De Booij, M."));
+      naamIndex.bewaar();
+
+      assertTrue(Files.exists(bestand));
+      var regels  = Files.readAllLines(bestand, StandardCharsets.UTF_8);
+      assertEquals(2, regels.size());
+
+      var gelezen = new NaamIndex(bestand.toString(), 0, false);
+      gelezen.laad();
+      assertEquals("de Booij, Marco", gelezen.getNaam("De Booij, M."));
+
+      // Een ander aliasBestand geeft andere opties.
+      Files.write(bestand, "alias,naam\n".getBytes(StandardCharsets.UTF_8));
+      var leeg    = new NaamIndex(bestand.toString(), 0, false);
+      leeg.laad();
+      assertNotEquals(gelezen.getOpties(), leeg.getOpties());
+    } finally {
+      Files.deleteIfExists(bestand);
+    }
+  }
+
+  @Test
+  public void testInitialen() {
+    var naamIndex = new NaamIndex(null, 0.8, false);
+    naamIndex.voegToe("de Booij, Marco");
+    naamIndex.voegToe("Speler, Jan");
+
+    assertEquals("de Booij, Marco", naamIndex.zoek("De Booij, M."));
+    assertEquals("de Booij, Marco", naamIndex.zoek("de Booij, Marco"));
+    assertEquals("Speler, Jan", naamIndex.zoek("Spéler, Jan"));
+    assertNull(naamIndex.zoek("Andere, Karel"));
+  }
+
+  @Test
+  public void testTwijfel() {
+    var naamIndex = new NaamIndex(null, 0.8, false);
+    naamIndex.voegToe("Janssens, Jan");
+    naamIndex.voegToe("Janssens, Jef");
+
+    assertNull(naamIndex.zoek("Janssens, J."));
+    assertEquals("Janssens, J.", naamIndex.getNaam("Janssens, J."));
+  }
+
+  @Test
+  public void testVoorstel() {
+    var naamIndex = new NaamIndex(null, 0.8, true);
+    naamIndex.voegToe("de Booij, Marco");
+
+    assertEquals("De Booij, M.", naamIndex.getNaam("De Booij, M."));
+  }
+
+  @Test
+  public void testZoekVooraf() throws BestandException, IOException {
+    Path  pgn = Files.createTempFile("namen", ".pgn");
+    try {
+      Files.write(pgn, ("[Event \"Test\"]\n"
+                        + "[White \"de Booij, Marco\"]\n"
+                        + "[Black \"Speler, Jan\"]\n"
+                        + "[Result \"1-0\"]\n\n1. e4 e5 1-0\n\n"
+                        + "[Event \"Test\"]\n"
+                        + "[White \"Speler, Jan\"]\n"
+                        + "[Black \"De Booij, M.\"]\n"
+                        + "[Result \"0-1\"]\n\n1. e4 e5 0-1\n\n")
+                           .getBytes(StandardCharsets.UTF_8));
+
+      // De alfabetisch kleinste naam en niet de eerste partij.
+      var naamIndex = new NaamIndex(null, 0.8, false);
+      naamIndex.zoekVooraf(new String[] {pgn.toString()});
+      assertEquals("De Booij, M.", naamIndex.getNaam("de Booij, Marco"));
+      assertEquals("De Booij, M.", naamIndex.getNaam("De Booij, M."));
+
+      // Een gekende naam blijft de vaste naam.
+      var gekend    = new NaamIndex(null, 0.8, false);
+      gekend.voegToe("de Booij, Marco");
+      gekend.zoekVooraf(new String[] {pgn.toString()});
+      assertEquals("de Booij, Marco", gekend.getNaam("De Booij, M."));
+    } finally {
+      Files.deleteIfExists(pgn);
+      Files.deleteIfExists(Paths.get(PgnIndex.getIndexnaam(pgn.toString())));
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.CaissaUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+
+/**
+ * De oorspronkelijke verwerking van de trajecten uit PgnToJson. Dient als
+ * referentie voor de TrajectVolger.
+ *
+ * @author Marco de Booij
+ */
+final class OudeTrajecten {
+  private static final  Map<String, Integer>  STUKKEN = new HashMap<>();
+  static {
+    STUKKEN.put("q", 11);
+    STUKKEN.put("r", 12);
+    STUKKEN.put("b", 13);
+    STUKKEN.put("n", 14);
+    STUKKEN.put("k", 15);
+    STUKKEN.put("p", 16);
+    STUKKEN.put("Q", 21);
+    STUKKEN.put("R", 22);
+    STUKKEN.put("B", 23);
+    STUKKEN.put("N", 24);
+    STUKKEN.put("K", 25);
+    STUKKEN.put("P", 26);
+  }
+
+  private OudeTrajecten() {}
+
+  private static String getSleutel(String id) {
+    return STUKKEN.get(id.substring(0, 1)) + id.substring(2)
+            + id.substring(1, 2);
+  }
+
+  static Map<String, List<Integer>> volg(int[] start, List<int[]> borden) {
+    return volg(start, borden, false);
+  }
+
+  static Map<String, List<Integer>> volg(int[] start, List<int[]> borden,
+                                         boolean voorNico) {
+    Map<String, Integer>        ids       =
+        new TreeMap<>((id1, id2) -> getSleutel(id1).compareTo(getSleutel(id2)));
+    Map<String, List<Integer>>  trajecten = new LinkedHashMap<>();
+
+    for (var i = 9; i > 1; i--) {
+      for (var j = 1; j < 9; j++) {
+        var positie = i*10+j;
+        if (start[positie] != 0) {
+          ids.put("" + CaissaUtils.getStuk(start[positie])
+                    + CaissaUtils.internToExtern(positie),
+                  TrajectVolger.getCoordinaat(positie));
+        }
+      }
+    }
+    ids.forEach((id, waarde) -> {
+      List<Integer> traject = new ArrayList<>();
+      traject.add(waarde);
+      trajecten.put(id, traject);
+    });
+
+    for (var bord : borden) {
+      Map<String, String> verplaatst  = new HashMap<>();
+      verwerkIds(bord, ids, verplaatst);
+      verwerkBord(bord, ids, verplaatst, trajecten, voorNico);
+      trajecten.forEach((id, traject) -> traject.add(ids.get(id)));
+    }
+
+    return trajecten;
+  }
+
+  private static void verwerkBord(int[] bord, Map<String, Integer> ids,
+                                  Map<String, String> verplaatst,
+                                  Map<String, List<Integer>> trajecten,
+                                  boolean voorNico) {
+    for (var i = 9; i > 1; i--) {
+      for (var j = 1; j < 9; j++) {
+        var positie     = i*10+j;
+        var coordinaat  = TrajectVolger.getCoordinaat(positie);
+        if (bord[positie] == 0
+            || ids.containsValue(coordinaat)) {
+          continue;
+        }
+
+        var stuk  = String.valueOf(CaissaUtils.getStuk(bord[positie]));
+        if (verplaatst.containsKey(stuk)) {
+          if (ids.get(verplaatst.get(stuk)) == TrajectVolger.OUT) {
+            ids.put(verplaatst.get(stuk), coordinaat);
+          }
+          continue;
+        }
+
+        var plies     = trajecten.values().iterator().next().size();
+        var promotie  = verplaatst.containsKey("p") ? verplaatst.get("p")
+                                                    : verplaatst.get("P");
+        ids.put(promotie,
+                voorNico ? 100 + coordinaat : TrajectVolger.PROMOTIE);
+        var           id      = stuk + promotie.substring(1);
+        List<Integer> traject = new ArrayList<>();
+        for (var k = 0; k < plies; k++) {
+          traject.add(TrajectVolger.EXTRA);
+        }
+        ids.put(id, (voorNico ? 200 : 0) + coordinaat);
+        trajecten.put(id, traject);
+      }
+    }
+  }
+
+  private static void verwerkIds(int[] bord, Map<String, Integer> ids,
+                                 Map<String, String> verplaatst) {
+    for (Entry<String, Integer> id : ids.entrySet()) {
+      int waarde  = id.getValue();
+      if (waarde >= 0
+          && waarde < 100) {
+        var positie = TrajectVolger.getPositie(waarde);
+        if (bord[positie] != CaissaUtils.zoekStuk(id.getKey().charAt(0))) {
+          if (bord[positie] == 0) {
+            verplaatst.put(id.getKey().substring(0, 1), id.getKey());
+          }
+          id.setValue(TrajectVolger.OUT);
+        }
+      } else if (waarde == TrajectVolger.PROMOTIE
+                 || (waarde >= 100 && waarde < 200)) {
+        id.setValue(TrajectVolger.OUT);
+      } else if (waarde >= 200) {
+        id.setValue(waarde - 200);
+      }
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.PGN;
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class PgnIndexTest {
+  private Path  map;
+  private Path  pgn;
+
+  private static String partij(int nummer) {
+    return "[Event \"Test\"]\n"
+           + "[Date \"2026.01.0" + nummer + "\"]\n"
+           + "[White \"Wit" + nummer + "\"]\n"
+           + "[Black \"Zwart" + nummer + "\"]\n"
+           + "[Result \"1-0\"]\n\n"
+           + "1. e4 e5 2. Nf3 {[Event \"geen partij\"]} Nc6 1-0\n\n";
+  }
+
+  @Before
+  public void maakPgn() throws IOException {
+    map = Files.createTempDirectory("pgnindex");
+    pgn = map.resolve("index.pgn");
+    Files.write(pgn, (partij(1) + partij(2) + partij(3))
+                        .getBytes(StandardCharsets.UTF_8));
+  }
+
+  @After
+  public void verwijder() throws IOException {
+    try (var paden = Files.walk(map)) {
+      paden.sorted(Comparator.reverseOrder())
+           .forEach(pad -> pad.toFile().delete());
+    }
+  }
+
+  private Path getIndex() {
+    return Paths.get(PgnIndex.getIndexnaam(pgn.toString()));
+  }
+
+  @Test
+  public void testLees() throws BestandException, PgnException {
+    var pgnIndex  = PgnIndex.laad(pgn.toString());
+    var partij    = pgnIndex.lees(1);
+
+    assertEquals("Wit2", partij.getTag(PGN.PGNTAG_WHITE));
+    assertEquals("1. e4 e5 2. Nf3 {[Event \"geen partij\"]} Nc6",
+                 partij.getZetten());
+
+    try (var pgnLezer = pgnIndex.getLezer(1, 3)) {
+      assertEquals("Wit2", pgnLezer.next().getTag(PGN.PGNTAG_WHITE));
+      assertEquals("Wit3", pgnLezer.next().getTag(PGN.PGNTAG_WHITE));
+      assertFalse(pgnLezer.hasNext());
+    }
+    try (var pgnLezer = pgnIndex.getLezer(3, 3)) {
+      assertFalse(pgnLezer.hasNext());
+    }
+  }
+
+  @Test
+  public void testOudeIndex() throws BestandException, IOException {
+    PgnIndex.laad(pgn.toString());
+    Files.write(pgn, partij(4).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+    Files.setLastModifiedTime(pgn,
+        FileTime.fromMillis(Files.getLastModifiedTime(getIndex()).toMillis()
+                            + 2000));
+
+    var pgnIndex  = PgnIndex.laad(pgn.toString());
+
+    assertEquals(4, pgnIndex.size());
+    assertEquals("Wit4", pgnIndex.get(3).getTag(PGN.PGNTAG_WHITE));
+  }
+
+  @Test
+  public void testOngeldigeIndex() throws BestandException, IOException {
+    PgnIndex.laad(pgn.toString());
+    // Een jongere index die niet meer bij het bestand past.
+    Files.write(pgn, partij(4).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+    Files.setLastModifiedTime(getIndex(),
+        FileTime.fromMillis(Files.getLastModifiedTime(pgn).toMillis()
+                            + 2000));
+
+    assertEquals(4, PgnIndex.laad(pgn.toString()).size());
+  }
+
+  @Test
+  public void testScan() throws BestandException {
+    var pgnIndex  = PgnIndex.laad(pgn.toString());
+    var lengte    = partij(1).getBytes(StandardCharsets.UTF_8).length;
+
+    assertEquals(3, pgnIndex.size());
+    for (var i = 0; i < 3; i++) {
+      assertEquals((long) i * lengte, pgnIndex.get(i).getOffset());
+      assertEquals(lengte, pgnIndex.get(i).getLengte());
+      assertEquals("Wit" + (i + 1),
+                   pgnIndex.get(i).getTag(PGN.PGNTAG_WHITE));
+      assertEquals("2026.01.0" + (i + 1),
+                   pgnIndex.get(i).getTag(PGN.PGNTAG_DATE));
+    }
+  }
+
+  @Test
+  public void testSchrijfEnLeesIndex() throws BestandException, IOException {
+    var gescand = PgnIndex.laad(pgn.toString());
+    assertTrue(Files.exists(getIndex()));
+
+    // Een aangepaste tag in de index bewijst dat de index gelezen wordt en
+    // het PGN bestand niet opnieuw gescand.
+    var index = new String(Files.readAllBytes(getIndex()),
+                           StandardCharsets.UTF_8);
+    Files.write(getIndex(), index.replace("Zwart2", "Anders")
+                                 .getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(getIndex(),
+        FileTime.fromMillis(Files.getLastModifiedTime(pgn).toMillis()
+                            + 2000));
+
+    var gelezen = PgnIndex.laad(pgn.toString());
+
+    assertEquals(gescand.size(), gelezen.size());
+    for (var i = 0; i < gescand.size(); i++) {
+      assertEquals(gescand.get(i).getOffset(), gelezen.get(i).getOffset());
+      assertEquals(gescand.get(i).getLengte(), gelezen.get(i).getLengte());
+      assertEquals(gescand.get(i).getTag(PGN.PGNTAG_WHITE),
+                   gelezen.get(i).getTag(PGN.PGNTAG_WHITE));
+    }
+    assertEquals("Anders", gelezen.get(1).getTag(PGN.PGNTAG_BLACK));
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.PGN;
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class PgnLezerTest {
+  private static List<PGN> lees(String pgn)
+      throws BestandException, PgnException {
+    List<PGN> partijen  = new ArrayList<>();
+    try (var pgnLezer =
+            new PgnLezer(new BufferedReader(new StringReader(pgn)))) {
+      while (pgnLezer.hasNext()) {
+        partijen.add(pgnLezer.next());
+      }
+      assertEquals(partijen.size(), pgnLezer.getAantal());
+    }
+
+    return partijen;
+  }
+
+  @Test
+  public void testCommentaar() throws BestandException, PgnException {
+    var partijen  = lees("[Event \"Test\"]\n"
+                         + "[White \"Wit\"]\n\n"
+                         + "1. e4 {Een commentaar\n"
+                         + "[%clk 0:10:00] over 2 lijnen} e5 1-0\n\n"
+                         + "[Event \"Test\"]\n\n"
+                         + "1. d4 d5 *\n");
+
+    assertEquals(2, partijen.size());
+    assertEquals("Wit", partijen.get(0).getTag("White"));
+    assertEquals("1. e4 {Een commentaar [%clk 0:10:00] over 2 lijnen} e5",
+                 partijen.get(0).getZetten());
+    assertEquals("1. d4 d5", partijen.get(1).getZetten());
+  }
+
+  @Test(expected = PgnException.class)
+  public void testCommentaarNietAfgesloten()
+      throws BestandException, PgnException {
+    lees("[Event \"Test\"]\n\n1. e4 {Een commentaar e5 1-0\n");
+  }
+
+  @Test(expected = PgnException.class)
+  public void testFouteTag() throws BestandException, PgnException {
+    lees("[Event \"Test\"\n[White \"Wit\"]\n\n1. e4 e5 1-0\n");
+  }
+
+  @Test
+  public void testHasNext() throws BestandException, PgnException {
+    try (var pgnLezer =
+            new PgnLezer(new BufferedReader(new StringReader("\n\n")))) {
+      assertFalse(pgnLezer.hasNext());
+    }
+  }
+
+  @Test
+  public void testLeeg() throws BestandException, PgnException {
+    assertEquals(0, lees("").size());
+    assertEquals(0, lees("\uFEFF\n\n").size());
+  }
+
+  @Test(expected = PgnException.class)
+  public void testTagZonderWaarde() throws BestandException, PgnException {
+    lees("[Event]\n\n1. e4 e5 1-0\n");
+  }
+
+  @Test(expected = PgnException.class)
+  public void testVariantNietAfgesloten()
+      throws BestandException, PgnException {
+    lees("[Event \"Test\"]\n\n1. e4 (1. d4 d5 e5 1-0\n");
+  }
+
+  @Test
+  public void testVarianten() throws BestandException, PgnException {
+    var partijen  = lees("[Event \"Test\"]\n\n"
+                         + "1. e4 (1. d4 d5 (1... Nf6)\n"
+                         + "2. c4) e5 {(geen variant} 1/2-1/2\n");
+
+    assertEquals(1, partijen.size());
+    assertEquals("1. e4 (1. d4 d5 (1... Nf6) 2. c4) e5 {(geen variant}",
+                 partijen.get(0).getZetten());
+  }
+
+  @Test(expected = PgnException.class)
+  public void testZonderTags() throws BestandException, PgnException {
+    lees("1. e4 e5 1-0\n");
+  }
+}
@@ -16,14 +16,28 @@
  */
 package eu.debooy.caissatools;
 
+import eu.debooy.caissa.CaissaUtils;
+import eu.debooy.caissa.FEN;
+import eu.debooy.caissa.exceptions.FenException;
+import eu.debooy.caissa.exceptions.PgnException;
 import eu.debooy.doosutils.DoosUtils;
 import eu.debooy.doosutils.access.Bestand;
 import eu.debooy.doosutils.exception.BestandException;
 import eu.debooy.doosutils.test.BatchTest;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.smile.SmileFactory;
+import org.codehaus.jackson.type.TypeReference;
 import org.junit.AfterClass;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -37,33 +51,153 @@ public class PgnToJsonTest extends BatchTest {
   protected static final  ClassLoader CLASSLOADER =
       PgnToJsonTest.class.getClassLoader();
 
-  private static final  String  BST_COMPETITIE1_JSON  = "competitie1.json";
-  private static final  String  BST_JSON_JSON         = "json.json";
-  private static final  String  BST_JSON_PGN          = "json.pgn";
-  private static final  String  BST_PARTIJ_JSON       = "partij.json";
+  private static final  String  BST_COMPETITIE1_JSON   = "competitie1.json";
+  private static final  String  BST_COMPETITIEC_JSON   = "competitieC.json";
+  private static final  String  BST_COMPETITIEM_JSON   = "competitieM.json";
+  private static final  String  BST_COMPETITIEN_NDJSON = "competitieN.ndjson";
+  private static final  String  BST_COMPETITIES_SMILE  = "competitieS.smile";
+  private static final  String  BST_COMPETITIESM_SMILE = "competitieSM.smile";
+  private static final  String  BST_JSON_JSON          = "json.json";
+  private static final  String  BST_JSON_PGN           = "json.pgn";
+  private static final  String  BST_PARTIJ_JSON        = "partij.json";
+  private static final  String  BST_PARTIJC_JSON       = "partijC.json";
+  private static final  String  BST_PARTIJF_JSON       = "partijF.json";
 
   private static final  String  PAR_BESTAND_JSON      =
       "--bestand=" + getTemp() + DoosUtils.getFileSep()+ "json";
   private static final  String  PAR_BESTAND_PARTIJ    =
       "--bestand=" + getTemp() + DoosUtils.getFileSep()+ "partij";
+  private static final  String  PAR_CACHE             = "--cache=";
+  private static final  String  PAR_COMPACT           = "--compact";
+  private static final  String  PAR_FORMAAT_NDJSON    = "--formaat=ndjson";
+  private static final  String  PAR_FORMAAT_SMILE     = "--formaat=smile";
   private static final  String  PAR_INCL_LEGE         = "--metlege";
+  private static final  String  PAR_INDEX             = "--index";
   private static final  String  PAR_JSON_COMPETITIE1  =
       "--json=" + getTemp() + DoosUtils.getFileSep()+ "competitie1";
+  private static final  String  PAR_JSON_COMPETITIEC  =
+      "--json=" + getTemp() + DoosUtils.getFileSep()+ "competitieC";
+  private static final  String  PAR_JSON_COMPETITIEM  =
+      "--json=" + getTemp() + DoosUtils.getFileSep()+ "competitieM";
+  private static final  String  PAR_JSON_COMPETITIEN  =
+      "--json=" + getTemp() + DoosUtils.getFileSep()+ "competitieN";
+  private static final  String  PAR_JSON_COMPETITIES  =
+      "--json=" + getTemp() + DoosUtils.getFileSep()+ "competitieS";
+  private static final  String  PAR_JSON_COMPETITIESM =
+      "--json=" + getTemp() + DoosUtils.getFileSep()+ "competitieSM";
   private static final  String  PAR_JSON_JSON         =
       "--json=" + getTemp() + DoosUtils.getFileSep()+ "json";
   private static final  String  PAR_JSON_PARTIJ       =
       "--json=" + getTemp() + DoosUtils.getFileSep()+ "partij";
+  private static final  String  PAR_JSON_PARTIJC      =
+      "--json=" + getTemp() + DoosUtils.getFileSep()+ "partijC";
+  private static final  String  PAR_JSON_PARTIJF      =
+      "--json=" + getTemp() + DoosUtils.getFileSep()+ "partijF";
+  private static final  String  PAR_METFEN            = "--metFEN";
+  private static final  String  PAR_PERBESTAND        = "--perBestand=10";
+  private static final  String  PAR_THREADS           = "--threads=4";
 
   @AfterClass
   public static void afterClass() {
     verwijderBestanden(getTemp() + File.separator,
                        new String[] {BST_COMPETITIE1_JSON,
+                                     BST_COMPETITIEC_JSON,
+                                     BST_COMPETITIEM_JSON,
+                                     BST_COMPETITIEN_NDJSON,
+                                     BST_COMPETITIES_SMILE,
+                                     BST_COMPETITIESM_SMILE,
                                      TestConstants.BST_COMPETITIE2_PGN,
                                      BST_JSON_JSON, BST_JSON_PGN,
-                                     BST_PARTIJ_JSON,
+                                     BST_PARTIJ_JSON, BST_PARTIJC_JSON,
+                                     BST_PARTIJF_JSON,
                                      TestConstants.BST_PARTIJ_PGN});
   }
 
+  // Zet een compacte partij terug om naar de FEN codes van elke zet.
+  protected static List<String> decodeer(Map<String, Object> partij) {
+    List<String>  fens    = new ArrayList<>();
+    var           velden  = ((String) partij.get("fen")).split(" ");
+    var           bord    = new char[64];
+    var           aanZet  = velden[1].charAt(0);
+    var           zetnr   = Integer.parseInt(velden[5]);
+
+    var veld  = 0;
+    for (var teken : velden[0].toCharArray()) {
+      if (Character.isDigit(teken)) {
+        for (var i = 0; i < teken - '0'; i++) {
+          bord[veld++]  = '.';
+        }
+      } else if (teken != '/') {
+        bord[veld++]    = teken;
+      }
+    }
+
+    for (var positie : (List<?>) partij.get("posities")) {
+      var delta = ((String) positie).split(" ");
+      veld      = 0;
+      var aantal  = 0;
+      for (var teken : delta[0].toCharArray()) {
+        if (Character.isDigit(teken)) {
+          aantal  = aantal * 10 + (teken - '0');
+        } else {
+          veld          += aantal;
+          aantal        = 0;
+          bord[veld++]  = teken;
+        }
+      }
+      if (aanZet == 'b') {
+        zetnr++;
+        aanZet  = 'w';
+      } else {
+        aanZet  = 'b';
+      }
+      fens.add(getFenBord(bord) + " " + aanZet + " " + delta[1] + " "
+               + delta[2] + " " + delta[3] + " " + zetnr);
+    }
+
+    return fens;
+  }
+
+  private static String getFenBord(char[] bord) {
+    var fen = new StringBuilder();
+    for (var rij = 0; rij < 8; rij++) {
+      if (rij > 0) {
+        fen.append('/');
+      }
+      var leeg  = 0;
+      for (var lijn = 0; lijn < 8; lijn++) {
+        var teken = bord[rij * 8 + lijn];
+        if (teken == '.') {
+          leeg++;
+          continue;
+        }
+        if (leeg > 0) {
+          fen.append(leeg);
+          leeg  = 0;
+        }
+        fen.append(teken);
+      }
+      if (leeg > 0) {
+        fen.append(leeg);
+      }
+    }
+
+    return fen.toString();
+  }
+
+  private static List<Map<String, Object>> leesJson(String bestand)
+      throws IOException {
+    return leesJson(bestand, new ObjectMapper());
+  }
+
+  private static List<Map<String, Object>> leesJson(String bestand,
+                                                    ObjectMapper mapper)
+      throws IOException {
+    return mapper.readValue(
+        new File(getTemp() + File.separator + bestand),
+        new TypeReference<List<Map<String, Object>>>() {});
+  }
+
   @BeforeClass
   public static void beforeClass() throws BestandException {
     Locale.setDefault(new Locale(TestConstants.TST_TAAL));
@@ -114,6 +248,274 @@ public class PgnToJsonTest extends BatchTest {
     Bestand.delete(getTemp() + File.separator + BST_COMPETITIE1_JSON);
   }
 
+  @Test
+  public void testCompetitiePgnToJsonThreads() throws BestandException {
+    String[]  args  = new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_INCL_LEGE,
+                                    PAR_JSON_COMPETITIE1,
+                                    PAR_THREADS};
+
+    try {
+      Bestand.delete(getTemp() + File.separator + BST_COMPETITIE1_JSON);
+    } catch (BestandException e) {
+    }
+
+    before();
+    PgnToJson.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals("64", out.get(14).split(":")[1].trim());
+    assertEquals("64", out.get(16).split(":")[1].trim());
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(getTemp() + File.separator
+                                      + BST_COMPETITIE1_JSON),
+            Bestand.openInvoerBestand(PgnToJsonTest.class.getClassLoader(),
+                                      BST_COMPETITIE1_JSON)));
+
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIE1_JSON);
+  }
+
+  @Test
+  public void testCompetitiePgnToJsonIndexThreads() throws BestandException {
+    String[]  args  = new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_INCL_LEGE,
+                                    PAR_INDEX,
+                                    PAR_JSON_COMPETITIE1,
+                                    PAR_THREADS};
+
+    try {
+      Bestand.delete(getTemp() + File.separator + BST_COMPETITIE1_JSON);
+    } catch (BestandException e) {
+    }
+
+    before();
+    PgnToJson.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals("64", out.get(14).split(":")[1].trim());
+    assertEquals("64", out.get(16).split(":")[1].trim());
+    assertTrue(
+        Bestand.equals(
+            Bestand.openInvoerBestand(getTemp() + File.separator
+                                      + BST_COMPETITIE1_JSON),
+            Bestand.openInvoerBestand(PgnToJsonTest.class.getClassLoader(),
+                                      BST_COMPETITIE1_JSON)));
+
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIE1_JSON);
+    Bestand.delete(PgnIndex.getIndexnaam(getTemp() + File.separator
+                                         + TestConstants.BST_COMPETITIE2_PGN));
+  }
+
+  @Test
+  public void testCompactPartijToJson() throws BestandException, IOException {
+    before();
+    PgnToJson.execute(new String[] {PAR_BESTAND_PARTIJ, PAR_METFEN,
+                                    PAR_JSON_PARTIJF});
+    PgnToJson.execute(new String[] {PAR_BESTAND_PARTIJ, PAR_COMPACT,
+                                    PAR_METFEN, PAR_JSON_PARTIJC});
+    after();
+
+    assertEquals(0, err.size());
+
+    var volledig  = leesJson(BST_PARTIJF_JSON);
+    var compacte  = leesJson(BST_PARTIJC_JSON);
+    assertEquals(volledig.size(), compacte.size());
+    for (var i = 0; i < volledig.size(); i++) {
+      var zetten    = (Map<?, ?>) volledig.get(i).get("moves");
+      var notaties  = (List<?>) compacte.get(i).get("moves");
+      var fens      = decodeer(compacte.get(i));
+      assertEquals(zetten.size(), notaties.size());
+      assertEquals(zetten.size(), fens.size());
+      for (var j = 0; j < zetten.size(); j++) {
+        var zet = (Map<?, ?>) zetten.get(Integer.toString(j));
+        assertEquals(zet.get("notatie"), notaties.get(j));
+        assertEquals(zet.get("fen"), fens.get(j));
+      }
+    }
+    assertTrue(new File(getTemp() + File.separator + BST_PARTIJC_JSON).length()
+                < new File(getTemp() + File.separator + BST_PARTIJF_JSON)
+                      .length());
+
+    Bestand.delete(getTemp() + File.separator + BST_PARTIJC_JSON);
+    Bestand.delete(getTemp() + File.separator + BST_PARTIJF_JSON);
+  }
+
+  @Test
+  public void testCompetitiePgnToJsonCache()
+      throws BestandException, IOException {
+    var cache = PartijCache.getCachenaam(getTemp() + File.separator
+                                         + TestConstants.BST_COMPETITIE2_PGN);
+
+    before();
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_INCL_LEGE, PAR_METFEN,
+                                    PAR_JSON_COMPETITIE1});
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_CACHE + "100", PAR_INCL_LEGE,
+                                    PAR_METFEN, PAR_JSON_COMPETITIEC});
+    assertEquals(64, PartijCache.laad(cache, 100, "").size());
+
+    // Met een kleinere cache blijven enkel de 10 laatst gebruikte over.
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_CACHE + "10", PAR_INCL_LEGE,
+                                    PAR_METFEN, PAR_JSON_COMPETITIEC});
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals(leesJson(BST_COMPETITIE1_JSON),
+                 leesJson(BST_COMPETITIEC_JSON));
+    assertEquals(10, PartijCache.laad(cache, 100, "").size());
+
+    Bestand.delete(cache);
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIE1_JSON);
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIEC_JSON);
+  }
+
+  @Test
+  public void testCompetitiePgnToJsonPerBestand()
+      throws BestandException, IOException {
+    before();
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_INCL_LEGE, PAR_JSON_COMPETITIEM,
+                                    PAR_PERBESTAND});
+    after();
+
+    assertEquals(0, err.size());
+
+    var mapper    = new ObjectMapper();
+    var manifest  =
+        mapper.readValue(new File(getTemp() + File.separator
+                                  + BST_COMPETITIEM_JSON), Map.class);
+    var bestanden = (List<?>) manifest.get("bestanden");
+    var partijen  = (List<?>) manifest.get("partijen");
+    assertEquals(7, bestanden.size());
+    assertEquals(64, partijen.size());
+    for (var item : partijen) {
+      var partij  = (Map<?, ?>) item;
+      var deel    =
+          Files.readAllBytes(
+              Paths.get(getTemp(),
+                        (String) bestanden.get(
+                            ((Number) partij.get("bestand")).intValue() - 1)));
+      var offset  = ((Number) partij.get("offset")).intValue();
+      var json    =
+          mapper.readValue(Arrays.copyOfRange(deel, offset,
+                                              offset + ((Number) partij
+                                                  .get("lengte")).intValue()),
+                           Map.class);
+      assertEquals(partij.get("_gamekey"), json.get("_gamekey"));
+      assertEquals(partij.get("White"), json.get("White"));
+    }
+
+    for (var i = 1; i <= bestanden.size(); i++) {
+      Bestand.delete(JsonUitvoer.getDeelnaam(getTemp() + File.separator
+                                             + BST_COMPETITIEM_JSON, i));
+    }
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIEM_JSON);
+  }
+
+  @Test
+  public void testCompetitiePgnToNdjson() throws BestandException, IOException {
+    before();
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_INCL_LEGE, PAR_JSON_COMPETITIE1});
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_FORMAAT_NDJSON, PAR_INCL_LEGE,
+                                    PAR_JSON_COMPETITIEN});
+    after();
+
+    assertEquals(0, err.size());
+
+    var mapper  = new ObjectMapper();
+    var lijnen  =
+        Files.readAllLines(Paths.get(getTemp(), BST_COMPETITIEN_NDJSON),
+                           StandardCharsets.UTF_8);
+    List<Map<String, Object>> partijen  = new ArrayList<>();
+    for (var lijn : lijnen) {
+      partijen.add(mapper.readValue(lijn,
+                                    new TypeReference<Map<String, Object>>() {}));
+    }
+
+    assertEquals(64, lijnen.size());
+    assertEquals(leesJson(BST_COMPETITIE1_JSON), partijen);
+
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIE1_JSON);
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIEN_NDJSON);
+  }
+
+  @Test
+  public void testCompetitiePgnToSmile() throws BestandException, IOException {
+    before();
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_INCL_LEGE, PAR_METFEN,
+                                    PAR_JSON_COMPETITIE1});
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_FORMAAT_SMILE, PAR_INCL_LEGE,
+                                    PAR_METFEN, PAR_JSON_COMPETITIES});
+    after();
+
+    assertEquals(0, err.size());
+    assertEquals(leesJson(BST_COMPETITIE1_JSON),
+                 leesJson(BST_COMPETITIES_SMILE,
+                          new ObjectMapper(new SmileFactory())));
+    assertTrue(new File(getTemp() + File.separator + BST_COMPETITIES_SMILE)
+                    .length()
+                < new File(getTemp() + File.separator + BST_COMPETITIE1_JSON)
+                      .length());
+
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIE1_JSON);
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIES_SMILE);
+  }
+
+  @Test
+  public void testCompetitiePgnToSmilePerBestand()
+      throws BestandException, IOException {
+    before();
+    PgnToJson.execute(new String[] {TestConstants.PAR_BESTAND2,
+                                    PAR_FORMAAT_SMILE, PAR_INCL_LEGE,
+                                    PAR_JSON_COMPETITIESM, PAR_PERBESTAND});
+    after();
+
+    assertEquals(0, err.size());
+
+    // Elke partij moet met enkel haar eigen bytes te lezen zijn.
+    var mapper    = new ObjectMapper(new SmileFactory());
+    var manifest  =
+        mapper.readValue(new File(getTemp() + File.separator
+                                  + BST_COMPETITIESM_SMILE), Map.class);
+    var bestanden = (List<?>) manifest.get("bestanden");
+    var partijen  = (List<?>) manifest.get("partijen");
+    assertEquals(7, bestanden.size());
+    assertEquals(64, partijen.size());
+    for (var item : partijen) {
+      var partij  = (Map<?, ?>) item;
+      var deel    =
+          Files.readAllBytes(
+              Paths.get(getTemp(),
+                        (String) bestanden.get(
+                            ((Number) partij.get("bestand")).intValue() - 1)));
+      var offset  = ((Number) partij.get("offset")).intValue();
+      var json    =
+          new ObjectMapper(new SmileFactory())
+              .readValue(Arrays.copyOfRange(deel, offset,
+                                            offset + ((Number) partij
+                                                .get("lengte")).intValue()),
+                         Map.class);
+      assertEquals(partij.get("_gamekey"), json.get("_gamekey"));
+      assertEquals(partij.get("White"), json.get("White"));
+      assertEquals(partij.get("Black"), json.get("Black"));
+    }
+
+    for (var i = 1; i <= bestanden.size(); i++) {
+      Bestand.delete(JsonUitvoer.getDeelnaam(getTemp() + File.separator
+                                             + BST_COMPETITIESM_SMILE, i));
+    }
+    Bestand.delete(getTemp() + File.separator + BST_COMPETITIESM_SMILE);
+  }
+
   @Test
   public void testLeeg() {
     String[]  args      = new String[] {};
@@ -175,6 +577,32 @@ public class PgnToJsonTest extends BatchTest {
     Bestand.delete(getTemp() + File.separator + BST_PARTIJ_JSON);
   }
 
+  @Test
+  public void testPgnviewer()
+      throws BestandException, FenException, PgnException {
+    try (var pgnLezer =
+            new PgnLezer(getTemp() + File.separator
+                         + TestConstants.BST_PARTIJ_PGN)) {
+      while (pgnLezer.hasNext()) {
+        var zetten    = pgnLezer.next().getZuivereZetten();
+        var fen       = new FEN();
+        var pgnviewer = new StringBuilder();
+        for (var zet : zetten.split(" ")) {
+          var vorig = fen.getBord().clone();
+          fen.doeZet(CaissaUtils.vindZet(fen, zet.replaceAll("^\\d*\\.",
+                                                             "")));
+          if (pgnviewer.length() > 0) {
+            pgnviewer.append(' ');
+          }
+          PgnToJson.voegChessTheatreZetToe(pgnviewer, vorig, fen.getBord());
+        }
+
+        assertEquals(CaissaUtils.pgnZettenToChessTheatre(zetten),
+                     pgnviewer.toString());
+      }
+    }
+  }
+
   @Test
   public void testZonderLegePartijen() throws BestandException {
     String[]  args  = new String[] {PAR_BESTAND_JSON,
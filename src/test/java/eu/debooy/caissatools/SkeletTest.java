@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class SkeletTest {
+  @Test
+  public void testLaad() throws IOException {
+    var skelet  = Skelet.laad("index.properties");
+
+    assertSame(skelet, Skelet.laad("index.properties"));
+    assertEquals(2, skelet.getReeks("table.head.begin.").length);
+    assertEquals(0, skelet.getReeks("table.onbekend.").length);
+  }
+
+  @Test
+  public void testSchrijf() throws IOException {
+    var skelet  = Skelet.laad("index.properties");
+
+    for (var sleutel : new String[] {"table.row.nr", "table.row.punten"}) {
+      var sjabloon  = skelet.getSjabloon(sleutel);
+      for (var params : new Object[][] {{"7", "½"}, {12, ""}, {1234, "¼"},
+                                        {"a'b", 2.5}}) {
+        assertEquals(MessageFormat.format(sjabloon.getWaarde(), params),
+                     sjabloon.schrijf(new StringBuilder(), params)
+                             .toString());
+      }
+    }
+  }
+
+  @Test
+  public void testOntbrekendeParameter() throws IOException {
+    var sjabloon  =
+        Skelet.laad("index.properties").getSjabloon("table.row.punten");
+
+    assertEquals(MessageFormat.format(sjabloon.getWaarde(), "1"),
+                 sjabloon.schrijf(new StringBuilder(), "1").toString());
+  }
+}
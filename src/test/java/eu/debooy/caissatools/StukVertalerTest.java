@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.CaissaConstants;
+import eu.debooy.caissa.CaissaUtils;
+import eu.debooy.caissa.exceptions.PgnException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class StukVertalerTest {
+  private static final  String  EN  =
+      CaissaConstants.Stukcodes.valueOf("EN").getStukcodes();
+  private static final  String  NL  =
+      CaissaConstants.Stukcodes.valueOf("NL").getStukcodes();
+
+  private static final  String  ZETTEN    =
+      "1.e4 e5 2.Nf3 Nc6 3.Bb5 a6 4.Ba4 Nf6 5.O-O Be7 6.Re1 b5 7.Bb3 d6 "
+      + "8.c3 O-O 9.h3 Nb8 10.d4 Nbd7 11.Qe2 Rb8 12.dxe5 dxe5 13.Rd1 Qe8 "
+      + "14.a4 Kh8 15.axb5 axb5 16.Nbd2 c5 17.Nf1 c4 18.Bc2 Bb7 19.Ng3 g6 "
+      + "20.Bh6 Rg8 21.Ng5 Bf8 22.Bxf8 Rxf8 23.Qf3 Nb6 24.Nf5 gxf5 "
+      + "25.Qh5 Rg8 26.Nxf7+ Qxf7 27.Qxf7 h5 28.Rd8 Rbxd8 29.Qxf5 c3 "
+      + "30.bxc3 b4 31.cxb4 h4 32.b5 h3 33.b6 hxg2 34.b7 g1=Q+ 35.Kxg1 Bc6 "
+      + "36.b8=N";
+
+  @Test
+  public void testGelijk() {
+    var vertaler  = StukVertaler.getVertaler(EN, EN);
+
+    assertSame(ZETTEN, vertaler.vertaal(ZETTEN));
+  }
+
+  @Test
+  public void testCommentaar() {
+    var vertaler  = StukVertaler.getVertaler(EN, NL);
+
+    assertEquals("1.Pf3 {Beste Nf3} Pf6 ; Nog Nc3\n2.Pc3",
+                 vertaler.vertaal("1.Nf3 {Beste Nf3} Nf6 ; Nog Nc3\n2.Nc3"));
+  }
+
+  @Test
+  public void testHeenEnTerug() {
+    var heen  = StukVertaler.getVertaler(EN, NL).vertaal(ZETTEN);
+
+    assertEquals(ZETTEN, StukVertaler.getVertaler(NL, EN).vertaal(heen));
+  }
+
+  @Test
+  public void testRochade() {
+    var vertaler  = StukVertaler.getVertaler(EN, NL);
+
+    // Een rochade blijft zoals ze in de invoer staat.
+    assertEquals("5.O-O O-O-O 1-0", vertaler.vertaal("5.O-O O-O-O 1-0"));
+    assertEquals("5.0-0 0-0-0 1-0", vertaler.vertaal("5.0-0 0-0-0 1-0"));
+  }
+
+  @Test
+  public void testZelfdeAlsCaissaUtils() throws PgnException {
+    assertEquals(CaissaUtils.vertaalStukken(ZETTEN, EN, NL),
+                 StukVertaler.getVertaler(EN, NL).vertaal(ZETTEN));
+    assertEquals(CaissaUtils.vertaalStukken(ZETTEN, EN, EN),
+                 StukVertaler.getVertaler(EN, EN).vertaal(ZETTEN));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.doosutils.DoosConstants;
+import eu.debooy.doosutils.exception.BestandException;
+import eu.debooy.doosutils.test.BatchTest;
+import java.io.File;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class ToernooivoorspellingTest extends BatchTest {
+  protected static final  ClassLoader CLASSLOADER =
+      ToernooivoorspellingTest.class.getClassLoader();
+
+  @AfterClass
+  public static void afterClass() {
+    verwijderBestanden(getTemp() + File.separator,
+                       new String[] {TestConstants.BST_COMPETITIE_JSON,
+                                    TestConstants.BST_COMPETITIE_PGN});
+  }
+
+  @BeforeClass
+  public static void beforeClass() throws BestandException {
+    Locale.setDefault(new Locale(TestConstants.TST_TAAL));
+    resourceBundle  = ResourceBundle.getBundle(DoosConstants.RESOURCEBUNDLE,
+                                               Locale.getDefault());
+
+    for (var bestand : new String[] {TestConstants.BST_COMPETITIE_JSON,
+                                    TestConstants.BST_COMPETITIE_PGN}) {
+      try {
+        kopieerBestand(CLASSLOADER, bestand,
+                       getTemp() + File.separator + bestand);
+      } catch (IOException e) {
+        throw new BestandException(e);
+      }
+    }
+  }
+
+  // De regels met de kansen per speler.
+  private static List<String> getKansen() {
+    List<String>  kansen  = new ArrayList<>();
+    for (var regel : out) {
+      if (regel.startsWith("Speler, ")) {
+        kansen.add(regel);
+      }
+    }
+
+    return kansen;
+  }
+
+  @Test
+  public void testLeeg() {
+    String[]  args  = new String[] {};
+
+    before();
+    Toernooivoorspelling.execute(args);
+    after();
+
+    assertEquals(1, err.size());
+    assertEquals("PAR-0001", err.get(0).split(" ")[0]);
+  }
+
+  @Test
+  public void testVoorspelling() {
+    String[]  args  = new String[] {TestConstants.PAR_BESTAND,
+                                    TestConstants.PAR_COMPETITIE,
+                                    "--simulaties=20000"};
+
+    before();
+    Toernooivoorspelling.execute(args);
+    after();
+
+    assertEquals(0, err.size());
+
+    // Per speler is de som van de kansen 100%.
+    var spelers = 0;
+    for (var regel : out) {
+      if (!regel.startsWith("Speler, ")) {
+        continue;
+      }
+      spelers++;
+      var delen = regel.trim().split("\\s+");
+      var som   = 0.0;
+      for (var i = 4; i < delen.length; i++) {
+        som += Double.parseDouble(delen[i].replace(',', '.'));
+      }
+      assertEquals(regel, 100.0, som, 0.5);
+    }
+    assertEquals(5, spelers);
+  }
+
+  @Test
+  public void testRemise() {
+    String[]  args  = new String[] {TestConstants.PAR_BESTAND,
+                                    TestConstants.PAR_COMPETITIE,
+                                    "--remise=101"};
+
+    before();
+    Toernooivoorspelling.execute(args);
+    after();
+
+    assertEquals(1, err.size());
+    assertEquals(MessageFormat.format(
+          resourceBundle.getString(CaissaTools.ERR_REMISE), 101),
+                 err.get(0));
+  }
+
+  @Test
+  public void testSimulaties() {
+    String[]  args  = new String[] {TestConstants.PAR_BESTAND,
+                                    TestConstants.PAR_COMPETITIE,
+                                    "--simulaties=0"};
+
+    before();
+    Toernooivoorspelling.execute(args);
+    after();
+
+    assertEquals(1, err.size());
+    assertEquals(MessageFormat.format(
+          resourceBundle.getString(CaissaTools.ERR_SIMULATIES), 0),
+                 err.get(0));
+  }
+
+  @Test
+  public void testZaadje() {
+    String[]  een   = new String[] {TestConstants.PAR_BESTAND,
+                                    TestConstants.PAR_COMPETITIE,
+                                    "--simulaties=25000", "--zaadje=42",
+                                    "--threads=1"};
+    String[]  vier  = new String[] {TestConstants.PAR_BESTAND,
+                                    TestConstants.PAR_COMPETITIE,
+                                    "--simulaties=25000", "--zaadje=42",
+                                    "--threads=4"};
+
+    before();
+    Toernooivoorspelling.execute(een);
+    after();
+    assertEquals(0, err.size());
+    var kansen  = getKansen();
+
+    before();
+    Toernooivoorspelling.execute(vier);
+    after();
+    assertEquals(0, err.size());
+
+    assertEquals(5, kansen.size());
+    assertEquals(kansen, getKansen());
+  }
+}
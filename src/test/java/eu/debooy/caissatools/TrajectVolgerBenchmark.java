@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.CaissaUtils;
+import eu.debooy.caissa.FEN;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Meet de snelheid van de TrajectVolger tegenover de oorspronkelijke
+ * verwerking met een TreeMap en Integer lijsten. De borden van een lange
+ * partij worden eerst opgebouwd zodat enkel het volgen gemeten wordt.
+ *
+ * Gebruik: java eu.debooy.caissatools.TrajectVolgerBenchmark [herhalingen]
+ *
+ * @author Marco de Booij
+ */
+public final class TrajectVolgerBenchmark {
+  private static final  String  ZETTEN  =
+      "e4 e5 Nf3 Nc6 Bb5 a6 Ba4 Nf6 O-O Be7 Re1 b5 Bb3 d6 c3 O-O h3 Nb8 d4 "
+      + "Nbd7 c4 c6 cxb5 axb5 Nc3 Bb7 Bg5 b4 Nb1 h6 Bh4 c5 dxe5 Nxe4 Bxe7 "
+      + "Qxe7 exd6 Qf6 Nbd2 Nxd6 Nc4 Nxc4 Bxc4 Nb6 Ne5 Rae8 Bxf7+ Rxf7 Nxf7 "
+      + "Rxe1+ Qxe1 Kxf7 Qe3 Qg5 Qxg5 hxg5 b3 Ke6 a3 Kd6 axb4 cxb4 Ra5 Nd5 "
+      + "f3 Bc8 Kf2 Bf5 Ra7 g6 Ra6+ Kc5 Ke1 Nf4 g3 Nxh3 Kd2 Kb5 Rd6 Kc5 Ra6 "
+      + "Nf2 g4 Bd3 Re6";
+
+  private TrajectVolgerBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    var herhalingen = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+    var         fen     = new FEN();
+    var         start   = fen.getBord().clone();
+    List<int[]> borden  = new ArrayList<>();
+    for (var zet : ZETTEN.split(" ")) {
+      fen.doeZet(CaissaUtils.vindZet(fen, zet));
+      borden.add(fen.getBord().clone());
+    }
+
+    // Opwarmen
+    meetOud(start, borden, herhalingen / 10);
+    meetNieuw(start, borden, herhalingen / 10);
+
+    var oud   = meetOud(start, borden, herhalingen);
+    var nieuw = meetNieuw(start, borden, herhalingen);
+
+    System.out.println(String.format("%d partijen van %d plies", herhalingen,
+                                     borden.size()));
+    System.out.println(String.format("Oud:   %8d ms", oud / 1000000));
+    System.out.println(String.format("Nieuw: %8d ms", nieuw / 1000000));
+    System.out.println(String.format("Factor: %.1f", (double) oud / nieuw));
+  }
+
+  private static long meetNieuw(int[] start, List<int[]> borden,
+                                int herhalingen) {
+    var begin   = System.nanoTime();
+    var totaal  = 0;
+    for (var i = 0; i < herhalingen; i++) {
+      var volger  = new TrajectVolger(start, false);
+      for (var bord : borden) {
+        volger.verwerk(bord);
+      }
+      totaal  += volger.getTrajecten().size();
+    }
+    if (totaal < 0) {
+      System.out.println(totaal);
+    }
+
+    return System.nanoTime() - begin;
+  }
+
+  private static long meetOud(int[] start, List<int[]> borden,
+                              int herhalingen) {
+    var begin   = System.nanoTime();
+    var totaal  = 0;
+    for (var i = 0; i < herhalingen; i++) {
+      Map<String, List<Integer>>  trajecten =
+          OudeTrajecten.volg(start, borden);
+      totaal  += trajecten.size();
+    }
+    if (totaal < 0) {
+      System.out.println(totaal);
+    }
+
+    return System.nanoTime() - begin;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import eu.debooy.caissa.CaissaUtils;
+import eu.debooy.caissa.FEN;
+import eu.debooy.caissa.PGN;
+import eu.debooy.caissa.exceptions.FenException;
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.exception.BestandException;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class TrajectVolgerTest {
+  private static final  String  BST_PROMOTIE_PGN  = "promotie.pgn";
+
+  private static List<PGN> laad(String bestand)
+      throws BestandException, PgnException {
+    List<PGN> partijen  = new ArrayList<>();
+    try (var pgnLezer =
+            new PgnLezer(new BufferedReader(new InputStreamReader(
+                TrajectVolgerTest.class.getClassLoader()
+                                       .getResourceAsStream(bestand),
+                StandardCharsets.UTF_8)))) {
+      while (pgnLezer.hasNext()) {
+        partijen.add(pgnLezer.next());
+      }
+    }
+
+    return partijen;
+  }
+
+  private static FEN getFen(PGN partij) throws FenException {
+    if (partij.hasTag(PGN.PGNTAG_FEN)) {
+      return new FEN(partij.getTag(PGN.PGNTAG_FEN));
+    }
+
+    return new FEN();
+  }
+
+  private static int getPositie(int[] bord, char stuk) {
+    var code  = CaissaUtils.zoekStuk(stuk);
+    for (var i = 0; i < bord.length; i++) {
+      if (bord[i] == code) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private static Map<String, List<Integer>> referentie(PGN partij,
+                                                       boolean voorNico)
+      throws FenException, PgnException {
+    var         fen     = getFen(partij);
+    var         start   = fen.getBord().clone();
+    List<int[]> borden  = new ArrayList<>();
+    for (var zet : partij.getZuivereZetten().split(" ")) {
+      fen.doeZet(CaissaUtils.vindZet(fen, zet.replaceAll("^\\d*\\.", "")));
+      borden.add(fen.getBord().clone());
+    }
+
+    return OudeTrajecten.volg(start, borden, voorNico);
+  }
+
+  private static Map<String, int[]> volg(PGN partij, boolean voorNico)
+      throws FenException, PgnException {
+    var fen     = getFen(partij);
+    var volger  = new TrajectVolger(fen.getBord(), voorNico);
+    for (var zet : partij.getZuivereZetten().split(" ")) {
+      fen.doeZet(CaissaUtils.vindZet(fen, zet.replaceAll("^\\d*\\.", "")));
+      volger.verwerk(fen.getBord());
+    }
+
+    return volger.getTrajecten();
+  }
+
+  private static void vergelijk(String bestand, boolean voorNico)
+      throws BestandException, FenException, PgnException {
+    for (var partij : laad(bestand)) {
+      var verwacht  = referentie(partij, voorNico);
+      var trajecten = volg(partij, voorNico);
+
+      assertArrayEquals(verwacht.keySet().toArray(),
+                        trajecten.keySet().toArray());
+      for (var traject : verwacht.entrySet()) {
+        assertArrayEquals(traject.getKey(),
+                          traject.getValue().stream()
+                                 .mapToInt(Integer::intValue).toArray(),
+                          trajecten.get(traject.getKey()));
+      }
+    }
+  }
+
+  @Test
+  public void testCompetitie() throws Exception {
+    vergelijk(TestConstants.BST_COMPETITIE2_PGN, false);
+  }
+
+  @Test
+  public void testCoordinaat() {
+    for (var i = 9; i > 1; i--) {
+      for (var j = 1; j < 9; j++) {
+        var positie = i*10+j;
+        assertEquals(positie,
+                     TrajectVolger.getPositie(
+                         TrajectVolger.getCoordinaat(positie)));
+      }
+    }
+  }
+
+  @Test
+  public void testPartij() throws Exception {
+    vergelijk(TestConstants.BST_PARTIJ_PGN, false);
+    vergelijk(TestConstants.BST_PARTIJ_PGN, true);
+  }
+
+  @Test
+  public void testPromotie() throws Exception {
+    var partij    = laad(BST_PROMOTIE_PGN).get(0);
+    var fen       = getFen(partij);
+    var trajecten = volg(partij, false);
+
+    assertArrayEquals(new Object[] {"kd8", "Kc6", "Pd6", "Qd6"},
+                      trajecten.keySet().toArray());
+
+    var pion  = trajecten.get("Pd6");
+    var dame  = trajecten.get("Qd6");
+    assertEquals(pion.length, dame.length);
+    assertEquals(TrajectVolger.getCoordinaat(getPositie(fen.getBord(), 'P')),
+                 pion[0]);
+    assertEquals(TrajectVolger.PROMOTIE, pion[5]);
+    assertEquals(TrajectVolger.OUT, pion[6]);
+    for (var i = 0; i < 5; i++) {
+      assertEquals(TrajectVolger.EXTRA, dame[i]);
+    }
+
+    vergelijk(BST_PROMOTIE_PGN, false);
+    vergelijk(BST_PROMOTIE_PGN, true);
+  }
+}
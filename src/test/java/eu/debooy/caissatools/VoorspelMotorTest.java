@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissatools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class VoorspelMotorTest {
+  private static final  double  DELTA = 1e-9;
+
+  @Test
+  public void testFavoriet() {
+    var motor   = new VoorspelMotor(new int[] {0, 0},
+                                    new int[] {2800, 1000}, 0.0);
+    motor.voegPartijToe(0, 1);
+
+    var kansen  = motor.simuleer(20000, 1L);
+
+    assertTrue(kansen[0][0] > 0.99);
+    assertEquals(kansen[0][0], kansen[1][1], DELTA);
+  }
+
+  @Test
+  public void testGelijk() {
+    var motor   = new VoorspelMotor(new int[] {2, 2, 2},
+                                    new int[] {1600, 1700, 1800}, 0.3);
+
+    var kansen  = motor.simuleer(100, 1L);
+
+    // Samen op de eerste plaats: elk een derde van elke plaats.
+    for (var kans : kansen) {
+      assertArrayEquals(new double[] {1.0 / 3, 1.0 / 3, 1.0 / 3}, kans,
+                        DELTA);
+    }
+  }
+
+  @Test
+  public void testSom() {
+    var spelers = 6;
+    var elo     = new int[spelers];
+    for (var id = 0; id < spelers; id++) {
+      elo[id]   = 1500 + 50 * id;
+    }
+    var motor   = new VoorspelMotor(new int[] {3, 2, 2, 1, 0, 0}, elo, 0.3);
+    for (var wit = 0; wit < spelers; wit++) {
+      for (var zwart = 0; zwart < spelers; zwart++) {
+        if (wit != zwart) {
+          motor.voegPartijToe(wit, zwart);
+        }
+      }
+    }
+
+    var kansen  = motor.simuleer(3 * VoorspelMotor.BLOK + 17, 42L);
+
+    assertEquals(spelers * (spelers - 1), motor.getPartijen());
+    for (var id = 0; id < spelers; id++) {
+      var perSpeler = 0.0;
+      var perPlaats = 0.0;
+      for (var i = 0; i < spelers; i++) {
+        perSpeler += kansen[id][i];
+        perPlaats += kansen[i][id];
+      }
+      assertEquals(1.0, perSpeler, DELTA);
+      assertEquals(1.0, perPlaats, DELTA);
+    }
+    // De sterkste speler heeft de meeste kans op de eerste plaats.
+    assertTrue(kansen[spelers - 1][0] > kansen[0][0]);
+  }
+
+  @Test
+  public void testVerwachting() {
+    assertEquals(0.5, VoorspelMotor.getVerwachting(1600, 1600), DELTA);
+    assertEquals(1.0 / 11, VoorspelMotor.getVerwachting(1600, 2000), DELTA);
+    assertEquals(1.0,
+                 VoorspelMotor.getVerwachting(1600, 1800)
+                  + VoorspelMotor.getVerwachting(1800, 1600), DELTA);
+  }
+
+  @Test
+  public void testZaadje() {
+    var motor = new VoorspelMotor(new int[] {1, 1, 0},
+                                  new int[] {1600, 1650, 1700}, 0.2);
+    motor.voegPartijToe(0, 1);
+    motor.voegPartijToe(1, 2);
+    motor.voegPartijToe(2, 0);
+
+    var een   = motor.simuleer(2 * VoorspelMotor.BLOK, 7L);
+    var twee  = motor.simuleer(2 * VoorspelMotor.BLOK, 7L);
+
+    for (var id = 0; id < een.length; id++) {
+      assertArrayEquals(een[id], twee[id], 0.0);
+    }
+  }
+}